@@ -0,0 +1,116 @@
+#!/usr/bin/env bash
+# 原生镜像冒烟测试：分别构建JVM jar和原生可执行文件，各启动一次，
+# 比较从启动到 /health 返回 OK 的耗时，以及就绪时和稳定运行后的常驻内存（RSS）。
+# 服务商接入地址和IP查询服务都指向本机的关闭端口，不访问外网，也不需要真实账号；状态文件写入临时目录。
+# 原生构建为实验性功能，脚本的原生部分尚未在GraalVM环境中实际运行过。
+#
+# 用法: scripts/native-smoke.sh [--skip-build]
+# 需要: GraalVM for JDK 21+（native-image 在 PATH 中或设置了 GRAALVM_HOME）、curl、Linux /proc
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+JVM_PORT=${JVM_PORT:-18080}
+NATIVE_PORT=${NATIVE_PORT:-18081}
+# 就绪后再等待多久采样稳定内存（秒）
+SETTLE_SECONDS=${SETTLE_SECONDS:-10}
+JAR=target/auto-ddns-1.0.0.jar
+JVM_JAR=target/auto-ddns-jvm.jar
+NATIVE_BIN=target/auto-ddns
+
+WORK_DIR=$(mktemp -d)
+PID=""
+cleanup() {
+    if [[ -n "$PID" ]] && kill -0 "$PID" 2>/dev/null; then
+        kill "$PID" 2>/dev/null || true
+        wait "$PID" 2>/dev/null || true
+    fi
+    rm -rf "$WORK_DIR"
+}
+trap cleanup EXIT
+
+if [[ "${1:-}" != "--skip-build" ]]; then
+    echo ">>> 构建JVM jar"
+    mvn -B -q -DskipTests clean package
+    # native profile 会用AOT处理后的类重新打包jar，先保留一份普通jar
+    cp "$JAR" "$JVM_JAR"
+    echo ">>> 构建原生可执行文件"
+    mvn -B -q -Pnative -DskipTests native:compile
+fi
+
+for file in "$JVM_JAR" "$NATIVE_BIN"; do
+    if [[ ! -f "$file" ]]; then
+        echo "缺少 $file，请先不带 --skip-build 运行" >&2
+        exit 1
+    fi
+done
+
+app_args() {
+    local port=$1
+    echo "--server.port=$port" \
+        "--ddns.provider=cloudflare" \
+        "--ddns.access-key=smoke-test-token" \
+        "--ddns.zone-id=smoke-test-zone" \
+        "--ddns.domain=example.com" \
+        "--ddns.sub-domain=smoke" \
+        "--ddns.endpoints.cloudflare=http://127.0.0.1:9/client/v4" \
+        "--ddns.ip-detection.ipv4-sources=http://127.0.0.1:9/" \
+        "--ddns.ip-detection.hedged=false" \
+        "--ddns.state.file=$WORK_DIR/state-$port.json" \
+        "--ddns.state.journal=$WORK_DIR/state-$port.journal"
+}
+
+rss_kb() {
+    awk '/^VmRSS:/ {print $2}' "/proc/$1/status"
+}
+
+now_ms() {
+    date +%s%3N
+}
+
+# 启动应用并等待就绪，结果写入 READY_MS、RSS_READY、RSS_SETTLED（KB）
+measure() {
+    local name=$1 port=$2
+    shift 2
+    local log="$WORK_DIR/$name.log"
+    local start
+    start=$(now_ms)
+    "$@" $(app_args "$port") >"$log" 2>&1 &
+    PID=$!
+    until curl -sf "http://127.0.0.1:$port/health" >/dev/null 2>&1; do
+        if ! kill -0 "$PID" 2>/dev/null; then
+            echo "$name 启动失败，日志:" >&2
+            tail -n 50 "$log" >&2
+            exit 1
+        fi
+        if (( $(now_ms) - start > 120000 )); then
+            echo "$name 启动超时" >&2
+            exit 1
+        fi
+        sleep 0.05
+    done
+    READY_MS=$(( $(now_ms) - start ))
+    RSS_READY=$(rss_kb "$PID")
+    sleep "$SETTLE_SECONDS"
+    RSS_SETTLED=$(rss_kb "$PID")
+    kill "$PID"
+    wait "$PID" 2>/dev/null || true
+    PID=""
+}
+
+echo ">>> 启动JVM版本"
+measure jvm "$JVM_PORT" java -jar "$JVM_JAR"
+jvm=("$READY_MS" "$RSS_READY" "$RSS_SETTLED")
+echo ">>> 启动原生版本"
+measure native "$NATIVE_PORT" "$NATIVE_BIN"
+native=("$READY_MS" "$RSS_READY" "$RSS_SETTLED")
+
+echo
+awk -v settle="$SETTLE_SECONDS" \
+    -v jm="${jvm[0]}" -v jr="${jvm[1]}" -v js="${jvm[2]}" \
+    -v nm="${native[0]}" -v nr="${native[1]}" -v ns="${native[2]}" 'BEGIN {
+    printf "%-8s %14s %16s %20s\n", "", "就绪耗时(ms)", "就绪时RSS(MB)", settle "s后RSS(MB)"
+    printf "%-8s %14d %16.1f %20.1f\n", "JVM", jm, jr / 1024, js / 1024
+    printf "%-8s %14d %16.1f %20.1f\n", "native", nm, nr / 1024, ns / 1024
+    printf "原生版本: 启动快 %.1f 倍，稳定后内存为JVM的 %.0f%%\n", jm / nm, 100 * ns / js
+}'
@@ -0,0 +1,500 @@
+package com.qin.autoddns.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.qin.autoddns.loadtest.FakeZone.FakeRecord;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * 本地模拟服务商HTTP服务，实现各 DDNSService 用到的接口子集，不校验签名：
+ * <ul>
+ *     <li>Cloudflare：/client/v4/zones/{zoneId}/dns_records 的查询、创建、修改和批量接口</li>
+ *     <li>腾讯云：按 X-TC-Action 请求头分发 DescribeDomainList / DescribeRecordList / CreateRecord / ModifyRecord</li>
+ *     <li>阿里云：按 Action 参数分发 DescribeDomains / DescribeSubDomainRecords / AddDomainRecord / UpdateDomainRecord</li>
+ *     <li>/ip：返回当前公网IP，作为IP检测服务</li>
+ * </ul>
+ * 每个请求按配置的延迟等待，并按错误率返回服务商的限流或服务端错误
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+public class FakeProviderServer implements AutoCloseable {
+
+    private static final String CLOUDFLARE_PREFIX = "/client/v4";
+    private static final String TENCENT_LINE = "默认";
+    private static final String ALIYUN_LINE = "default";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final FakeZone zone;
+    private final long latencyMillis;
+    private final double errorRate;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    // key为 服务商:接口
+    private final Map<String, LongAdder> calls = new ConcurrentHashMap<>();
+    private final LongAdder injectedErrors = new LongAdder();
+    private volatile String currentIp = "203.0.113.10";
+
+    /**
+     * @param zone          模拟区域
+     * @param latencyMillis 每个服务商请求的延迟（毫秒）
+     * @param errorRate     服务商请求返回错误的概率，0~1
+     */
+    public FakeProviderServer(FakeZone zone, long latencyMillis, double errorRate) throws IOException {
+        this.zone = zone;
+        this.latencyMillis = latencyMillis;
+        this.errorRate = errorRate;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.server.setExecutor(executor);
+        this.server.createContext("/", this::handle);
+        this.server.start();
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /**
+     * 各服务商 endpoints 配置应使用的地址
+     */
+    public String endpoint(String provider) {
+        return "cloudflare".equals(provider) ? baseUrl() + CLOUDFLARE_PREFIX : baseUrl();
+    }
+
+    public String ipUrl() {
+        return baseUrl() + "/ip";
+    }
+
+    public void setCurrentIp(String ip) {
+        this.currentIp = ip;
+    }
+
+    /**
+     * 服务商接口调用总数，不含IP查询
+     */
+    public long totalCalls() {
+        return calls.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    public Map<String, Long> callsByApi() {
+        Map<String, Long> result = new HashMap<>();
+        calls.forEach((api, count) -> result.put(api, count.sum()));
+        return result;
+    }
+
+    public long injectedErrors() {
+        return injectedErrors.sum();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath();
+            if ("/ip".equals(path)) {
+                send(exchange, 200, currentIp.getBytes(StandardCharsets.US_ASCII));
+                return;
+            }
+            sleep();
+            if (path.startsWith(CLOUDFLARE_PREFIX)) {
+                handleCloudflare(exchange, path.substring(CLOUDFLARE_PREFIX.length()));
+            } else if (exchange.getRequestHeaders().containsKey("X-TC-Action")) {
+                handleTencent(exchange);
+            } else {
+                handleAliyun(exchange);
+            }
+        } catch (Exception e) {
+            sendJson(exchange, 500, objectMapper.createObjectNode().put("message", String.valueOf(e.getMessage())));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void sleep() throws InterruptedException {
+        if (latencyMillis > 0) {
+            Thread.sleep(latencyMillis);
+        }
+    }
+
+    private boolean injectError() {
+        if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+            injectedErrors.increment();
+            return true;
+        }
+        return false;
+    }
+
+    private void count(String provider, String api) {
+        calls.computeIfAbsent(provider + ":" + api, key -> new LongAdder()).increment();
+    }
+
+    // ---------------- Cloudflare ----------------
+
+    private void handleCloudflare(HttpExchange exchange, String path) throws IOException {
+        String method = exchange.getRequestMethod();
+        // /zones/{zoneId}/dns_records[/batch|/{id}]
+        String[] parts = path.split("/");
+        if (parts.length < 4 || !"dns_records".equals(parts[3])) {
+            sendJson(exchange, 404, cloudflareError(7003, "Could not route to " + path));
+            return;
+        }
+        String sub = parts.length > 4 ? parts[4] : null;
+        String api = sub == null ? method : "batch".equals(sub) ? "batch" : method + "/{id}";
+        count("cloudflare", api);
+        if (injectError()) {
+            sendJson(exchange, 503, cloudflareError(10000, "Service temporarily unavailable"));
+            return;
+        }
+
+        if (sub == null && "GET".equals(method)) {
+            cloudflareList(exchange);
+        } else if (sub == null && "POST".equals(method)) {
+            JsonNode body = readJson(exchange);
+            FakeRecord record = zone.create(body.path("name").asText(), body.path("type").asText(),
+                    body.path("content").asText(), body.path("ttl").asLong(300));
+            if (record == null) {
+                sendJson(exchange, 400, cloudflareError(81058, "An identical record already exists."));
+                return;
+            }
+            sendJson(exchange, 200, cloudflareSuccess().set("result", cloudflareRecord(record)));
+        } else if ("batch".equals(sub) && "POST".equals(method)) {
+            cloudflareBatch(exchange);
+        } else if (sub != null && "PUT".equals(method)) {
+            JsonNode body = readJson(exchange);
+            FakeRecord record = zone.update(parseId(sub), body.path("content").asText(), body.path("ttl").asLong(300));
+            if (record == null) {
+                sendJson(exchange, 404, cloudflareError(81044, "Record does not exist."));
+                return;
+            }
+            sendJson(exchange, 200, cloudflareSuccess().set("result", cloudflareRecord(record)));
+        } else {
+            sendJson(exchange, 405, cloudflareError(10000, "Method not allowed"));
+        }
+    }
+
+    private void cloudflareList(HttpExchange exchange) throws IOException {
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        String name = query.get("name");
+        String type = query.get("type");
+        int perPage = Math.max(1, Integer.parseInt(query.getOrDefault("per_page", "100")));
+        int page = Math.max(1, Integer.parseInt(query.getOrDefault("page", "1")));
+        Predicate<FakeRecord> filter = record -> (name == null || name.equals(record.name()))
+                && (type == null || type.equals(record.type()));
+        FakeZone.Page result = zone.query(filter, (page - 1) * perPage, perPage);
+
+        ObjectNode root = cloudflareSuccess();
+        ArrayNode records = root.putArray("result");
+        result.records().forEach(record -> records.add(cloudflareRecord(record)));
+        root.putObject("result_info")
+                .put("page", page)
+                .put("per_page", perPage)
+                .put("count", result.records().size())
+                .put("total_count", result.total())
+                .put("total_pages", Math.max(1, (result.total() + perPage - 1) / perPage));
+        sendJson(exchange, 200, root);
+    }
+
+    /**
+     * 批量接口在单个事务中执行：先校验所有项，有失败时整体不生效
+     */
+    private void cloudflareBatch(HttpExchange exchange) throws IOException {
+        JsonNode body = readJson(exchange);
+        synchronized (zone) {
+            for (JsonNode patch : body.path("patches")) {
+                if (zone.get(parseId(patch.path("id").asText())) == null) {
+                    sendJson(exchange, 400, cloudflareError(81044, "Record does not exist."));
+                    return;
+                }
+            }
+            for (JsonNode post : body.path("posts")) {
+                if (zone.find(post.path("name").asText(), post.path("type").asText()) != null) {
+                    sendJson(exchange, 400, cloudflareError(81058, "An identical record already exists."));
+                    return;
+                }
+            }
+            ObjectNode root = cloudflareSuccess();
+            ObjectNode result = root.putObject("result");
+            ArrayNode patches = result.putArray("patches");
+            for (JsonNode patch : body.path("patches")) {
+                patches.add(cloudflareRecord(zone.update(parseId(patch.path("id").asText()),
+                        patch.path("content").asText(), patch.path("ttl").asLong(300))));
+            }
+            ArrayNode posts = result.putArray("posts");
+            for (JsonNode post : body.path("posts")) {
+                posts.add(cloudflareRecord(zone.create(post.path("name").asText(), post.path("type").asText(),
+                        post.path("content").asText(), post.path("ttl").asLong(300))));
+            }
+            sendJson(exchange, 200, root);
+        }
+    }
+
+    private ObjectNode cloudflareSuccess() {
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("success", true);
+        root.putArray("errors");
+        root.putArray("messages");
+        return root;
+    }
+
+    private ObjectNode cloudflareError(int code, String message) {
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("success", false);
+        root.putArray("errors").addObject().put("code", code).put("message", message);
+        root.putArray("messages");
+        root.putNull("result");
+        return root;
+    }
+
+    private ObjectNode cloudflareRecord(FakeRecord record) {
+        return objectMapper.createObjectNode()
+                .put("id", String.format("%032x", record.id()))
+                .put("zone_name", zone.domain())
+                .put("name", record.name())
+                .put("type", record.type())
+                .put("content", record.value())
+                .put("proxiable", true)
+                .put("proxied", false)
+                .put("ttl", record.ttl());
+    }
+
+    // ---------------- 腾讯云 ----------------
+
+    private void handleTencent(HttpExchange exchange) throws IOException {
+        String action = exchange.getRequestHeaders().getFirst("X-TC-Action");
+        count("tencent", action);
+        if (injectError()) {
+            sendJson(exchange, 200, tencentError("RequestLimitExceeded", "请求频率超过限制"));
+            return;
+        }
+        JsonNode body = readJson(exchange);
+        String domain = body.path("Domain").asText(zone.domain());
+        switch (action) {
+            case "DescribeDomainList" -> {
+                ObjectNode root = objectMapper.createObjectNode();
+                ObjectNode response = root.putObject("Response");
+                response.putObject("DomainCountInfo").put("AllTotal", 1).put("DomainTotal", 1);
+                response.putArray("DomainList").addObject()
+                        .put("DomainId", 1).put("Name", zone.domain()).put("Status", "ENABLE");
+                response.put("RequestId", UUID.randomUUID().toString());
+                sendJson(exchange, 200, root);
+            }
+            case "DescribeRecordList" -> {
+                String subDomain = body.path("Subdomain").asText(null);
+                String type = body.path("RecordType").asText(null);
+                int offset = body.path("Offset").asInt(0);
+                int limit = body.path("Limit").asInt(100);
+                FakeZone.Page page = zone.query(record -> (subDomain == null
+                        || record.name().equals(subDomain + "." + domain))
+                        && (type == null || type.equals(record.type())), offset, limit);
+                if (page.total() == 0) {
+                    sendJson(exchange, 200, tencentError("ResourceNotFound.NoDataOfRecord", "记录列表为空"));
+                    return;
+                }
+                ObjectNode root = objectMapper.createObjectNode();
+                ObjectNode response = root.putObject("Response");
+                response.putObject("RecordCountInfo")
+                        .put("SubdomainCount", page.total())
+                        .put("ListCount", page.records().size())
+                        .put("TotalCount", page.total());
+                ArrayNode list = response.putArray("RecordList");
+                for (FakeRecord record : page.records()) {
+                    list.addObject()
+                            .put("RecordId", record.id())
+                            .put("Name", zone.relativeName(record.name()))
+                            .put("Type", record.type())
+                            .put("Value", record.value())
+                            .put("TTL", record.ttl())
+                            .put("Line", TENCENT_LINE)
+                            .put("LineId", "0")
+                            .put("Status", "ENABLE");
+                }
+                response.put("RequestId", UUID.randomUUID().toString());
+                sendJson(exchange, 200, root);
+            }
+            case "CreateRecord" -> {
+                FakeRecord record = zone.create(body.path("SubDomain").asText("@") + "." + domain,
+                        body.path("RecordType").asText(), body.path("Value").asText(), body.path("TTL").asLong(600));
+                if (record == null) {
+                    sendJson(exchange, 200, tencentError("InvalidParameter.DomainRecordExist", "记录已经存在"));
+                    return;
+                }
+                sendJson(exchange, 200, tencentRecordId(record.id()));
+            }
+            case "ModifyRecord" -> {
+                FakeRecord record = zone.update(body.path("RecordId").asLong(), body.path("Value").asText(),
+                        body.path("TTL").asLong(600));
+                if (record == null) {
+                    sendJson(exchange, 200, tencentError("InvalidParameter.RecordIdInvalid", "记录编号错误"));
+                    return;
+                }
+                sendJson(exchange, 200, tencentRecordId(record.id()));
+            }
+            default -> sendJson(exchange, 200, tencentError("UnsupportedOperation", "不支持的接口: " + action));
+        }
+    }
+
+    private ObjectNode tencentRecordId(long recordId) {
+        ObjectNode root = objectMapper.createObjectNode();
+        root.putObject("Response").put("RecordId", recordId).put("RequestId", UUID.randomUUID().toString());
+        return root;
+    }
+
+    private ObjectNode tencentError(String code, String message) {
+        ObjectNode root = objectMapper.createObjectNode();
+        ObjectNode response = root.putObject("Response");
+        response.putObject("Error").put("Code", code).put("Message", message);
+        response.put("RequestId", UUID.randomUUID().toString());
+        return root;
+    }
+
+    // ---------------- 阿里云 ----------------
+
+    private void handleAliyun(HttpExchange exchange) throws IOException {
+        // RPC风格：参数可能在查询串，也可能在表单请求体中
+        Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+        try (InputStream in = exchange.getRequestBody()) {
+            params.putAll(parseQuery(new String(in.readAllBytes(), StandardCharsets.UTF_8)));
+        }
+        String action = Objects.toString(params.get("Action"), "");
+        count("aliyun", action);
+        if (injectError()) {
+            sendJson(exchange, 503, aliyunError("ServiceUnavailable",
+                    "The request has failed due to a temporary failure of the server."));
+            return;
+        }
+        String requestId = UUID.randomUUID().toString();
+        switch (action) {
+            case "DescribeDomains" -> {
+                ObjectNode root = objectMapper.createObjectNode()
+                        .put("RequestId", requestId).put("TotalCount", 1).put("PageNumber", 1).put("PageSize", 1);
+                root.putObject("Domains").putArray("Domain").addObject()
+                        .put("DomainName", zone.domain()).put("DomainId", "1");
+                sendJson(exchange, 200, root);
+            }
+            case "DescribeSubDomainRecords" -> {
+                String subDomain = params.get("SubDomain");
+                String type = params.get("Type");
+                int pageSize = Integer.parseInt(params.getOrDefault("PageSize", "20"));
+                int pageNumber = Integer.parseInt(params.getOrDefault("PageNumber", "1"));
+                FakeZone.Page page = zone.query(record -> record.name().equals(subDomain)
+                        && (type == null || type.equals(record.type())), (pageNumber - 1) * pageSize, pageSize);
+                ObjectNode root = objectMapper.createObjectNode()
+                        .put("RequestId", requestId).put("TotalCount", page.total())
+                        .put("PageNumber", pageNumber).put("PageSize", pageSize);
+                ArrayNode records = root.putObject("DomainRecords").putArray("Record");
+                for (FakeRecord record : page.records()) {
+                    records.addObject()
+                            .put("RecordId", String.valueOf(record.id()))
+                            .put("DomainName", zone.domain())
+                            .put("RR", zone.relativeName(record.name()))
+                            .put("Type", record.type())
+                            .put("Value", record.value())
+                            .put("TTL", record.ttl())
+                            .put("Line", ALIYUN_LINE)
+                            .put("Status", "ENABLE")
+                            .put("Locked", false);
+                }
+                sendJson(exchange, 200, root);
+            }
+            case "AddDomainRecord" -> {
+                FakeRecord record = zone.create(params.get("RR") + "." + zone.domain(), params.get("Type"),
+                        params.get("Value"), Long.parseLong(params.getOrDefault("TTL", "600")));
+                if (record == null) {
+                    sendJson(exchange, 400, aliyunError("DomainRecordDuplicate", "The DNS record already exists."));
+                    return;
+                }
+                sendJson(exchange, 200, objectMapper.createObjectNode()
+                        .put("RequestId", requestId).put("RecordId", String.valueOf(record.id())));
+            }
+            case "UpdateDomainRecord" -> {
+                long id = Long.parseLong(params.getOrDefault("RecordId", "0"));
+                FakeRecord current = zone.get(id);
+                if (current == null) {
+                    sendJson(exchange, 400, aliyunError("DomainRecordNotBelongToUser",
+                            "The DNS record does not exist or does not belong to the user."));
+                    return;
+                }
+                if (current.value().equals(params.get("Value"))) {
+                    sendJson(exchange, 400, aliyunError("DomainRecordDuplicate", "The DNS record already exists."));
+                    return;
+                }
+                zone.update(id, params.get("Value"), Long.parseLong(params.getOrDefault("TTL", "600")));
+                sendJson(exchange, 200, objectMapper.createObjectNode()
+                        .put("RequestId", requestId).put("RecordId", String.valueOf(id)));
+            }
+            default -> sendJson(exchange, 400, aliyunError("InvalidAction.NotFound", "Specified action is not valid."));
+        }
+    }
+
+    private ObjectNode aliyunError(String code, String message) {
+        return objectMapper.createObjectNode()
+                .put("RequestId", UUID.randomUUID().toString())
+                .put("HostId", "alidns.aliyuncs.com")
+                .put("Code", code)
+                .put("Message", message);
+    }
+
+    // ---------------- 通用 ----------------
+
+    private JsonNode readJson(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readAllBytes();
+            return body.length == 0 ? objectMapper.createObjectNode() : objectMapper.readTree(body);
+        }
+    }
+
+    private static long parseId(String id) {
+        return Long.parseLong(id, 16);
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> params = new HashMap<>();
+        if (query == null || query.isEmpty()) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private void sendJson(HttpExchange exchange, int status, JsonNode body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        send(exchange, status, objectMapper.writeValueAsBytes(body));
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
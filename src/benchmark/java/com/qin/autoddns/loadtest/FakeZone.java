@@ -0,0 +1,122 @@
+package com.qin.autoddns.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * 模拟服务商的内存区域，所有服务商共用同一份记录，记录名保存为完整域名
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+public class FakeZone {
+
+    private final String domain;
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final Map<Long, FakeRecord> records = new ConcurrentSkipListMap<>();
+    // key为 完整域名|记录类型
+    private final Map<String, FakeRecord> byName = new ConcurrentHashMap<>();
+
+    public FakeZone(String domain) {
+        this.domain = domain;
+    }
+
+    public String domain() {
+        return domain;
+    }
+
+    /**
+     * 填充与同步无关的记录，模拟大区域
+     */
+    public void seed(int count) {
+        for (int i = 0; i < count; i++) {
+            create("filler" + i + "." + domain, i % 4 == 0 ? "AAAA" : "A",
+                    i % 4 == 0 ? "2001:db8::" + Integer.toHexString(i + 1) : "198.51.100." + (i % 254 + 1), 600);
+        }
+    }
+
+    /**
+     * 创建记录
+     *
+     * @return 新记录，同名同类型记录已存在时返回null
+     */
+    public synchronized FakeRecord create(String name, String type, String value, long ttl) {
+        if (byName.containsKey(key(name, type))) {
+            return null;
+        }
+        FakeRecord record = new FakeRecord(nextId.getAndIncrement(), name, type, value, ttl);
+        records.put(record.id(), record);
+        byName.put(key(name, type), record);
+        return record;
+    }
+
+    /**
+     * 按ID修改记录值和TTL
+     *
+     * @return 修改后的记录，记录不存在时返回null
+     */
+    public synchronized FakeRecord update(long id, String value, long ttl) {
+        FakeRecord current = records.get(id);
+        if (current == null) {
+            return null;
+        }
+        FakeRecord updated = new FakeRecord(id, current.name(), current.type(), value, ttl);
+        records.put(id, updated);
+        byName.put(key(updated.name(), updated.type()), updated);
+        return updated;
+    }
+
+    public FakeRecord get(long id) {
+        return records.get(id);
+    }
+
+    public FakeRecord find(String name, String type) {
+        return byName.get(key(name, type));
+    }
+
+    /**
+     * 按ID顺序分页查询
+     *
+     * @return 当前页记录和符合条件的总数
+     */
+    public Page query(Predicate<FakeRecord> filter, int offset, int limit) {
+        List<FakeRecord> page = new ArrayList<>();
+        int total = 0;
+        for (FakeRecord record : records.values()) {
+            if (!filter.test(record)) {
+                continue;
+            }
+            if (total >= offset && page.size() < limit) {
+                page.add(record);
+            }
+            total++;
+        }
+        return new Page(page, total);
+    }
+
+    public int size() {
+        return records.size();
+    }
+
+    /**
+     * 完整域名去掉区域后缀后的主机记录
+     */
+    public String relativeName(String name) {
+        return name.endsWith("." + domain) ? name.substring(0, name.length() - domain.length() - 1) : "@";
+    }
+
+    private static String key(String name, String type) {
+        return name + "|" + type;
+    }
+
+    public record FakeRecord(long id, String name, String type, String value, long ttl) {
+    }
+
+    public record Page(List<FakeRecord> records, int total) {
+    }
+}
@@ -0,0 +1,234 @@
+package com.qin.autoddns.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.qin.autoddns.cache.RecordCache;
+import com.qin.autoddns.config.DDNSConfig;
+import com.qin.autoddns.config.EmailConfig;
+import com.qin.autoddns.config.HttpClientConfig;
+import com.qin.autoddns.factory.DDNSFactory;
+import com.qin.autoddns.http.InstrumentedHttpClient;
+import com.qin.autoddns.leader.LeaderElection;
+import com.qin.autoddns.leader.LocalLeaseBackend;
+import com.qin.autoddns.loadtest.FakeZone.FakeRecord;
+import com.qin.autoddns.metrics.DDNSMetrics;
+import com.qin.autoddns.resilience.ProviderCallExecutor;
+import com.qin.autoddns.service.DDNSUpdateService;
+import com.qin.autoddns.service.EmailService;
+import com.qin.autoddns.service.PropagationVerifier;
+import com.qin.autoddns.state.RecordStateStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntPredicate;
+
+/**
+ * 压测工具：用真实的服务商实现和 DDNSUpdateService 对本地模拟服务商执行多轮同步，
+ * 输出吞吐量、每轮耗时的 p50/p99 和每轮服务商接口调用数。
+ * <p>
+ * 参数（均为 --key=value）：
+ * <ul>
+ *     <li>provider：cloudflare/tencent/aliyun，默认 cloudflare</li>
+ *     <li>records：同步的记录数，默认 1000</li>
+ *     <li>ticks：计入统计的同步轮数，默认 20</li>
+ *     <li>change-every：每隔多少轮切换一次公网IP，默认 5，0 表示不切换</li>
+ *     <li>zone-size：区域中与同步无关的记录数，默认 10000</li>
+ *     <li>latency：模拟服务商每个请求的延迟（毫秒），默认 20</li>
+ *     <li>error-rate：模拟服务商返回错误的概率，默认 0</li>
+ *     <li>concurrency：每个服务商的最大并发请求数，默认使用配置默认值</li>
+ *     <li>initial-backoff：重试初始退避（毫秒），默认 50</li>
+ *     <li>accounts：把记录平均分配到多少个同服务商账号，默认 1</li>
+ *     <li>rate：每个账号的限流速率（次/秒），默认 1000，0 表示使用服务商默认配额</li>
+ * </ul>
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+public class LoadTestHarness {
+
+    private static final String[] IPS = {"203.0.113.10", "203.0.113.20"};
+    private static final String DOMAIN = "example.com";
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseArgs(args);
+        String provider = options.getOrDefault("provider", "cloudflare");
+        int records = Integer.parseInt(options.getOrDefault("records", "1000"));
+        int ticks = Integer.parseInt(options.getOrDefault("ticks", "20"));
+        int changeEvery = Integer.parseInt(options.getOrDefault("change-every", "5"));
+        int zoneSize = Integer.parseInt(options.getOrDefault("zone-size", "10000"));
+        long latency = Long.parseLong(options.getOrDefault("latency", "20"));
+        double errorRate = Double.parseDouble(options.getOrDefault("error-rate", "0"));
+
+        FakeZone zone = new FakeZone(DOMAIN);
+        zone.seed(zoneSize);
+        Path stateDir = Files.createTempDirectory("ddns-loadtest");
+        try (FakeProviderServer server = new FakeProviderServer(zone, latency, errorRate)) {
+            DDNSConfig config = buildConfig(options, provider, records, server, stateDir);
+            InstrumentedHttpClient httpClient = new HttpClientConfig().httpClient(config);
+            RecordCache recordCache = new RecordCache(config);
+            DDNSMetrics metrics = new DDNSMetrics(new SimpleMeterRegistry(), recordCache);
+            ProviderCallExecutor callExecutor = new ProviderCallExecutor(config, metrics);
+            RestTemplate restTemplate = new HttpClientConfig().restTemplate(httpClient, config);
+            DDNSFactory factory = new DDNSFactory(config, restTemplate, new ObjectMapper(), recordCache,
+                    callExecutor);
+            DDNSUpdateService updateService = new DDNSUpdateService(config, factory,
+                    new EmailService(new EmailConfig(), null), new RecordStateStore(config, new ObjectMapper()),
+                    recordCache, callExecutor, metrics, event -> {
+                    }, new PropagationVerifier(config, metrics),
+                    new LeaderElection(config, new LocalLeaseBackend(), event -> {
+                    }));
+            try {
+                System.out.printf("压测开始: provider=%s, records=%d, ticks=%d, change-every=%d, zone-size=%d, "
+                                + "latency=%dms, error-rate=%.3f%n",
+                        provider, records, ticks, changeEvery, zoneSize, latency, errorRate);
+                // 首轮创建全部记录，不计入统计
+                server.setCurrentIp(IPS[0]);
+                updateService.reconcileAll("压测预热");
+
+                run(updateService, server, zone, records, ticks, changeEvery);
+            } finally {
+                updateService.shutdown();
+                httpClient.shutdownNow();
+            }
+        } finally {
+            try (var files = Files.walk(stateDir)) {
+                files.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private static void run(DDNSUpdateService updateService, FakeProviderServer server, FakeZone zone,
+                            int records, int ticks, int changeEvery) {
+        long[] durations = new long[ticks];
+        long[] callCounts = new long[ticks];
+        List<Integer> changedTicks = new ArrayList<>();
+        int unsynced = 0;
+        int ipIndex = 0;
+        Map<String, Long> callsBefore = server.callsByApi();
+        long errorsBefore = server.injectedErrors();
+        long start = System.nanoTime();
+        for (int tick = 0; tick < ticks; tick++) {
+            if (changeEvery > 0 && tick % changeEvery == 0) {
+                ipIndex ^= 1;
+                server.setCurrentIp(IPS[ipIndex]);
+                changedTicks.add(tick);
+            }
+            long calls = server.totalCalls();
+            long tickStart = System.nanoTime();
+            updateService.reconcileAll("压测");
+            durations[tick] = System.nanoTime() - tickStart;
+            callCounts[tick] = server.totalCalls() - calls;
+            unsynced = countUnsynced(zone, records, IPS[ipIndex]);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        double seconds = elapsed / 1e9;
+        long[] sorted = durations.clone();
+        Arrays.sort(sorted);
+        System.out.printf("总耗时: %.2fs, 吞吐量: %.1f 记录/秒（%d 条 × %d 轮）%n",
+                seconds, (double) records * ticks / seconds, records, ticks);
+        System.out.printf("每轮耗时: p50=%.1fms, p99=%.1fms, max=%.1fms%n",
+                percentile(sorted, 0.50) / 1e6, percentile(sorted, 0.99) / 1e6, sorted[sorted.length - 1] / 1e6);
+        System.out.printf("每轮接口调用: 平均 %.1f, IP变化轮平均 %.1f, IP未变化轮平均 %.1f%n",
+                average(callCounts, tick -> true),
+                average(callCounts, changedTicks::contains),
+                average(callCounts, tick -> !changedTicks.contains(tick)));
+        System.out.printf("注入错误: %d, 最后一轮后未同步记录: %d%n", server.injectedErrors() - errorsBefore, unsynced);
+        System.out.println("接口调用分布:");
+        Map<String, Long> callsAfter = new TreeMap<>(server.callsByApi());
+        callsAfter.forEach((api, count) -> {
+            long delta = count - callsBefore.getOrDefault(api, 0L);
+            if (delta > 0) {
+                System.out.printf("  %-32s %d%n", api, delta);
+            }
+        });
+    }
+
+    private static DDNSConfig buildConfig(Map<String, String> options, String provider, int records,
+                                          FakeProviderServer server, Path stateDir) {
+        DDNSConfig config = new DDNSConfig();
+        config.setProvider(provider);
+        config.setAccessKey("loadtest-access-key");
+        config.setSecretKey("loadtest-secret-key");
+        config.setZoneId("loadtest");
+        config.setDomain(DOMAIN);
+        config.getEndpoints().put(provider, server.endpoint(provider));
+        config.getState().setFile(stateDir.resolve("state.json").toString());
+        config.getIpDetection().setHedged(false);
+        config.getIpDetection().setIpv4Sources(List.of(server.ipUrl()));
+        config.getResilience().setInitialBackoff(Long.parseLong(options.getOrDefault("initial-backoff", "50")));
+        if (options.containsKey("concurrency")) {
+            config.setMaxConcurrencyPerProvider(Integer.parseInt(options.get("concurrency")));
+        }
+        double rate = Double.parseDouble(options.getOrDefault("rate", "1000"));
+        config.getRateLimit().setPermitsPerSecond(rate);
+        int accounts = Math.max(1, Integer.parseInt(options.getOrDefault("accounts", "1")));
+        for (int i = 1; i < accounts; i++) {
+            DDNSConfig.AccountConfig account = new DDNSConfig.AccountConfig();
+            account.setProvider(provider);
+            account.setAccessKey("loadtest-access-key-" + i);
+            account.setSecretKey("loadtest-secret-key-" + i);
+            account.setZoneId("loadtest");
+            account.getRateLimit().setPermitsPerSecond(rate);
+            config.getAccounts().put("account" + i, account);
+        }
+        List<DDNSConfig.RecordConfig> recordConfigs = new ArrayList<>();
+        for (int i = 0; i < records; i++) {
+            DDNSConfig.RecordConfig record = new DDNSConfig.RecordConfig();
+            record.setName("host" + i);
+            // 第0个账号为顶层凭据
+            if (i % accounts != 0) {
+                record.setAccount("account" + (i % accounts));
+            }
+            recordConfigs.add(record);
+        }
+        config.setRecords(recordConfigs);
+        return config;
+    }
+
+    private static int countUnsynced(FakeZone zone, int records, String ip) {
+        int unsynced = 0;
+        for (int i = 0; i < records; i++) {
+            FakeRecord record = zone.find("host" + i + "." + DOMAIN, "A");
+            if (record == null || !ip.equals(record.value())) {
+                unsynced++;
+            }
+        }
+        return unsynced;
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static double average(long[] values, IntPredicate include) {
+        long sum = 0;
+        int count = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (include.test(i)) {
+                sum += values[i];
+                count++;
+            }
+        }
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                int eq = arg.indexOf('=');
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        return options;
+    }
+}
@@ -0,0 +1,145 @@
+package com.qin.autoddns.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.qin.autoddns.cache.RecordCache;
+import com.qin.autoddns.config.DDNSConfig;
+import com.qin.autoddns.config.EmailConfig;
+import com.qin.autoddns.enums.DNSProvider;
+import com.qin.autoddns.factory.DDNSFactory;
+import com.qin.autoddns.leader.LeaderElection;
+import com.qin.autoddns.leader.LocalLeaseBackend;
+import com.qin.autoddns.metrics.DDNSMetrics;
+import com.qin.autoddns.resilience.ProviderCallExecutor;
+import com.qin.autoddns.state.RecordStateStore;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 完整同步一次的基准：本地HTTP服务提供公网IP，服务商为进程内桩实现。
+ * <ul>
+ *     <li>unchanged：IP未变化，走同步状态的快速路径</li>
+ *     <li>changed：每次调用都切换IP，所有记录都要查询并更新</li>
+ * </ul>
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReconcileBenchmark {
+
+    private static final String[] IPS = {"203.0.113.10", "203.0.113.20"};
+
+    @Param({"1", "16", "128"})
+    public int records;
+
+    @Param({"unchanged", "changed"})
+    public String scenario;
+
+    /**
+     * 桩服务商每次调用的模拟延迟（微秒）
+     */
+    @Param({"0"})
+    public long providerLatencyMicros;
+
+    private HttpServer ipServer;
+    private volatile String currentIp = IPS[0];
+    private int tick;
+    private Path stateDir;
+    private DDNSUpdateService updateService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        ipServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        ipServer.createContext("/", exchange -> {
+            byte[] body = currentIp.getBytes(StandardCharsets.US_ASCII);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        ipServer.start();
+
+        stateDir = Files.createTempDirectory("ddns-bench");
+        DDNSConfig config = new DDNSConfig();
+        config.setProvider("cloudflare");
+        config.setDomain("example.com");
+        config.setUpdateInterval(300000L);
+        config.getState().setFile(stateDir.resolve("state.json").toString());
+        config.getIpDetection().setHedged(false);
+        config.getIpDetection().setIpv4Sources(List.of("http://127.0.0.1:" + ipServer.getAddress().getPort()));
+        List<DDNSConfig.RecordConfig> recordConfigs = new ArrayList<>();
+        for (int i = 0; i < records; i++) {
+            DDNSConfig.RecordConfig record = new DDNSConfig.RecordConfig();
+            record.setName("host" + i);
+            recordConfigs.add(record);
+        }
+        config.setRecords(recordConfigs);
+
+        StubDDNSService provider = new StubDDNSService(providerLatencyMicros);
+        DDNSFactory factory = new DDNSFactory(config, null, null, null, null) {
+            @Override
+            protected DDNSService createService(DNSProvider type, DDNSConfig accountConfig) {
+                return provider;
+            }
+        };
+        RecordCache recordCache = new RecordCache(config);
+        DDNSMetrics metrics = new DDNSMetrics(new SimpleMeterRegistry(), recordCache);
+        updateService = new DDNSUpdateService(config, factory, new EmailService(new EmailConfig(), null),
+                new RecordStateStore(config, new ObjectMapper()), recordCache, new ProviderCallExecutor(config, metrics),
+                metrics,
+                event -> {
+                }, new PropagationVerifier(config, metrics),
+                new LeaderElection(config, new LocalLeaseBackend(), event -> {
+                }));
+        // 先同步一次，使 unchanged 场景从稳定状态开始
+        updateService.reconcileAll("预热");
+    }
+
+    @Setup(Level.Invocation)
+    public void nextTick() {
+        if ("changed".equals(scenario)) {
+            currentIp = IPS[++tick & 1];
+        }
+    }
+
+    @Benchmark
+    public void reconcile() {
+        updateService.reconcileAll("基准测试");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        updateService.shutdown();
+        ipServer.stop(0);
+        try (var files = Files.walk(stateDir)) {
+            files.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+        }
+    }
+}
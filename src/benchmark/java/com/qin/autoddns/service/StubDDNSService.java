@@ -0,0 +1,58 @@
+package com.qin.autoddns.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 进程内的服务商桩实现，记录保存在内存中，可模拟固定的API延迟
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+public class StubDDNSService implements DDNSService {
+
+    private final Map<String, String> records = new ConcurrentHashMap<>();
+    private final long latencyMicros;
+    private final AtomicLong getCalls = new AtomicLong();
+    private final AtomicLong updateCalls = new AtomicLong();
+
+    public StubDDNSService(long latencyMicros) {
+        this.latencyMicros = latencyMicros;
+    }
+
+    @Override
+    public boolean updateDNSRecord(String domain, String subDomain, String recordType, String value, Long ttl) {
+        updateCalls.incrementAndGet();
+        simulateLatency();
+        records.put(key(domain, subDomain, recordType), value);
+        return true;
+    }
+
+    @Override
+    public String getCurrentRecord(String domain, String subDomain, String recordType) {
+        getCalls.incrementAndGet();
+        simulateLatency();
+        return records.get(key(domain, subDomain, recordType));
+    }
+
+    private void simulateLatency() {
+        if (latencyMicros > 0) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(latencyMicros));
+        }
+    }
+
+    private static String key(String domain, String subDomain, String recordType) {
+        return subDomain + "." + domain + "|" + recordType;
+    }
+
+    public long getGetCalls() {
+        return getCalls.get();
+    }
+
+    public long getUpdateCalls() {
+        return updateCalls.get();
+    }
+}
@@ -0,0 +1,91 @@
+package com.qin.autoddns.service.impl;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.qin.autoddns.service.impl.cloudflare.CloudflareRecord;
+import com.qin.autoddns.service.impl.cloudflare.CloudflareRecordPage;
+import com.qin.autoddns.service.impl.cloudflare.CloudflareResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cloudflare 请求体构造和响应解析基准
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CloudflarePayloadBenchmark {
+
+    /**
+     * 查询接口返回的记录数
+     */
+    @Param({"1", "20", "100"})
+    public int records;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JavaType recordResponseType = objectMapper.getTypeFactory()
+            .constructParametricType(CloudflareResponse.class, CloudflareRecord.class);
+    private String listResponse;
+    private byte[] listResponseBytes;
+    private byte[] updateResponseBytes;
+
+    @Setup
+    public void setUp() {
+        listResponse = CloudflareResponses.list(records);
+        listResponseBytes = listResponse.getBytes(StandardCharsets.UTF_8);
+        updateResponseBytes = CloudflareResponses.single(0).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] buildRecordBody() throws Exception {
+        return objectMapper.writeValueAsBytes(
+                CloudflareDDNSServiceImpl.buildRecordRequest("A", "home.example.com", "203.0.113.10", 300, false));
+    }
+
+    /**
+     * 对照组：整棵树解析后取第一条记录
+     */
+    @Benchmark
+    public String parseListResponseTree() throws Exception {
+        JsonNode root = objectMapper.readTree(listResponse);
+        return root.path("result").get(0).path("id").asText();
+    }
+
+    /**
+     * 与 scanRecords 相同：从字节流逐条解析记录
+     */
+    @Benchmark
+    public int parseListResponseStreaming() throws Exception {
+        int[] count = new int[1];
+        CloudflareRecordPage.read(objectMapper, new ByteArrayInputStream(listResponseBytes),
+                record -> count[0]++);
+        return count[0];
+    }
+
+    @Benchmark
+    public boolean parseUpdateResponse() throws Exception {
+        CloudflareResponse<CloudflareRecord> response = objectMapper.readValue(updateResponseBytes,
+                recordResponseType);
+        return response.success();
+    }
+}
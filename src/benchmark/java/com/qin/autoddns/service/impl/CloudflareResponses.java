@@ -0,0 +1,38 @@
+package com.qin.autoddns.service.impl;
+
+/**
+ * 构造与 Cloudflare API 格式一致的响应体
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+public final class CloudflareResponses {
+
+    private CloudflareResponses() {
+    }
+
+    public static String record(int index) {
+        return String.format("""
+                {"id":"%032x","zone_id":"023e105f4ecef8ad9ca31a8372d0c353","zone_name":"example.com",\
+                "name":"host%d.example.com","type":"A","content":"203.0.113.%d","proxiable":true,"proxied":false,\
+                "ttl":300,"settings":{},"meta":{},"comment":null,"tags":[],\
+                "created_on":"2024-03-21T10:00:00.000000Z","modified_on":"2024-03-21T10:00:00.000000Z"}\
+                """, index + 1, index, index % 256);
+    }
+
+    public static String single(int index) {
+        return "{\"success\":true,\"errors\":[],\"messages\":[],\"result\":" + record(index) + "}";
+    }
+
+    public static String list(int count) {
+        StringBuilder result = new StringBuilder("{\"success\":true,\"errors\":[],\"messages\":[],\"result\":[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                result.append(',');
+            }
+            result.append(record(i));
+        }
+        return result.append("],\"result_info\":{\"page\":1,\"per_page\":100,\"count\":").append(count)
+                .append(",\"total_count\":").append(count).append(",\"total_pages\":1}}").toString();
+    }
+}
@@ -0,0 +1,67 @@
+package com.qin.autoddns.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * IP地址校验与解析基准：每次检测IP和比较记录值都会调用
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IPValidationBenchmark {
+
+    // 查询服务的典型返回值，包括合法地址、越界地址和非地址内容
+    private final String[] ipv4Inputs = {
+            "203.0.113.10", "8.8.8.8", "255.255.255.255", "192.168.1.1",
+            "256.1.1.1", "1.2.3", "not-an-ip", "<html>"
+    };
+    private final String[] ipv6Inputs = {
+            "2001:db8::1", "2408:8207:1234:5678:9abc:def0:1234:5678", "::ffff:203.0.113.10", "fe80::1",
+            "2001:db8::g", "1:2:3:4:5:6:7:8:9", "not-an-ip", "203.0.113.10"
+    };
+
+    @Benchmark
+    public void isValidIPv4(Blackhole blackhole) {
+        for (String input : ipv4Inputs) {
+            blackhole.consume(IPAddressUtil.isValidIP(input));
+        }
+    }
+
+    @Benchmark
+    public void isValidIPv6(Blackhole blackhole) {
+        for (String input : ipv6Inputs) {
+            blackhole.consume(IPAddressUtil.isValidIPv6(input));
+        }
+    }
+
+    @Benchmark
+    public void parse(Blackhole blackhole) {
+        for (String input : ipv6Inputs) {
+            blackhole.consume(IPAddress.parse(input));
+        }
+    }
+
+    @Benchmark
+    public void isSameAddress(Blackhole blackhole) {
+        blackhole.consume(IPAddressUtil.isSameAddress("203.0.113.10", "203.0.113.10"));
+        blackhole.consume(IPAddressUtil.isSameAddress("2001:db8::1", "2001:0db8:0:0:0:0:0:1"));
+        blackhole.consume(IPAddressUtil.isSameAddress("2001:db8::1", "2001:db8::2"));
+    }
+}
@@ -2,21 +2,20 @@ package com.qin.autoddns;
 
 import com.qin.autoddns.config.DDNSConfig;
 import com.qin.autoddns.config.EmailConfig;
+import com.qin.autoddns.config.NativeRuntimeHints;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.event.ApplicationStartedEvent;
-import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.ImportRuntimeHints;
 import org.springframework.context.event.EventListener;
 import org.springframework.core.env.Environment;
-import org.springframework.retry.annotation.EnableRetry;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableScheduling
-@EnableRetry
-@EnableAspectJAutoProxy
+@ImportRuntimeHints(NativeRuntimeHints.class)
 public class AutoDDNSApplication {
 
     private static final Logger log = LoggerFactory.getLogger(AutoDDNSApplication.class);
@@ -43,7 +42,7 @@ public class AutoDDNSApplication {
         log.info("------------------------------------------");
         log.info("当前激活的配置: {}", activeProfiles.length > 0 ? String.join(", ", activeProfiles) : "默认配置");
         log.info("DNS服务提供商: {}", ddnsConfig.getProvider());
-        log.info("域名: {}.{}", ddnsConfig.getSubDomain(), ddnsConfig.getDomain());
+        ddnsConfig.resolveRecords().forEach(record -> log.info("域名: {}", record));
         log.info("更新间隔: {} 毫秒", ddnsConfig.getUpdateInterval());
         log.info("------------------------------------------");
 
@@ -0,0 +1,18 @@
+package com.qin.autoddns.cache;
+
+/**
+ * 缓存的记录元数据
+ *
+ * @param recordId  服务商的记录ID
+ * @param value     记录值，未知时为null
+ * @param ttl       TTL（秒），未知时为null
+ * @param expiresAt 过期时间（毫秒时间戳）
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+public record CachedRecord(String recordId, String value, Long ttl, long expiresAt) {
+
+    public boolean isExpired(long now) {
+        return now >= expiresAt;
+    }
+}
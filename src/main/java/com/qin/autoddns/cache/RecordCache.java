@@ -0,0 +1,126 @@
+package com.qin.autoddns.cache;
+
+import com.qin.autoddns.config.DDNSConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 记录元数据缓存
+ * 所有服务商实现共用，按 (服务商, 主域名, 子域名, 记录类型) 缓存记录ID、记录值和TTL，
+ * 避免每次写入前重复查询记录ID。条目到期后失效，服务商返回记录不存在或冲突时应主动失效
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+@Component
+public class RecordCache {
+    private final Logger log = LoggerFactory.getLogger(RecordCache.class);
+
+    private final Map<RecordKey, CachedRecord> entries = new ConcurrentHashMap<>();
+    private final long expireAfter;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public RecordCache(DDNSConfig config) {
+        this.expireAfter = config.getCache().getExpireAfter();
+    }
+
+    /**
+     * 获取缓存的记录，不存在或已过期时返回null并计为未命中
+     */
+    public CachedRecord get(RecordKey key) {
+        CachedRecord cached = entries.get(key);
+        if (cached != null && cached.isExpired(System.currentTimeMillis())) {
+            entries.remove(key, cached);
+            cached = null;
+        }
+        if (cached == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return cached;
+    }
+
+    /**
+     * 获取缓存的记录ID
+     *
+     * @return 记录ID，未缓存时返回null
+     */
+    public String getRecordId(RecordKey key) {
+        CachedRecord cached = get(key);
+        return cached != null ? cached.recordId() : null;
+    }
+
+    /**
+     * 读取缓存的记录ID，不计入命中统计
+     */
+    public String peekRecordId(RecordKey key) {
+        CachedRecord cached = entries.get(key);
+        return cached != null && !cached.isExpired(System.currentTimeMillis()) ? cached.recordId() : null;
+    }
+
+    public void put(RecordKey key, String recordId, String value, Long ttl) {
+        if (recordId == null) {
+            return;
+        }
+        entries.put(key, new CachedRecord(recordId, value, ttl, System.currentTimeMillis() + expireAfter));
+    }
+
+    /**
+     * 使缓存失效，用于服务商返回记录不存在或冲突时
+     */
+    public void invalidate(RecordKey key) {
+        if (entries.remove(key) != null) {
+            invalidations.increment();
+            log.debug("记录缓存已失效: {}", key);
+        }
+    }
+
+    /**
+     * 清空缓存，用于记录可能已被其他节点修改时
+     */
+    public void invalidateAll() {
+        int size = entries.size();
+        entries.clear();
+        invalidations.add(size);
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getInvalidations() {
+        return invalidations.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * 统计快照
+     */
+    public Map<String, Object> stats() {
+        long hitCount = getHits();
+        long total = hitCount + getMisses();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", size());
+        stats.put("hits", hitCount);
+        stats.put("misses", getMisses());
+        stats.put("invalidations", getInvalidations());
+        stats.put("hitRatio", total == 0 ? 0.0 : (double) hitCount / total);
+        return stats;
+    }
+}
@@ -0,0 +1,19 @@
+package com.qin.autoddns.cache;
+
+/**
+ * 记录缓存键
+ *
+ * @param provider   服务提供商
+ * @param zone       主域名
+ * @param name       子域名
+ * @param recordType 记录类型(A, AAAA等)
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+public record RecordKey(String provider, String zone, String name, String recordType) {
+
+    @Override
+    public String toString() {
+        return provider + ":" + name + "." + zone + "/" + recordType;
+    }
+}
@@ -2,6 +2,14 @@ package com.qin.autoddns.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 /**
  * DDNS配置类
@@ -12,16 +20,43 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 @ConfigurationProperties(prefix = "ddns")
 public class DDNSConfig {
+    public static final String DEFAULT_ACCOUNT = "default";
+
+    private String account = DEFAULT_ACCOUNT; // 顶层凭据对应的账号名称
     private String provider;
     private String accessKey;
     private String secretKey;
     private String zoneId;
     private String domain;
     private String subDomain;
-    private long updateInterval = 300000; // 默认5分钟
+    private String region; // API地域，为空时使用服务商默认地域
+    private String endpoint; // API接入地址，为空时使用SDK默认地址
+    private Map<String, String> endpoints = new HashMap<>(); // 按服务商覆盖API接入地址，如指向本地模拟服务
+    private long updateInterval = 300000; // 默认5分钟，自适应轮询时为启动后的初始间隔
     private boolean proxied = false; // 默认开启代理
+    private int maxConcurrencyPerProvider = 4; // 每个服务商的最大并发请求数
+    private List<RecordConfig> records = new ArrayList<>();
+    private IpDetectionConfig ipDetection = new IpDetectionConfig();
+    private StateConfig state = new StateConfig();
+    private HttpConfig http = new HttpConfig();
+    private CacheConfig cache = new CacheConfig();
+    private ResilienceConfig resilience = new ResilienceConfig();
+    private RateLimitConfig rateLimit = new RateLimitConfig(); // 顶层账号的API限流
+    private PollingConfig polling = new PollingConfig();
+    private PropagationConfig propagation = new PropagationConfig();
+    private LeaderConfig leader = new LeaderConfig();
+    private TriggerConfig trigger = new TriggerConfig();
+    private Map<String, AccountConfig> accounts = new LinkedHashMap<>(); // 其他账号，key为账号名称
 
     // Getters and Setters
+    public String getAccount() {
+        return account;
+    }
+
+    public void setAccount(String account) {
+        this.account = account;
+    }
+
     public String getProvider() {
         return provider;
     }
@@ -70,6 +105,44 @@ public class DDNSConfig {
         this.subDomain = subDomain;
     }
 
+    public String getRegion() {
+        return region;
+    }
+
+    public void setRegion(String region) {
+        this.region = region;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public void setEndpoint(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public Map<String, String> getEndpoints() {
+        return endpoints;
+    }
+
+    public void setEndpoints(Map<String, String> endpoints) {
+        this.endpoints = endpoints;
+    }
+
+    /**
+     * 获取服务商的API接入地址，endpoints 中未配置时阿里云使用 endpoint
+     *
+     * @param provider 服务商代码
+     * @return 接入地址，可带 http:// 或 https:// 前缀；未配置时返回null
+     */
+    public String getProviderEndpoint(String provider) {
+        String value = endpoints.get(provider);
+        if (StringUtils.hasText(value)) {
+            return value.trim();
+        }
+        return "aliyun".equals(provider) && StringUtils.hasText(endpoint) ? endpoint.trim() : null;
+    }
+
     public long getUpdateInterval() {
         return updateInterval;
     }
@@ -85,4 +158,846 @@ public class DDNSConfig {
     public void setProxied(boolean proxied) {
         this.proxied = proxied;
     }
-} 
\ No newline at end of file
+
+    public int getMaxConcurrencyPerProvider() {
+        return maxConcurrencyPerProvider;
+    }
+
+    public void setMaxConcurrencyPerProvider(int maxConcurrencyPerProvider) {
+        this.maxConcurrencyPerProvider = maxConcurrencyPerProvider;
+    }
+
+    public List<RecordConfig> getRecords() {
+        return records;
+    }
+
+    public void setRecords(List<RecordConfig> records) {
+        this.records = records;
+    }
+
+    public IpDetectionConfig getIpDetection() {
+        return ipDetection;
+    }
+
+    public void setIpDetection(IpDetectionConfig ipDetection) {
+        this.ipDetection = ipDetection;
+    }
+
+    public StateConfig getState() {
+        return state;
+    }
+
+    public void setState(StateConfig state) {
+        this.state = state;
+    }
+
+    public HttpConfig getHttp() {
+        return http;
+    }
+
+    public void setHttp(HttpConfig http) {
+        this.http = http;
+    }
+
+    public CacheConfig getCache() {
+        return cache;
+    }
+
+    public void setCache(CacheConfig cache) {
+        this.cache = cache;
+    }
+
+    public ResilienceConfig getResilience() {
+        return resilience;
+    }
+
+    public void setResilience(ResilienceConfig resilience) {
+        this.resilience = resilience;
+    }
+
+    public RateLimitConfig getRateLimit() {
+        return rateLimit;
+    }
+
+    public void setRateLimit(RateLimitConfig rateLimit) {
+        this.rateLimit = rateLimit;
+    }
+
+    public PollingConfig getPolling() {
+        return polling;
+    }
+
+    public void setPolling(PollingConfig polling) {
+        this.polling = polling;
+    }
+
+    public PropagationConfig getPropagation() {
+        return propagation;
+    }
+
+    public void setPropagation(PropagationConfig propagation) {
+        this.propagation = propagation;
+    }
+
+    public LeaderConfig getLeader() {
+        return leader;
+    }
+
+    public void setLeader(LeaderConfig leader) {
+        this.leader = leader;
+    }
+
+    public TriggerConfig getTrigger() {
+        return trigger;
+    }
+
+    public void setTrigger(TriggerConfig trigger) {
+        this.trigger = trigger;
+    }
+
+    public Map<String, AccountConfig> getAccounts() {
+        return accounts;
+    }
+
+    public void setAccounts(Map<String, AccountConfig> accounts) {
+        this.accounts = accounts;
+    }
+
+    /**
+     * 是否为顶层凭据对应的账号
+     */
+    public boolean isDefaultAccount(String name) {
+        return !StringUtils.hasText(name) || name.equals(account);
+    }
+
+    /**
+     * 获取账号的API限流配置
+     *
+     * @param name 账号名称
+     */
+    public RateLimitConfig getRateLimit(String name) {
+        if (isDefaultAccount(name)) {
+            return rateLimit;
+        }
+        return getAccountConfig(name).getRateLimit();
+    }
+
+    private AccountConfig getAccountConfig(String name) {
+        AccountConfig accountConfig = accounts.get(name);
+        if (accountConfig == null) {
+            throw new IllegalArgumentException("未配置的账号: " + name);
+        }
+        return accountConfig;
+    }
+
+    /**
+     * 生成某个账号使用的配置：凭据、Zone ID及其主域名、接入地址等取自账号，其余配置与顶层共用
+     *
+     * @param name 账号名称，顶层账号返回自身
+     * @return 账号配置
+     */
+    public DDNSConfig forAccount(String name) {
+        if (isDefaultAccount(name)) {
+            return this;
+        }
+        AccountConfig accountConfig = getAccountConfig(name);
+        DDNSConfig derived = new DDNSConfig();
+        derived.setAccount(name);
+        derived.setProvider(accountConfig.getProvider());
+        derived.setAccessKey(accountConfig.getAccessKey());
+        derived.setSecretKey(accountConfig.getSecretKey());
+        derived.setZoneId(accountConfig.getZoneId());
+        derived.setRegion(StringUtils.hasText(accountConfig.getRegion()) ? accountConfig.getRegion() : region);
+        derived.setEndpoint(accountConfig.getEndpoint());
+        derived.setEndpoints(new HashMap<>(endpoints));
+        if (StringUtils.hasText(accountConfig.getEndpoint())) {
+            derived.getEndpoints().put(accountConfig.getProvider(), accountConfig.getEndpoint());
+        }
+        derived.setProxied(accountConfig.getProxied() != null ? accountConfig.getProxied() : proxied);
+        // 顶层的 domain 属于顶层账号，不能当作该账号 zone-id 对应的主域名
+        derived.setDomain(accountConfig.getDomain());
+        derived.setUpdateInterval(updateInterval);
+        derived.setMaxConcurrencyPerProvider(maxConcurrencyPerProvider);
+        derived.setIpDetection(ipDetection);
+        derived.setState(state);
+        derived.setHttp(http);
+        derived.setCache(cache);
+        derived.setResilience(resilience);
+        derived.setRateLimit(accountConfig.getRateLimit());
+        return derived;
+    }
+
+    /**
+     * 获取需要同步的记录列表
+     * 未配置 records 时，使用 domain/sub-domain 组成单条A记录，兼容旧配置
+     *
+     * @return 记录列表，缺省字段已用全局配置补齐
+     */
+    public List<RecordConfig> resolveRecords() {
+        List<RecordConfig> resolved = new ArrayList<>();
+        if (records == null || records.isEmpty()) {
+            RecordConfig record = new RecordConfig();
+            record.setZone(domain);
+            record.setName(subDomain);
+            record.setProvider(provider);
+            record.setAccount(account);
+            resolved.add(record);
+            return resolved;
+        }
+        for (RecordConfig record : records) {
+            RecordConfig copy = new RecordConfig();
+            copy.setZone(StringUtils.hasText(record.getZone()) ? record.getZone() : domain);
+            copy.setName(record.getName());
+            // 统一为大写，服务商请求、缓存和状态的键都直接使用记录类型
+            copy.setType(StringUtils.hasText(record.getType())
+                    ? record.getType().trim().toUpperCase(Locale.ROOT) : "A");
+            copy.setTtl(record.getTtl());
+            if (isDefaultAccount(record.getAccount())) {
+                copy.setAccount(account);
+                copy.setProvider(StringUtils.hasText(record.getProvider()) ? record.getProvider() : provider);
+            } else {
+                // 指定账号的记录使用账号的服务商
+                copy.setAccount(record.getAccount());
+                copy.setProvider(getAccountConfig(record.getAccount()).getProvider());
+            }
+            resolved.add(copy);
+        }
+        return resolved;
+    }
+
+    /**
+     * 公网IP检测配置
+     */
+    public static class IpDetectionConfig {
+        private boolean hedged = true; // 是否并发对冲查询多个IP服务
+        private long hedgeDelay = 300; // 启动下一个IP服务前的等待时间（毫秒）
+        private String source = "http"; // IP来源：http-外部查询服务，interface-本机网卡（无公网地址时回退到http）
+        private boolean interfaceWatch = true; // 是否监听本机网卡地址变化并立即触发同步
+        private long interfaceWatchInterval = 1000; // 网卡地址检查间隔（毫秒）
+        private List<String> ipv4Sources = new ArrayList<>(); // IPv4查询服务列表，为空时使用内置服务
+        private List<String> ipv6Sources = new ArrayList<>(); // IPv6查询服务列表，为空时使用内置服务
+
+        public boolean isHedged() {
+            return hedged;
+        }
+
+        public void setHedged(boolean hedged) {
+            this.hedged = hedged;
+        }
+
+        public long getHedgeDelay() {
+            return hedgeDelay;
+        }
+
+        public void setHedgeDelay(long hedgeDelay) {
+            this.hedgeDelay = hedgeDelay;
+        }
+
+        public String getSource() {
+            return source;
+        }
+
+        public void setSource(String source) {
+            this.source = source;
+        }
+
+        public boolean isInterfaceWatch() {
+            return interfaceWatch;
+        }
+
+        public void setInterfaceWatch(boolean interfaceWatch) {
+            this.interfaceWatch = interfaceWatch;
+        }
+
+        public long getInterfaceWatchInterval() {
+            return interfaceWatchInterval;
+        }
+
+        public void setInterfaceWatchInterval(long interfaceWatchInterval) {
+            this.interfaceWatchInterval = interfaceWatchInterval;
+        }
+
+        public List<String> getIpv4Sources() {
+            return ipv4Sources;
+        }
+
+        public void setIpv4Sources(List<String> ipv4Sources) {
+            this.ipv4Sources = ipv4Sources;
+        }
+
+        public List<String> getIpv6Sources() {
+            return ipv6Sources;
+        }
+
+        public void setIpv6Sources(List<String> ipv6Sources) {
+            this.ipv6Sources = ipv6Sources;
+        }
+    }
+
+    /**
+     * 记录同步状态配置
+     */
+    public static class StateConfig {
+        private String file = "./data/ddns-state.json"; // 状态文件路径
+        private String journal = "./data/ddns-state.journal"; // 同步日志路径，压缩时上一个日志保留为 .1
+        private int compactThreshold = 1000; // 日志超过该条数时压缩到状态文件
+        private long driftCheckInterval = 3600000; // IP未变化时重新查询服务商的间隔（毫秒），0表示不检查
+
+        public String getFile() {
+            return file;
+        }
+
+        public void setFile(String file) {
+            this.file = file;
+        }
+
+        public String getJournal() {
+            return journal;
+        }
+
+        public void setJournal(String journal) {
+            this.journal = journal;
+        }
+
+        public int getCompactThreshold() {
+            return compactThreshold;
+        }
+
+        public void setCompactThreshold(int compactThreshold) {
+            this.compactThreshold = compactThreshold;
+        }
+
+        public long getDriftCheckInterval() {
+            return driftCheckInterval;
+        }
+
+        public void setDriftCheckInterval(long driftCheckInterval) {
+            this.driftCheckInterval = driftCheckInterval;
+        }
+    }
+
+    /**
+     * 对外HTTP请求配置
+     */
+    public static class HttpConfig {
+        private long connectTimeout = 5000; // 连接超时（毫秒）
+        private long readTimeout = 10000; // 读取超时（毫秒）
+
+        public long getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(long connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public long getReadTimeout() {
+            return readTimeout;
+        }
+
+        public void setReadTimeout(long readTimeout) {
+            this.readTimeout = readTimeout;
+        }
+    }
+
+    /**
+     * 记录元数据缓存配置
+     */
+    public static class CacheConfig {
+        private long expireAfter = 3600000; // 缓存过期时间（毫秒）
+
+        public long getExpireAfter() {
+            return expireAfter;
+        }
+
+        public void setExpireAfter(long expireAfter) {
+            this.expireAfter = expireAfter;
+        }
+    }
+
+    /**
+     * 服务商API重试与熔断配置
+     */
+    public static class ResilienceConfig {
+        private int maxAttempts = 3; // 单次调用最多尝试次数（含首次）
+        private long initialBackoff = 500; // 首次重试的退避上限（毫秒），实际等待时间在 0 到上限之间随机
+        private long maxBackoff = 8000; // 退避上限的最大值（毫秒）
+        private long maxRetryAfter = 30000; // 服务端要求的 Retry-After 超过该值（毫秒）时不再重试
+        private int failureThreshold = 5; // 连续失败多少次后熔断
+        private long openDuration = 60000; // 熔断持续时间（毫秒），之后放行一次探测请求
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public long getInitialBackoff() {
+            return initialBackoff;
+        }
+
+        public void setInitialBackoff(long initialBackoff) {
+            this.initialBackoff = initialBackoff;
+        }
+
+        public long getMaxBackoff() {
+            return maxBackoff;
+        }
+
+        public void setMaxBackoff(long maxBackoff) {
+            this.maxBackoff = maxBackoff;
+        }
+
+        public long getMaxRetryAfter() {
+            return maxRetryAfter;
+        }
+
+        public void setMaxRetryAfter(long maxRetryAfter) {
+            this.maxRetryAfter = maxRetryAfter;
+        }
+
+        public int getFailureThreshold() {
+            return failureThreshold;
+        }
+
+        public void setFailureThreshold(int failureThreshold) {
+            this.failureThreshold = failureThreshold;
+        }
+
+        public long getOpenDuration() {
+            return openDuration;
+        }
+
+        public void setOpenDuration(long openDuration) {
+            this.openDuration = openDuration;
+        }
+    }
+
+    /**
+     * 定时检查的轮询间隔配置
+     * 自适应模式下IP稳定时逐步放宽间隔，IP变化或抖动后收紧，始终在 min-interval 与 max-interval 之间
+     */
+    public static class PollingConfig {
+        private boolean adaptive = true; // 是否根据IP变化历史自动调整间隔，关闭时固定使用 update-interval
+        private long minInterval = 60000; // 最小间隔（毫秒），IP变化后使用
+        private long maxInterval = 3600000; // 最大间隔（毫秒）
+        private double growthFactor = 2.0; // IP未变化时每次检查后间隔扩大的倍数
+        private long flapWindow = 3600000; // 两次IP变化相隔小于该值（毫秒）视为抖动，抖动平息前保持最小间隔
+
+        public boolean isAdaptive() {
+            return adaptive;
+        }
+
+        public void setAdaptive(boolean adaptive) {
+            this.adaptive = adaptive;
+        }
+
+        public long getMinInterval() {
+            return minInterval;
+        }
+
+        public void setMinInterval(long minInterval) {
+            this.minInterval = minInterval;
+        }
+
+        public long getMaxInterval() {
+            return maxInterval;
+        }
+
+        public void setMaxInterval(long maxInterval) {
+            this.maxInterval = maxInterval;
+        }
+
+        public double getGrowthFactor() {
+            return growthFactor;
+        }
+
+        public void setGrowthFactor(double growthFactor) {
+            this.growthFactor = growthFactor;
+        }
+
+        public long getFlapWindow() {
+            return flapWindow;
+        }
+
+        public void setFlapWindow(long flapWindow) {
+            this.flapWindow = flapWindow;
+        }
+    }
+
+    /**
+     * 生效验证配置，直接向域名的权威DNS服务器查询记录
+     * 更新后轮询权威服务器直到全部返回新IP，记录生效耗时；检查时权威应答已是当前IP则跳过服务商API查询
+     */
+    public static class PropagationConfig {
+        private boolean enabled = false; // 是否启用
+        private boolean readPath = true; // 检查时先查询权威DNS，已返回当前IP则不再调用服务商API
+        private Map<String, List<String>> nameservers = new HashMap<>(); // 按主域名指定权威服务器（主机名或IP），为空时通过NS记录查找
+        private List<String> bootstrapResolvers = new ArrayList<>(List.of("223.5.5.5", "1.1.1.1")); // 查找NS记录使用的递归DNS
+        private long timeout = 2000; // 单次查询超时（毫秒）
+        private int attempts = 2; // 单次查询最多尝试次数（含首次）
+        private long pollInterval = 2000; // 更新后轮询权威服务器的间隔（毫秒）
+        private long maxWait = 300000; // 更新后等待生效的最长时间（毫秒），超过时记为未生效
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public boolean isReadPath() {
+            return readPath;
+        }
+
+        public void setReadPath(boolean readPath) {
+            this.readPath = readPath;
+        }
+
+        public Map<String, List<String>> getNameservers() {
+            return nameservers;
+        }
+
+        public void setNameservers(Map<String, List<String>> nameservers) {
+            this.nameservers = nameservers;
+        }
+
+        public List<String> getBootstrapResolvers() {
+            return bootstrapResolvers;
+        }
+
+        public void setBootstrapResolvers(List<String> bootstrapResolvers) {
+            this.bootstrapResolvers = bootstrapResolvers;
+        }
+
+        public long getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(long timeout) {
+            this.timeout = timeout;
+        }
+
+        public int getAttempts() {
+            return attempts;
+        }
+
+        public void setAttempts(int attempts) {
+            this.attempts = attempts;
+        }
+
+        public long getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(long pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        public long getMaxWait() {
+            return maxWait;
+        }
+
+        public void setMaxWait(long maxWait) {
+            this.maxWait = maxWait;
+        }
+    }
+
+    /**
+     * 多副本部署时的主节点选举配置，只有主节点执行同步
+     */
+    public static class LeaderConfig {
+        private String backend = "local"; // 租约后端：local-单实例，file-共享文件
+        private String file = "./data/ddns-leader.lease"; // file 后端的租约文件，需位于所有副本共享的目录
+        private String nodeId; // 节点标识，为空时使用 主机名-进程号
+        private long leaseDuration = 15000; // 租约时长（毫秒）
+        private long renewInterval = 5000; // 续约及待命节点尝试获取租约的间隔（毫秒）
+
+        public String getBackend() {
+            return backend;
+        }
+
+        public void setBackend(String backend) {
+            this.backend = backend;
+        }
+
+        public String getFile() {
+            return file;
+        }
+
+        public void setFile(String file) {
+            this.file = file;
+        }
+
+        public String getNodeId() {
+            return nodeId;
+        }
+
+        public void setNodeId(String nodeId) {
+            this.nodeId = nodeId;
+        }
+
+        public long getLeaseDuration() {
+            return leaseDuration;
+        }
+
+        public void setLeaseDuration(long leaseDuration) {
+            this.leaseDuration = leaseDuration;
+        }
+
+        public long getRenewInterval() {
+            return renewInterval;
+        }
+
+        public void setRenewInterval(long renewInterval) {
+            this.renewInterval = renewInterval;
+        }
+    }
+
+    /**
+     * 推送通知接口配置，路由器等外部系统在公网IP变化时调用 /trigger 立即触发同步
+     */
+    public static class TriggerConfig {
+        private boolean enabled = false; // 是否启用
+        private String token; // 访问令牌，未配置时拒绝所有请求
+        private long debounce = 2000; // 最后一次通知后等待该时间（毫秒）无新通知再同步
+        private long maxDelay = 10000; // 通知持续不断时，距第一次通知最多等待该时间（毫秒）
+        private boolean trustAddress = true; // 通知中带有IP时直接作为该地址族的公网IP，不再查询IP服务
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getToken() {
+            return token;
+        }
+
+        public void setToken(String token) {
+            this.token = token;
+        }
+
+        public long getDebounce() {
+            return debounce;
+        }
+
+        public void setDebounce(long debounce) {
+            this.debounce = debounce;
+        }
+
+        public long getMaxDelay() {
+            return maxDelay;
+        }
+
+        public void setMaxDelay(long maxDelay) {
+            this.maxDelay = maxDelay;
+        }
+
+        public boolean isTrustAddress() {
+            return trustAddress;
+        }
+
+        public void setTrustAddress(boolean trustAddress) {
+            this.trustAddress = trustAddress;
+        }
+    }
+
+    /**
+     * 服务商API限流配置（令牌桶），每个账号独立计数
+     */
+    public static class RateLimitConfig {
+        private double permitsPerSecond = 0; // 每秒调用次数，0表示使用服务商默认配额
+        private int burst = 0; // 允许的突发调用次数，0表示使用服务商默认值
+        private long maxWait = 10000; // 一次同步中等待令牌的最长时间（毫秒），超过时剩余记录留到下一次同步
+
+        public double getPermitsPerSecond() {
+            return permitsPerSecond;
+        }
+
+        public void setPermitsPerSecond(double permitsPerSecond) {
+            this.permitsPerSecond = permitsPerSecond;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        public void setBurst(int burst) {
+            this.burst = burst;
+        }
+
+        public long getMaxWait() {
+            return maxWait;
+        }
+
+        public void setMaxWait(long maxWait) {
+            this.maxWait = maxWait;
+        }
+    }
+
+    /**
+     * 账号配置，一组服务商凭据
+     */
+    public static class AccountConfig {
+        private String provider; // 服务提供商
+        private String accessKey;
+        private String secretKey;
+        private String zoneId; // Cloudflare Zone ID
+        private String domain; // zone-id 对应的主域名，其他主域名的 Zone ID 按名称查询
+        private String region; // API地域，为空时使用 ddns.region
+        private String endpoint; // API接入地址，为空时使用 ddns.endpoints 或SDK默认地址
+        private Boolean proxied; // Cloudflare代理功能，为空时使用 ddns.proxied
+        private RateLimitConfig rateLimit = new RateLimitConfig();
+
+        public String getProvider() {
+            return provider;
+        }
+
+        public void setProvider(String provider) {
+            this.provider = provider;
+        }
+
+        public String getAccessKey() {
+            return accessKey;
+        }
+
+        public void setAccessKey(String accessKey) {
+            this.accessKey = accessKey;
+        }
+
+        public String getSecretKey() {
+            return secretKey;
+        }
+
+        public void setSecretKey(String secretKey) {
+            this.secretKey = secretKey;
+        }
+
+        public String getZoneId() {
+            return zoneId;
+        }
+
+        public void setZoneId(String zoneId) {
+            this.zoneId = zoneId;
+        }
+
+        public String getDomain() {
+            return domain;
+        }
+
+        public void setDomain(String domain) {
+            this.domain = domain;
+        }
+
+        public String getRegion() {
+            return region;
+        }
+
+        public void setRegion(String region) {
+            this.region = region;
+        }
+
+        public String getEndpoint() {
+            return endpoint;
+        }
+
+        public void setEndpoint(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        public Boolean getProxied() {
+            return proxied;
+        }
+
+        public void setProxied(Boolean proxied) {
+            this.proxied = proxied;
+        }
+
+        public RateLimitConfig getRateLimit() {
+            return rateLimit;
+        }
+
+        public void setRateLimit(RateLimitConfig rateLimit) {
+            this.rateLimit = rateLimit;
+        }
+    }
+
+    /**
+     * 单条DNS记录配置
+     */
+    public static class RecordConfig {
+        private String zone; // 主域名，为空时使用 ddns.domain
+        private String name; // 子域名
+        private String type = "A"; // 记录类型，A或AAAA，不区分大小写
+        private Long ttl; // TTL（秒），为空时使用服务商默认值
+        private String provider; // 服务提供商，为空时使用 ddns.provider
+        private String account; // 所属账号，为空时使用顶层凭据
+
+        public String getZone() {
+            return zone;
+        }
+
+        public void setZone(String zone) {
+            this.zone = zone;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public void setType(String type) {
+            this.type = type;
+        }
+
+        public Long getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Long ttl) {
+            this.ttl = ttl;
+        }
+
+        public String getProvider() {
+            return provider;
+        }
+
+        public void setProvider(String provider) {
+            this.provider = provider;
+        }
+
+        public String getAccount() {
+            return account;
+        }
+
+        public void setAccount(String account) {
+            this.account = account;
+        }
+
+        /**
+         * 完整域名，如 home.example.com
+         */
+        public String getFullDomain() {
+            return name + "." + zone;
+        }
+
+        @Override
+        public String toString() {
+            return getFullDomain() + " (" + type + ", " + provider
+                    + (account != null && !DEFAULT_ACCOUNT.equals(account) ? ", " + account : "") + ")";
+        }
+    }
+}
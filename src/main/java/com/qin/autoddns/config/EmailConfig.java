@@ -19,6 +19,9 @@ public class EmailConfig {
     private String password;
     private String from;
     private String to;
+    private int queueCapacity = 200; // 待发送通知队列容量，队列满时丢弃新通知
+    private long digestWindow = 30000; // 汇总窗口（毫秒），窗口内的通知合并为一封邮件，0表示不合并
+    private long duplicateSuppressInterval = 3600000; // 相同失败告警的抑制时间（毫秒），0表示不抑制
 
     // Getters and Setters
     public boolean isEnabled() {
@@ -76,4 +79,28 @@ public class EmailConfig {
     public void setTo(String to) {
         this.to = to;
     }
-} 
\ No newline at end of file
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public long getDigestWindow() {
+        return digestWindow;
+    }
+
+    public void setDigestWindow(long digestWindow) {
+        this.digestWindow = digestWindow;
+    }
+
+    public long getDuplicateSuppressInterval() {
+        return duplicateSuppressInterval;
+    }
+
+    public void setDuplicateSuppressInterval(long duplicateSuppressInterval) {
+        this.duplicateSuppressInterval = duplicateSuppressInterval;
+    }
+}
@@ -0,0 +1,45 @@
+package com.qin.autoddns.config;
+
+import com.qin.autoddns.http.InstrumentedHttpClient;
+import com.qin.autoddns.util.IPAddressUtil;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+/**
+ * 共享HTTP客户端配置
+ * 所有对外HTTP请求（服务商API、公网IP查询）共用一个JDK HttpClient，
+ * 复用keep-alive连接，HTTPS下优先协商HTTP/2多路复用，避免每次请求重新握手
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+@Configuration
+public class HttpClientConfig {
+
+    @Bean(destroyMethod = "shutdownNow")
+    public InstrumentedHttpClient httpClient(DDNSConfig config) {
+        DDNSConfig.HttpConfig http = config.getHttp();
+        HttpClient delegate = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(http.getConnectTimeout()))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        InstrumentedHttpClient httpClient = new InstrumentedHttpClient(delegate);
+        IPAddressUtil.setHttpClient(httpClient);
+        return httpClient;
+    }
+
+    @Bean
+    public RestTemplate restTemplate(InstrumentedHttpClient httpClient, DDNSConfig config) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(config.getHttp().getReadTimeout()));
+        return new RestTemplate(requestFactory);
+    }
+}
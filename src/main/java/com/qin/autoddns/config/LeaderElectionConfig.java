@@ -0,0 +1,34 @@
+package com.qin.autoddns.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.qin.autoddns.leader.FileLeaseBackend;
+import com.qin.autoddns.leader.LeaseBackend;
+import com.qin.autoddns.leader.LocalLeaseBackend;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * 主节点选举的租约后端配置
+ * 按 ddns.leader.backend 创建内置后端，已注册其他 {@link LeaseBackend} 时使用注册的后端
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+@Configuration
+public class LeaderElectionConfig {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public LeaseBackend leaseBackend(DDNSConfig config, ObjectMapper objectMapper) {
+        DDNSConfig.LeaderConfig leader = config.getLeader();
+        return switch (leader.getBackend().toLowerCase(Locale.ROOT)) {
+            case "local" -> new LocalLeaseBackend();
+            case "file" -> new FileLeaseBackend(Path.of(leader.getFile()), objectMapper);
+            default -> throw new IllegalArgumentException("Unsupported leader backend: " + leader.getBackend());
+        };
+    }
+}
@@ -0,0 +1,123 @@
+package com.qin.autoddns.config;
+
+import com.aliyuncs.alidns.model.v20150109.AddDomainRecordRequest;
+import com.aliyuncs.alidns.model.v20150109.AddDomainRecordResponse;
+import com.aliyuncs.alidns.model.v20150109.DescribeDomainsRequest;
+import com.aliyuncs.alidns.model.v20150109.DescribeDomainsResponse;
+import com.aliyuncs.alidns.model.v20150109.DescribeSubDomainRecordsRequest;
+import com.aliyuncs.alidns.model.v20150109.DescribeSubDomainRecordsResponse;
+import com.aliyuncs.alidns.model.v20150109.UpdateDomainRecordRequest;
+import com.aliyuncs.alidns.model.v20150109.UpdateDomainRecordResponse;
+import com.qin.autoddns.leader.Lease;
+import com.qin.autoddns.service.impl.cloudflare.CloudflareBatchRequest;
+import com.qin.autoddns.service.impl.cloudflare.CloudflareBatchResult;
+import com.qin.autoddns.service.impl.cloudflare.CloudflareError;
+import com.qin.autoddns.service.impl.cloudflare.CloudflareRecord;
+import com.qin.autoddns.service.impl.cloudflare.CloudflareRecordPatch;
+import com.qin.autoddns.service.impl.cloudflare.CloudflareRecordRequest;
+import com.qin.autoddns.service.impl.cloudflare.CloudflareResponse;
+import com.qin.autoddns.service.impl.cloudflare.CloudflareResultInfo;
+import com.qin.autoddns.state.JournalEntry;
+import com.qin.autoddns.state.RecordState;
+import com.tencentcloudapi.dnspod.v20210323.models.CreateRecordRequest;
+import com.tencentcloudapi.dnspod.v20210323.models.CreateRecordResponse;
+import com.tencentcloudapi.dnspod.v20210323.models.DescribeRecordListRequest;
+import com.tencentcloudapi.dnspod.v20210323.models.DescribeRecordListResponse;
+import com.tencentcloudapi.dnspod.v20210323.models.ModifyRecordRequest;
+import com.tencentcloudapi.dnspod.v20210323.models.ModifyRecordResponse;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.ReflectionHints;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.core.ResolvableType;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Field;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 原生镜像的可达性元数据，构建原生镜像时由 Spring AOT 生成到 META-INF/native-image 下：
+ * <ul>
+ *     <li>阿里云SDK：DefaultAcsClient 反射创建响应对象并用Gson按字段反序列化，HTTP客户端按类名反射创建，
+ *     地域接入点从 endpoints.json 读取</li>
+ *     <li>腾讯云SDK：请求和响应模型都由Gson按字段序列化</li>
+ *     <li>Jackson：Cloudflare 接口的请求/响应记录类和同步状态文件</li>
+ * </ul>
+ * SDK模型从用到的请求/响应类出发，沿父类、内部类和字段类型递归登记，SDK升级新增字段时无需手工维护。
+ * 原生构建仍是实验性功能，这里的元数据尚未经过原生镜像实际运行验证
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final List<Class<?>> SDK_MODELS = List.of(
+            DescribeDomainsRequest.class, DescribeDomainsResponse.class,
+            DescribeSubDomainRecordsRequest.class, DescribeSubDomainRecordsResponse.class,
+            AddDomainRecordRequest.class, AddDomainRecordResponse.class,
+            UpdateDomainRecordRequest.class, UpdateDomainRecordResponse.class,
+            DescribeRecordListRequest.class, DescribeRecordListResponse.class,
+            CreateRecordRequest.class, CreateRecordResponse.class,
+            ModifyRecordRequest.class, ModifyRecordResponse.class);
+
+    // SDK内部通过反射访问的类，按类名登记，避免依赖SDK的内部API
+    private static final List<String> SDK_INTERNALS = List.of(
+            "com.aliyuncs.AcsError",
+            "com.aliyuncs.http.clients.ApacheHttpClient",
+            "com.aliyuncs.http.clients.CompatibleUrlConnClient",
+            "com.tencentcloudapi.common.JsonResponseModel",
+            "com.tencentcloudapi.common.JsonResponseErrModel");
+
+    private static final List<String> SDK_PACKAGES = List.of("com.aliyuncs.", "com.tencentcloudapi.");
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        ReflectionHints reflection = hints.reflection();
+        Set<Class<?>> visited = new HashSet<>();
+        for (Class<?> model : SDK_MODELS) {
+            registerSdkType(reflection, model, visited);
+        }
+        for (String name : SDK_INTERNALS) {
+            if (ClassUtils.isPresent(name, classLoader)) {
+                registerSdkType(reflection, ClassUtils.resolveClassName(name, classLoader), visited);
+            }
+        }
+        hints.resources().registerPattern("endpoints.json");
+
+        new BindingReflectionHintsRegistrar().registerReflectionHints(reflection,
+                CloudflareRecord.class, CloudflareRecordRequest.class, CloudflareRecordPatch.class,
+                CloudflareBatchRequest.class, CloudflareBatchResult.class, CloudflareError.class,
+                CloudflareResultInfo.class, CloudflareResponse.class, RecordState.class, JournalEntry.class, Lease.class);
+    }
+
+    /**
+     * 登记SDK类的字段、构造方法和公共方法，并递归登记其父类、内部类和字段类型中的SDK类
+     */
+    private void registerSdkType(ReflectionHints reflection, Class<?> type, Set<Class<?>> visited) {
+        if (type == null || !isSdkType(type) || !visited.add(type)) {
+            return;
+        }
+        reflection.registerType(type, MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                MemberCategory.INVOKE_PUBLIC_METHODS);
+        registerSdkType(reflection, type.getSuperclass(), visited);
+        for (Class<?> nested : type.getDeclaredClasses()) {
+            registerSdkType(reflection, nested, visited);
+        }
+        for (Field field : type.getDeclaredFields()) {
+            ResolvableType fieldType = ResolvableType.forField(field);
+            registerSdkType(reflection, fieldType.resolve(), visited);
+            registerSdkType(reflection, fieldType.getComponentType().resolve(), visited);
+            for (Class<?> generic : fieldType.resolveGenerics()) {
+                registerSdkType(reflection, generic, visited);
+            }
+        }
+    }
+
+    private static boolean isSdkType(Class<?> type) {
+        String name = type.getName();
+        return SDK_PACKAGES.stream().anyMatch(name::startsWith);
+    }
+}
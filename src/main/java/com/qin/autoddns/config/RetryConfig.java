@@ -1,27 +0,0 @@
-
-package com.qin.autoddns.config;
-
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
-import org.springframework.retry.backoff.FixedBackOffPolicy;
-import org.springframework.retry.policy.SimpleRetryPolicy;
-import org.springframework.retry.support.RetryTemplate;
-
-@Configuration
-public class RetryConfig {
-
-    @Bean
-    public RetryTemplate retryTemplate() {
-        RetryTemplate template = new RetryTemplate();
-
-        FixedBackOffPolicy backOffPolicy = new FixedBackOffPolicy();
-        backOffPolicy.setBackOffPeriod(5000); // 每次重试间隔1秒
-        template.setBackOffPolicy(backOffPolicy);
-
-        SimpleRetryPolicy retryPolicy = new SimpleRetryPolicy();
-        retryPolicy.setMaxAttempts(5); // 最大重试次数
-        template.setRetryPolicy(retryPolicy);
-
-        return template;
-    }
-}
\ No newline at end of file
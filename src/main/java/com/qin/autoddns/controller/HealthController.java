@@ -1,8 +1,18 @@
 package com.qin.autoddns.controller;
 
+import com.qin.autoddns.cache.RecordCache;
+import com.qin.autoddns.http.InstrumentedHttpClient;
+import com.qin.autoddns.leader.LeaderElection;
+import com.qin.autoddns.resilience.ProviderCallExecutor;
+import com.qin.autoddns.service.AdaptivePollScheduler;
+import com.qin.autoddns.service.EmailService;
+import com.qin.autoddns.service.PropagationVerifier;
+import com.qin.autoddns.service.PushTrigger;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.Map;
+
 /**
  * 健康检查控制器
  *
@@ -12,8 +22,95 @@ import org.springframework.web.bind.annotation.RestController;
 @RestController
 public class HealthController {
 
+    private final InstrumentedHttpClient httpClient;
+    private final RecordCache recordCache;
+    private final EmailService emailService;
+    private final ProviderCallExecutor callExecutor;
+    private final AdaptivePollScheduler pollScheduler;
+    private final PropagationVerifier propagationVerifier;
+    private final LeaderElection leaderElection;
+    private final PushTrigger pushTrigger;
+
+    public HealthController(InstrumentedHttpClient httpClient, RecordCache recordCache, EmailService emailService,
+                            ProviderCallExecutor callExecutor, AdaptivePollScheduler pollScheduler,
+                            PropagationVerifier propagationVerifier, LeaderElection leaderElection,
+                            PushTrigger pushTrigger) {
+        this.httpClient = httpClient;
+        this.recordCache = recordCache;
+        this.emailService = emailService;
+        this.callExecutor = callExecutor;
+        this.pollScheduler = pollScheduler;
+        this.propagationVerifier = propagationVerifier;
+        this.leaderElection = leaderElection;
+        this.pushTrigger = pushTrigger;
+    }
+
     @GetMapping("/health")
     public String health() {
         return "OK";
     }
-} 
\ No newline at end of file
+
+    /**
+     * 共享HTTP客户端的请求统计
+     */
+    @GetMapping("/health/http-client")
+    public Map<String, Object> httpClientStats() {
+        return httpClient.snapshot();
+    }
+
+    /**
+     * 记录元数据缓存的命中统计
+     */
+    @GetMapping("/health/record-cache")
+    public Map<String, Object> recordCacheStats() {
+        return recordCache.stats();
+    }
+
+    /**
+     * 邮件通知队列统计
+     */
+    @GetMapping("/health/email")
+    public Map<String, Object> emailStats() {
+        return emailService.stats();
+    }
+
+    /**
+     * 各服务商的熔断状态和重试统计
+     */
+    @GetMapping("/health/providers")
+    public Map<String, Object> providerStats() {
+        return callExecutor.stats();
+    }
+
+    /**
+     * 当前定时检查间隔及其原因
+     */
+    @GetMapping("/health/polling")
+    public Map<String, Object> pollingStats() {
+        return pollScheduler.snapshot();
+    }
+
+    /**
+     * 权威DNS服务器、生效验证结果和检查时跳过服务商查询的次数
+     */
+    @GetMapping("/health/propagation")
+    public Map<String, Object> propagationStats() {
+        return propagationVerifier.stats();
+    }
+
+    /**
+     * 本节点标识、是否为主节点和当前租约
+     */
+    @GetMapping("/health/leader")
+    public Map<String, Object> leaderStats() {
+        return leaderElection.snapshot();
+    }
+
+    /**
+     * 推送通知的接收和合并统计
+     */
+    @GetMapping("/health/trigger")
+    public Map<String, Object> triggerStats() {
+        return pushTrigger.snapshot();
+    }
+}
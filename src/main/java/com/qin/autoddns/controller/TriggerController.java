@@ -0,0 +1,89 @@
+package com.qin.autoddns.controller;
+
+import com.qin.autoddns.leader.LeaderElection;
+import com.qin.autoddns.metrics.DDNSMetrics;
+import com.qin.autoddns.service.PushTrigger;
+import com.qin.autoddns.util.IPAddress;
+import com.qin.autoddns.util.IPAddressUtil;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 推送通知接口
+ * 路由器等外部系统在公网IP变化时调用，立即安排一次同步，无需缩短定时检查间隔。
+ * 令牌通过 Authorization: Bearer 请求头或 token 参数传递；只能配置回调URL的路由器可以使用GET请求
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+@RestController
+public class TriggerController {
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final PushTrigger pushTrigger;
+    private final LeaderElection leaderElection;
+    private final DDNSMetrics metrics;
+
+    public TriggerController(PushTrigger pushTrigger, LeaderElection leaderElection, DDNSMetrics metrics) {
+        this.pushTrigger = pushTrigger;
+        this.leaderElection = leaderElection;
+        this.metrics = metrics;
+    }
+
+    /**
+     * 通知公网IP已变化
+     *
+     * @param authorization Authorization 请求头
+     * @param token         访问令牌，未使用请求头时传递
+     * @param ip            新的公网IP，可选
+     */
+    @RequestMapping(value = "/trigger", method = {RequestMethod.GET, RequestMethod.POST})
+    public ResponseEntity<Map<String, Object>> trigger(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestParam(value = "token", required = false) String token,
+            @RequestParam(value = "ip", required = false) String ip) {
+        if (!pushTrigger.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        String presented = authorization != null && authorization.startsWith(BEARER_PREFIX)
+                ? authorization.substring(BEARER_PREFIX.length()).trim() : token;
+        if (!pushTrigger.isAuthorized(presented)) {
+            metrics.recordTrigger("unauthorized");
+            return error(HttpStatus.UNAUTHORIZED, "令牌无效");
+        }
+        IPAddress address = null;
+        if (StringUtils.hasText(ip)) {
+            address = IPAddress.parse(ip.trim());
+            if (address == null || !IPAddressUtil.isPublicAddress(address)) {
+                metrics.recordTrigger("invalid");
+                return error(HttpStatus.BAD_REQUEST, "不是有效的公网IP: " + ip);
+            }
+        }
+        Instant scheduledAt = pushTrigger.submit(address);
+        metrics.recordTrigger("accepted");
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("accepted", true);
+        body.put("scheduledAt", scheduledAt.toString());
+        // 发给待命节点的通知不会触发同步，调用方可据此改为通知主节点
+        body.put("leader", leaderElection.isLeader());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(body);
+    }
+
+    private static ResponseEntity<Map<String, Object>> error(HttpStatus status, String message) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("accepted", false);
+        body.put("error", message);
+        return ResponseEntity.status(status).body(body);
+    }
+}
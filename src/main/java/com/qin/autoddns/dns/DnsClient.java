@@ -0,0 +1,252 @@
+package com.qin.autoddns.dns;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 非阻塞DNS客户端
+ * 所有UDP查询共用一个非阻塞 {@link DatagramChannel}，由一个选择器线程负责发送、接收和超时重传，
+ * 应答按报文ID和来源地址匹配到查询，因此可以同时向多台服务器发出大量查询而不占用额外线程或端口。
+ * 应答被截断（TC）时在虚拟线程上改用TCP重新查询
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+public class DnsClient implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(DnsClient.class);
+    public static final int DNS_PORT = 53;
+    // 有查询等待应答时选择器的最长阻塞时间，决定超时检查的精度
+    private static final long TICK_MILLIS = 50;
+    private static final int MAX_ID_ATTEMPTS = 16;
+    // 大量查询同时发出时应答会集中到达，加大接收缓冲区以免内核丢包
+    private static final int RECEIVE_BUFFER_SIZE = 1 << 20;
+
+    private final long timeoutNanos;
+    private final int attempts;
+    private final DatagramChannel channel;
+    private final Selector selector;
+    private final SelectionKey key;
+    // 等待应答的查询，key为报文ID
+    private final Map<Integer, PendingQuery> pending = new ConcurrentHashMap<>();
+    private final Queue<PendingQuery> outbound = new ConcurrentLinkedQueue<>();
+    private final ExecutorService tcpExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Thread loop;
+    private volatile boolean closed;
+
+    /**
+     * @param timeoutMillis 每次尝试的超时时间（毫秒）
+     * @param attempts      UDP查询最多尝试次数（含首次）
+     */
+    public DnsClient(long timeoutMillis, int attempts) throws IOException {
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        this.attempts = Math.max(1, attempts);
+        this.channel = DatagramChannel.open();
+        this.channel.configureBlocking(false);
+        this.channel.setOption(StandardSocketOptions.SO_RCVBUF, RECEIVE_BUFFER_SIZE);
+        this.channel.bind(null);
+        this.selector = Selector.open();
+        this.key = channel.register(selector, SelectionKey.OP_READ);
+        this.loop = Thread.ofPlatform().daemon().name("ddns-dns").start(this::run);
+    }
+
+    /**
+     * 发出查询
+     *
+     * @param server           DNS服务器地址
+     * @param name             查询的域名
+     * @param type             查询类型
+     * @param recursionDesired 是否请求递归，查询权威服务器时为false
+     * @return 应答，超时或失败时以 {@link DnsException} 异常结束
+     */
+    public CompletableFuture<DnsResponse> query(InetSocketAddress server, String name, int type,
+                                                boolean recursionDesired) {
+        CompletableFuture<DnsResponse> future = new CompletableFuture<>();
+        if (closed) {
+            future.completeExceptionally(new DnsException("DNS客户端已关闭"));
+            return future;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < MAX_ID_ATTEMPTS; i++) {
+            int id = random.nextInt(0x10000);
+            PendingQuery query = new PendingQuery(id, server, name, type,
+                    DnsMessage.encodeQuery(id, name, type, recursionDesired), future);
+            // 先设置超时时间再放入 pending，选择器线程看到查询时超时时间已经有效
+            query.deadline = System.nanoTime() + timeoutNanos;
+            if (pending.putIfAbsent(id, query) == null) {
+                outbound.add(query);
+                selector.wakeup();
+                return future;
+            }
+        }
+        future.completeExceptionally(new DnsException("并发查询过多，没有可用的报文ID"));
+        return future;
+    }
+
+    private void run() {
+        ByteBuffer buffer = ByteBuffer.allocate(0x10000);
+        while (!closed) {
+            try {
+                // 没有等待中的查询时一直阻塞，直到有新查询唤醒
+                selector.select(pending.isEmpty() ? 0 : TICK_MILLIS);
+                selector.selectedKeys().clear();
+                receive(buffer);
+                flush();
+                expire();
+            } catch (ClosedSelectorException e) {
+                break;
+            } catch (IOException e) {
+                if (!closed) {
+                    log.warn("DNS客户端读写异常: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void receive(ByteBuffer buffer) throws IOException {
+        SocketAddress source;
+        while ((source = channel.receive(buffer.clear())) != null) {
+            buffer.flip();
+            PendingQuery query = pending.get(DnsMessage.readId(buffer));
+            // 迟到的应答或来源不符的报文直接丢弃，查询继续等待直到超时
+            if (query == null || !query.server.equals(source)) {
+                continue;
+            }
+            DnsResponse response;
+            try {
+                response = DnsMessage.decode(buffer, query.name, query.type);
+            } catch (DnsException e) {
+                log.debug("丢弃无效的DNS应答: {} @ {}: {}", query.name, query.server, e.getMessage());
+                continue;
+            }
+            if (!pending.remove(query.id, query)) {
+                continue;
+            }
+            if (response.truncated()) {
+                tcpExecutor.execute(() -> queryOverTcp(query));
+            } else {
+                query.future.complete(response);
+            }
+        }
+    }
+
+    private void flush() {
+        PendingQuery query;
+        while ((query = outbound.peek()) != null) {
+            try {
+                if (channel.send(ByteBuffer.wrap(query.message), query.server) == 0) {
+                    // 发送缓冲区已满，等通道可写时继续
+                    key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return;
+                }
+            } catch (IOException e) {
+                if (pending.remove(query.id, query)) {
+                    query.future.completeExceptionally(
+                            new DnsException("发送DNS查询失败: " + query.name + " @ " + query.server, e));
+                }
+            }
+            outbound.poll();
+        }
+        key.interestOps(SelectionKey.OP_READ);
+    }
+
+    private void expire() {
+        long now = System.nanoTime();
+        for (Iterator<PendingQuery> it = pending.values().iterator(); it.hasNext(); ) {
+            PendingQuery query = it.next();
+            if (now - query.deadline < 0) {
+                continue;
+            }
+            if (++query.attempt < attempts) {
+                query.deadline = now + timeoutNanos;
+                outbound.add(query);
+            } else {
+                it.remove();
+                query.future.completeExceptionally(
+                        new DnsException("DNS查询超时: " + query.name + " @ " + query.server));
+            }
+        }
+    }
+
+    /**
+     * 通过TCP重新发送查询，报文前加两字节长度
+     */
+    private void queryOverTcp(PendingQuery query) {
+        int timeoutMillis = (int) TimeUnit.NANOSECONDS.toMillis(timeoutNanos);
+        try (Socket socket = new Socket()) {
+            socket.connect(query.server, timeoutMillis);
+            socket.setSoTimeout(timeoutMillis);
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            out.writeShort(query.message.length);
+            out.write(query.message);
+            out.flush();
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            byte[] message = new byte[in.readUnsignedShort()];
+            in.readFully(message);
+            query.future.complete(DnsMessage.decode(ByteBuffer.wrap(message), query.name, query.type));
+        } catch (IOException e) {
+            query.future.completeExceptionally(e instanceof DnsException ? e
+                    : new DnsException("TCP查询失败: " + query.name + " @ " + query.server, e));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        try {
+            selector.close();
+            channel.close();
+        } finally {
+            tcpExecutor.shutdownNow();
+            pending.values().forEach(query -> query.future.completeExceptionally(new DnsException("DNS客户端已关闭")));
+            pending.clear();
+        }
+    }
+
+    /**
+     * 等待应答的查询，attempt 和 deadline 只由选择器线程修改
+     */
+    private static final class PendingQuery {
+        private final int id;
+        private final InetSocketAddress server;
+        private final String name;
+        private final int type;
+        private final byte[] message;
+        private final CompletableFuture<DnsResponse> future;
+        private int attempt;
+        private volatile long deadline;
+
+        private PendingQuery(int id, InetSocketAddress server, String name, int type, byte[] message,
+                             CompletableFuture<DnsResponse> future) {
+            this.id = id;
+            this.server = server;
+            this.name = name;
+            this.type = type;
+            this.message = message;
+            this.future = future;
+        }
+    }
+}
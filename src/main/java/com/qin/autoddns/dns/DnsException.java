@@ -0,0 +1,20 @@
+package com.qin.autoddns.dns;
+
+import java.io.IOException;
+
+/**
+ * DNS查询失败：报文格式错误、超时或服务器无应答
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+public class DnsException extends IOException {
+
+    public DnsException(String message) {
+        super(message);
+    }
+
+    public DnsException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
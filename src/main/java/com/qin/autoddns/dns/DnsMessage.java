@@ -0,0 +1,208 @@
+package com.qin.autoddns.dns;
+
+import com.qin.autoddns.util.IPAddress;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * DNS报文编解码（RFC 1035），只实现查询和解析应答所需的部分：
+ * 查询报文带一个问题和 EDNS0 OPT 记录，应答解析头部、核对问题并读取应答段，支持名称压缩指针
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+public final class DnsMessage {
+
+    public static final int TYPE_A = 1;
+    public static final int TYPE_NS = 2;
+    public static final int TYPE_CNAME = 5;
+    public static final int TYPE_AAAA = 28;
+    private static final int TYPE_OPT = 41;
+    private static final int CLASS_IN = 1;
+    private static final int HEADER_SIZE = 12;
+    // EDNS0 声明的UDP报文上限，1232 字节可避免绝大多数链路上的IP分片
+    public static final int EDNS_UDP_SIZE = 1232;
+    private static final int MAX_POINTER_JUMPS = 32;
+
+    private DnsMessage() {
+    }
+
+    /**
+     * 按记录类型取得查询类型
+     *
+     * @param recordType A 或 AAAA
+     */
+    public static int queryType(String recordType) {
+        return "AAAA".equalsIgnoreCase(recordType) ? TYPE_AAAA : TYPE_A;
+    }
+
+    /**
+     * 编码查询报文
+     *
+     * @param id               报文ID
+     * @param name             查询的域名
+     * @param type             查询类型
+     * @param recursionDesired 是否请求递归，查询权威服务器时为false
+     */
+    public static byte[] encodeQuery(int id, String name, int type, boolean recursionDesired) {
+        String normalized = normalize(name);
+        // 名称的线上格式比文本多首个长度字节和结尾的根标签
+        int nameLength = normalized.isEmpty() ? 1 : normalized.length() + 2;
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + nameLength + 4 + 11);
+        buffer.putShort((short) id);
+        buffer.putShort((short) (recursionDesired ? 0x0100 : 0));
+        buffer.putShort((short) 1); // QDCOUNT
+        buffer.putShort((short) 0); // ANCOUNT
+        buffer.putShort((short) 0); // NSCOUNT
+        buffer.putShort((short) 1); // ARCOUNT，EDNS0 OPT
+        writeName(buffer, normalized);
+        buffer.putShort((short) type);
+        buffer.putShort((short) CLASS_IN);
+        // OPT 伪记录：根域名、类型41、CLASS为UDP报文上限、TTL和RDLENGTH为0
+        buffer.put((byte) 0);
+        buffer.putShort((short) TYPE_OPT);
+        buffer.putShort((short) EDNS_UDP_SIZE);
+        buffer.putInt(0);
+        buffer.putShort((short) 0);
+        return buffer.array();
+    }
+
+    /**
+     * 读取报文ID，用于把UDP应答匹配到查询
+     */
+    public static int readId(ByteBuffer message) {
+        return message.remaining() >= 2 ? message.getShort(message.position()) & 0xFFFF : -1;
+    }
+
+    /**
+     * 解析应答报文
+     *
+     * @param message      应答报文
+     * @param expectedName 查询的域名，问题段不符时视为无效应答
+     * @param expectedType 查询类型
+     * @throws DnsException 报文格式错误或不是对该查询的应答
+     */
+    public static DnsResponse decode(ByteBuffer message, String expectedName, int expectedType)
+            throws DnsException {
+        try {
+            ByteBuffer buffer = message.slice();
+            int id = buffer.getShort() & 0xFFFF;
+            int flags = buffer.getShort() & 0xFFFF;
+            int questions = buffer.getShort() & 0xFFFF;
+            int answers = buffer.getShort() & 0xFFFF;
+            buffer.getShort(); // NSCOUNT
+            buffer.getShort(); // ARCOUNT
+            if ((flags & 0x8000) == 0) {
+                throw new DnsException("不是应答报文");
+            }
+            boolean truncated = (flags & 0x0200) != 0;
+            if (questions != 1) {
+                throw new DnsException("应答的问题数不正确: " + questions);
+            }
+            String questionName = readName(buffer);
+            int questionType = buffer.getShort() & 0xFFFF;
+            buffer.getShort(); // QCLASS
+            if (!questionName.equals(normalize(expectedName)) || questionType != expectedType) {
+                throw new DnsException("应答与查询不符: " + questionName);
+            }
+            List<DnsRecord> records = new ArrayList<>(answers);
+            // 截断的应答内容不完整，只保留头部信息
+            for (int i = 0; i < answers && !truncated; i++) {
+                records.add(readRecord(buffer));
+            }
+            return new DnsResponse(id, flags & 0x000F, (flags & 0x0400) != 0, truncated, records);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new DnsException("DNS报文格式错误", e);
+        }
+    }
+
+    /**
+     * 规范化域名：小写、去掉结尾的点
+     */
+    public static String normalize(String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        return lower.endsWith(".") ? lower.substring(0, lower.length() - 1) : lower;
+    }
+
+    private static void writeName(ByteBuffer buffer, String name) {
+        if (!name.isEmpty()) {
+            for (String label : name.split("\\.")) {
+                byte[] bytes = label.getBytes(StandardCharsets.US_ASCII);
+                if (bytes.length == 0 || bytes.length > 63) {
+                    throw new IllegalArgumentException("非法的域名: " + name);
+                }
+                buffer.put((byte) bytes.length);
+                buffer.put(bytes);
+            }
+        }
+        buffer.put((byte) 0);
+    }
+
+    private static DnsRecord readRecord(ByteBuffer buffer) {
+        String name = readName(buffer);
+        int type = buffer.getShort() & 0xFFFF;
+        buffer.getShort(); // CLASS
+        long ttl = buffer.getInt() & 0xFFFFFFFFL;
+        int length = buffer.getShort() & 0xFFFF;
+        int end = buffer.position() + length;
+        String data = switch (type) {
+            case TYPE_A, TYPE_AAAA -> {
+                if (length != (type == TYPE_A ? 4 : 16)) {
+                    throw new IllegalArgumentException("地址长度不正确: " + length);
+                }
+                byte[] bytes = new byte[length];
+                buffer.get(bytes);
+                IPAddress address = IPAddress.fromBytes(bytes);
+                yield address != null ? address.toString() : null;
+            }
+            case TYPE_NS, TYPE_CNAME -> readName(buffer);
+            default -> null;
+        };
+        buffer.position(end);
+        return new DnsRecord(name, type, ttl, data);
+    }
+
+    /**
+     * 读取域名，跟随压缩指针，结束后 buffer 位于名称之后
+     */
+    private static String readName(ByteBuffer buffer) {
+        StringBuilder name = new StringBuilder();
+        int position = buffer.position();
+        int resume = -1;
+        int jumps = 0;
+        while (true) {
+            int length = buffer.get(position) & 0xFF;
+            if ((length & 0xC0) == 0xC0) {
+                if (++jumps > MAX_POINTER_JUMPS) {
+                    throw new IllegalArgumentException("压缩指针循环");
+                }
+                if (resume < 0) {
+                    resume = position + 2;
+                }
+                position = ((length & 0x3F) << 8) | (buffer.get(position + 1) & 0xFF);
+                continue;
+            }
+            if (length == 0) {
+                position++;
+                break;
+            }
+            if (length > 63) {
+                throw new IllegalArgumentException("非法的标签长度: " + length);
+            }
+            if (!name.isEmpty()) {
+                name.append('.');
+            }
+            for (int i = 1; i <= length; i++) {
+                name.append((char) (buffer.get(position + i) & 0xFF));
+            }
+            position += length + 1;
+        }
+        buffer.position(resume >= 0 ? resume : position);
+        return name.toString().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,14 @@
+package com.qin.autoddns.dns;
+
+/**
+ * DNS应答中的一条资源记录
+ *
+ * @param name 记录名，小写，不带结尾的点
+ * @param type 记录类型，见 {@link DnsMessage} 中的 TYPE_* 常量
+ * @param ttl  TTL（秒）
+ * @param data A/AAAA 为地址的规范写法，NS/CNAME 为目标域名，其他类型为null
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+public record DnsRecord(String name, int type, long ttl, String data) {
+}
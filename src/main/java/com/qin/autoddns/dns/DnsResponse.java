@@ -0,0 +1,31 @@
+package com.qin.autoddns.dns;
+
+import java.util.List;
+
+/**
+ * 解析后的DNS应答
+ *
+ * @param id            报文ID
+ * @param rcode         响应码，0表示成功，3表示域名不存在
+ * @param authoritative 是否权威应答（AA）
+ * @param truncated     UDP应答是否被截断（TC），截断时需要改用TCP重新查询
+ * @param answers       应答段的记录
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+public record DnsResponse(int id, int rcode, boolean authoritative, boolean truncated, List<DnsRecord> answers) {
+
+    public static final int RCODE_NOERROR = 0;
+    public static final int RCODE_NXDOMAIN = 3;
+
+    /**
+     * 应答段中指定名称和类型的记录值
+     */
+    public List<String> values(String name, int type) {
+        String normalized = DnsMessage.normalize(name);
+        return answers.stream()
+                .filter(record -> record.type() == type && record.name().equals(normalized))
+                .map(DnsRecord::data)
+                .toList();
+    }
+}
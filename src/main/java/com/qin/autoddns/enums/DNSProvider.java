@@ -7,16 +7,22 @@ package com.qin.autoddns.enums;
  * @since 2024/03/21
  */
 public enum DNSProvider {
-    TENCENT("tencent", "腾讯云"),
-    ALIYUN("aliyun", "阿里云"),
-    CLOUDFLARE("cloudflare", "Cloudflare");
+    // 默认限流按各服务商公开的API配额留出余量：
+    // 腾讯云 DNSPod 单接口 20次/秒，阿里云云解析 DNS 单接口约 10次/秒，Cloudflare 每用户 1200次/5分钟
+    TENCENT("tencent", "腾讯云", 15, 20),
+    ALIYUN("aliyun", "阿里云", 8, 10),
+    CLOUDFLARE("cloudflare", "Cloudflare", 3.5, 20);
 
     private final String code;
     private final String desc;
+    private final double defaultPermitsPerSecond;
+    private final int defaultBurst;
 
-    DNSProvider(String code, String desc) {
+    DNSProvider(String code, String desc, double defaultPermitsPerSecond, int defaultBurst) {
         this.code = code;
         this.desc = desc;
+        this.defaultPermitsPerSecond = defaultPermitsPerSecond;
+        this.defaultBurst = defaultBurst;
     }
 
     public String getCode() {
@@ -27,6 +33,20 @@ public enum DNSProvider {
         return desc;
     }
 
+    /**
+     * 每个账号默认的API调用速率（次/秒）
+     */
+    public double getDefaultPermitsPerSecond() {
+        return defaultPermitsPerSecond;
+    }
+
+    /**
+     * 每个账号默认允许的突发调用次数
+     */
+    public int getDefaultBurst() {
+        return defaultBurst;
+    }
+
     public static DNSProvider fromCode(String code) {
         for (DNSProvider provider : values()) {
             if (provider.getCode().equalsIgnoreCase(code)) {
@@ -0,0 +1,37 @@
+package com.qin.autoddns.enums;
+
+/**
+ * IP地址族枚举
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+public enum IPFamily {
+    IPV4("A", "IPv4"),
+    IPV6("AAAA", "IPv6");
+
+    private final String recordType;
+    private final String desc;
+
+    IPFamily(String recordType, String desc) {
+        this.recordType = recordType;
+        this.desc = desc;
+    }
+
+    public String getRecordType() {
+        return recordType;
+    }
+
+    public String getDesc() {
+        return desc;
+    }
+
+    public static IPFamily fromRecordType(String recordType) {
+        for (IPFamily family : values()) {
+            if (family.getRecordType().equalsIgnoreCase(recordType)) {
+                return family;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported record type: " + recordType);
+    }
+}
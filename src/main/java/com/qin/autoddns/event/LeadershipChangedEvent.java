@@ -0,0 +1,25 @@
+package com.qin.autoddns.event;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 当前节点成为或不再是主节点
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+public class LeadershipChangedEvent extends ApplicationEvent {
+    private final boolean leader;
+
+    /**
+     * @param leader 当前节点是否为主节点
+     */
+    public LeadershipChangedEvent(Object source, boolean leader) {
+        super(source);
+        this.leader = leader;
+    }
+
+    public boolean isLeader() {
+        return leader;
+    }
+}
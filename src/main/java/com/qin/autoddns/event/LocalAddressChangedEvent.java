@@ -0,0 +1,30 @@
+package com.qin.autoddns.event;
+
+import org.springframework.context.ApplicationEvent;
+
+import java.util.Set;
+
+/**
+ * 本机网卡地址变化事件
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+public class LocalAddressChangedEvent extends ApplicationEvent {
+    private final Set<String> previousAddresses;
+    private final Set<String> currentAddresses;
+
+    public LocalAddressChangedEvent(Object source, Set<String> previousAddresses, Set<String> currentAddresses) {
+        super(source);
+        this.previousAddresses = previousAddresses;
+        this.currentAddresses = currentAddresses;
+    }
+
+    public Set<String> getPreviousAddresses() {
+        return previousAddresses;
+    }
+
+    public Set<String> getCurrentAddresses() {
+        return currentAddresses;
+    }
+}
@@ -0,0 +1,32 @@
+package com.qin.autoddns.event;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 一次DNS记录同步完成事件
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+public class ReconcileCompletedEvent extends ApplicationEvent {
+    private final boolean ipChanged;
+    private final boolean failed;
+
+    /**
+     * @param ipChanged 是否有地址族检测到公网IP变化
+     * @param failed    是否有地址族无法获取公网IP，或有记录更新失败
+     */
+    public ReconcileCompletedEvent(Object source, boolean ipChanged, boolean failed) {
+        super(source);
+        this.ipChanged = ipChanged;
+        this.failed = failed;
+    }
+
+    public boolean isIpChanged() {
+        return ipChanged;
+    }
+
+    public boolean isFailed() {
+        return failed;
+    }
+}
@@ -1,33 +1,101 @@
 package com.qin.autoddns.factory;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.qin.autoddns.cache.RecordCache;
+import com.qin.autoddns.config.DDNSConfig;
 import com.qin.autoddns.enums.DNSProvider;
+import com.qin.autoddns.resilience.ProviderCallExecutor;
 import com.qin.autoddns.service.DDNSService;
 import com.qin.autoddns.service.impl.AliyunDDNSServiceImpl;
 import com.qin.autoddns.service.impl.CloudflareDDNSServiceImpl;
 import com.qin.autoddns.service.impl.TencentDDNSServiceImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * DDNS服务工厂
+ * 服务商实例按 服务商/账号 在首次使用时创建，只有记录实际用到的服务商才会初始化SDK客户端，
+ * 未使用的服务商不会加载其SDK类，启动耗时和内存不随编译进来的服务商数量增长。
+ * 连通性测试不在启动路径上，应用就绪后在后台对已创建的实例逐个执行，失败只记录日志
+ */
 @Component
 public class DDNSFactory {
 
-    private final TencentDDNSServiceImpl tencentDDNSService;
-    private final CloudflareDDNSServiceImpl cloudflareDDNSService;
-    private final AliyunDDNSServiceImpl aliyunDDNSService;
+    private final Logger log = LoggerFactory.getLogger(DDNSFactory.class);
+    private final DDNSConfig config;
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    private final RecordCache recordCache;
+    private final ProviderCallExecutor callExecutor;
+    // 已创建的服务商实例，key为 服务商/账号
+    private final Map<String, DDNSService> services = new ConcurrentHashMap<>();
 
-    public DDNSFactory(TencentDDNSServiceImpl tencentDDNSService,
-                       CloudflareDDNSServiceImpl cloudflareDDNSService,
-                       AliyunDDNSServiceImpl aliyunDDNSService) {
-        this.tencentDDNSService = tencentDDNSService;
-        this.cloudflareDDNSService = cloudflareDDNSService;
-        this.aliyunDDNSService = aliyunDDNSService;
+    public DDNSFactory(DDNSConfig config, RestTemplate restTemplate, ObjectMapper objectMapper,
+                       RecordCache recordCache, ProviderCallExecutor callExecutor) {
+        this.config = config;
+        this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
+        this.recordCache = recordCache;
+        this.callExecutor = callExecutor;
     }
 
+    /**
+     * 获取顶层账号的服务商实现
+     */
     public DDNSService createDDNSService(String type) {
+        return getDDNSService(type, config.getAccount());
+    }
+
+    /**
+     * 获取账号的服务商实现，实例在首次使用时创建
+     *
+     * @param type    服务商代码
+     * @param account 账号名称，为空时使用顶层账号
+     */
+    public DDNSService getDDNSService(String type, String account) {
         DNSProvider provider = DNSProvider.fromCode(type);
+        String name = config.isDefaultAccount(account) ? config.getAccount() : account;
+        return services.computeIfAbsent(provider.getCode() + "/" + name,
+                key -> createService(provider, config.forAccount(name)));
+    }
+
+    /**
+     * 创建服务商实例
+     *
+     * @param provider      服务商
+     * @param accountConfig 账号的配置，凭据已替换为该账号的凭据
+     */
+    protected DDNSService createService(DNSProvider provider, DDNSConfig accountConfig) {
         return switch (provider) {
-            case TENCENT -> tencentDDNSService;
-            case CLOUDFLARE -> cloudflareDDNSService;
-            case ALIYUN -> aliyunDDNSService;
+            case TENCENT -> new TencentDDNSServiceImpl(accountConfig, recordCache, callExecutor);
+            case CLOUDFLARE -> new CloudflareDDNSServiceImpl(accountConfig, restTemplate, objectMapper, recordCache,
+                    callExecutor);
+            case ALIYUN -> new AliyunDDNSServiceImpl(accountConfig, recordCache, callExecutor);
         };
     }
-} 
\ No newline at end of file
+
+    /**
+     * 应用就绪后在虚拟线程上测试已创建实例的连通性，不阻塞启动和首次同步
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        List<Map.Entry<String, DDNSService>> created = List.copyOf(services.entrySet());
+        Thread.ofVirtual().name("ddns-warmup").start(() -> {
+            for (Map.Entry<String, DDNSService> entry : created) {
+                try {
+                    entry.getValue().testConnection();
+                } catch (RuntimeException e) {
+                    log.warn("服务商 {} 连通性测试失败，将在同步时重试: {}", entry.getKey(), e.getMessage());
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,199 @@
+package com.qin.autoddns.http;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import java.io.IOException;
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.ProxySelector;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 带统计的HttpClient
+ * 委托给共享的JDK HttpClient，记录请求数、并发数、失败数和协议版本分布。
+ * JDK HttpClient 不暴露连接池内部状态，HTTP/2 响应占比和并发请求数可用来观察连接复用情况
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+public class InstrumentedHttpClient extends HttpClient {
+    private final HttpClient delegate;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder http2Responses = new LongAdder();
+    private final LongAdder http11Responses = new LongAdder();
+    private final LongAdder totalLatencyMillis = new LongAdder();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    public InstrumentedHttpClient(HttpClient delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> responseBodyHandler)
+            throws IOException, InterruptedException {
+        long start = onStart();
+        try {
+            HttpResponse<T> response = delegate.send(request, responseBodyHandler);
+            onComplete(start, response, null);
+            return response;
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            onComplete(start, null, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request,
+                                                            HttpResponse.BodyHandler<T> responseBodyHandler) {
+        long start = onStart();
+        CompletableFuture<HttpResponse<T>> future = delegate.sendAsync(request, responseBodyHandler);
+        future.whenComplete((response, error) -> onComplete(start, response, error));
+        return future;
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request,
+                                                            HttpResponse.BodyHandler<T> responseBodyHandler,
+                                                            HttpResponse.PushPromiseHandler<T> pushPromiseHandler) {
+        long start = onStart();
+        CompletableFuture<HttpResponse<T>> future =
+                delegate.sendAsync(request, responseBodyHandler, pushPromiseHandler);
+        future.whenComplete((response, error) -> onComplete(start, response, error));
+        return future;
+    }
+
+    private long onStart() {
+        requests.increment();
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        return System.nanoTime();
+    }
+
+    private void onComplete(long start, HttpResponse<?> response, Throwable error) {
+        inFlight.decrementAndGet();
+        totalLatencyMillis.add((System.nanoTime() - start) / 1_000_000);
+        if (error != null || response == null) {
+            failures.increment();
+        } else if (response.version() == Version.HTTP_2) {
+            http2Responses.increment();
+        } else {
+            http11Responses.increment();
+        }
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    public long getHttp2Responses() {
+        return http2Responses.sum();
+    }
+
+    public long getHttp11Responses() {
+        return http11Responses.sum();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight.get();
+    }
+
+    /**
+     * 统计快照
+     */
+    public Map<String, Object> snapshot() {
+        long total = getRequests();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("requests", total);
+        stats.put("failures", getFailures());
+        stats.put("inFlight", getInFlight());
+        stats.put("maxInFlight", getMaxInFlight());
+        stats.put("http2Responses", getHttp2Responses());
+        stats.put("http11Responses", getHttp11Responses());
+        stats.put("avgLatencyMillis", total == 0 ? 0 : totalLatencyMillis.sum() / total);
+        return stats;
+    }
+
+    @Override
+    public Optional<CookieHandler> cookieHandler() {
+        return delegate.cookieHandler();
+    }
+
+    @Override
+    public Optional<Duration> connectTimeout() {
+        return delegate.connectTimeout();
+    }
+
+    @Override
+    public Redirect followRedirects() {
+        return delegate.followRedirects();
+    }
+
+    @Override
+    public Optional<ProxySelector> proxy() {
+        return delegate.proxy();
+    }
+
+    @Override
+    public SSLContext sslContext() {
+        return delegate.sslContext();
+    }
+
+    @Override
+    public SSLParameters sslParameters() {
+        return delegate.sslParameters();
+    }
+
+    @Override
+    public Optional<Authenticator> authenticator() {
+        return delegate.authenticator();
+    }
+
+    @Override
+    public Version version() {
+        return delegate.version();
+    }
+
+    @Override
+    public Optional<Executor> executor() {
+        return delegate.executor();
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public boolean awaitTermination(Duration duration) throws InterruptedException {
+        return delegate.awaitTermination(duration);
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public void shutdownNow() {
+        delegate.shutdownNow();
+    }
+}
@@ -0,0 +1,97 @@
+package com.qin.autoddns.leader;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 基于共享文件的租约
+ * 租约以JSON保存在所有节点都能访问的文件中，读取-修改-写入期间持有文件锁，保证同一时间只有一个节点能修改租约。
+ * 到期时间使用各节点的系统时钟，节点之间需要保持时间同步（NTP）；共享目录需支持文件锁（本机目录、NFSv4等）
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+public class FileLeaseBackend implements LeaseBackend {
+    private final Path file;
+    private final ObjectMapper objectMapper;
+
+    public FileLeaseBackend(Path file, ObjectMapper objectMapper) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public synchronized Lease acquire(String node, long leaseDuration) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) {
+            Files.createDirectories(dir);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+             FileLock ignored = channel.lock()) {
+            Lease current = read(channel);
+            long now = System.currentTimeMillis();
+            if (current != null && !current.isHeldBy(node, now) && now < current.expiresAt()) {
+                return current;
+            }
+            long epoch = current == null ? 1 : current.isHeldBy(node, now) ? current.epoch() : current.epoch() + 1;
+            Lease lease = new Lease(node, epoch, now + leaseDuration);
+            write(channel, lease);
+            return lease;
+        }
+    }
+
+    @Override
+    public synchronized void release(String node) throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+             FileLock ignored = channel.lock()) {
+            Lease current = read(channel);
+            if (current != null && current.isHeldBy(node, System.currentTimeMillis())) {
+                // 保留纪元，下一个获取者在此基础上加一
+                write(channel, new Lease(node, current.epoch(), 0));
+            }
+        }
+    }
+
+    private Lease read(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) >= 0) {
+            // 读满为止
+        }
+        try {
+            return objectMapper.readValue(buffer.array(), 0, buffer.position(), Lease.class);
+        } catch (IOException e) {
+            // 内容损坏时视为无人持有，由本次写入覆盖
+            return null;
+        }
+    }
+
+    private void write(FileChannel channel, Lease lease) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(objectMapper.writeValueAsBytes(lease));
+        channel.truncate(0);
+        long position = 0;
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        channel.force(false);
+    }
+
+    @Override
+    public String describe() {
+        return "file:" + file.toAbsolutePath();
+    }
+}
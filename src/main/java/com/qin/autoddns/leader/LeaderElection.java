@@ -0,0 +1,167 @@
+package com.qin.autoddns.leader;
+
+import com.qin.autoddns.config.DDNSConfig;
+import com.qin.autoddns.event.LeadershipChangedEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于租约的主节点选举
+ * 多个副本部署时只有持有租约的主节点执行同步，其余节点每隔 renew-interval 尝试获取租约。
+ * 主节点每隔 renew-interval 续约；续约失败时按本机单调时钟计算，上次续约成功后再过 lease-duration - renew-interval
+ * 即不再认为自己是主节点，早于其他节点能获取租约的时间，避免两个节点同时写入。
+ * 主节点停止后，其他节点最迟在 lease-duration + renew-interval 内接管；正常退出时立即释放租约。
+ * 续约使用独立线程，不与定时检查共用调度线程池，耗时较长的同步不会推迟续约
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+@Component
+public class LeaderElection {
+    private final Logger log = LoggerFactory.getLogger(LeaderElection.class);
+    private final LeaseBackend backend;
+    private final ScheduledExecutorService renewer = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("ddns-leader").daemon().factory());
+    private final ApplicationEventPublisher eventPublisher;
+    private final String node;
+    private final long leaseDuration;
+    private final long renewInterval;
+    private final long validityNanos; // 每次续约成功后本机认为租约有效的时长
+    private volatile Lease lease;
+    private volatile boolean leader;
+    private volatile long validUntil; // 本机单调时钟，超过后不再认为自己是主节点
+
+    public LeaderElection(DDNSConfig config, LeaseBackend backend, ApplicationEventPublisher eventPublisher) {
+        DDNSConfig.LeaderConfig leaderConfig = config.getLeader();
+        this.backend = backend;
+        this.eventPublisher = eventPublisher;
+        this.node = StringUtils.hasText(leaderConfig.getNodeId()) ? leaderConfig.getNodeId() : defaultNodeId();
+        this.leaseDuration = Math.max(1000, leaderConfig.getLeaseDuration());
+        this.renewInterval = Math.max(100, Math.min(leaderConfig.getRenewInterval(), leaseDuration / 2));
+        this.validityNanos = TimeUnit.MILLISECONDS.toNanos(leaseDuration - renewInterval);
+        log.info("主节点选举: 节点 {}，租约后端 {}，租约时长 {} 毫秒", node, backend.describe(), leaseDuration);
+        // 启动时先尝试一次，首次定时检查前即可确定身份；此时不发布事件，启动后的首次检查会执行同步
+        leader = renew();
+        if (leader) {
+            log.info("已成为主节点，租约纪元 {}", lease.epoch());
+        } else if (lease != null) {
+            log.info("当前主节点为 {}，本节点待命", lease.holder());
+        }
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (IOException e) {
+            host = "unknown";
+        }
+        return host + "-" + ProcessHandle.current().pid();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        renewer.scheduleAtFixedRate(this::tick, renewInterval, renewInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 当前节点是否为主节点，只有主节点可以调用服务商API写入记录
+     */
+    public boolean isLeader() {
+        return leader && System.nanoTime() - validUntil < 0;
+    }
+
+    private void tick() {
+        boolean held = renew();
+        if (held == leader) {
+            return;
+        }
+        leader = held;
+        if (held) {
+            log.info("已成为主节点，租约纪元 {}", lease.epoch());
+        } else {
+            log.warn("已不再是主节点，当前主节点: {}", lease != null && lease.holder() != null ? lease.holder() : "未知");
+        }
+        try {
+            eventPublisher.publishEvent(new LeadershipChangedEvent(this, held));
+        } catch (RuntimeException e) {
+            // 监听器的异常不能中断续约
+            log.warn("处理主节点变化失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 获取或续约租约
+     *
+     * @return 当前是否持有有效租约
+     */
+    private boolean renew() {
+        // 以发起请求的时间计算有效期，保守地扣除请求耗时
+        long start = System.nanoTime();
+        try {
+            Lease current = backend.acquire(node, leaseDuration);
+            lease = current;
+            if (node.equals(current.holder())) {
+                validUntil = start + validityNanos;
+                return true;
+            }
+            return false;
+        } catch (IOException | RuntimeException e) {
+            log.warn("获取主节点租约失败: {}", e.getMessage());
+            // 后端暂时不可用时，本机计算的有效期内仍保持主节点身份
+            return isLeader();
+        }
+    }
+
+    /**
+     * 节点标识、当前主节点和租约信息
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        Lease current = lease;
+        snapshot.put("node", node);
+        snapshot.put("backend", backend.describe());
+        snapshot.put("leader", isLeader());
+        snapshot.put("holder", current != null ? current.holder() : null);
+        snapshot.put("epoch", current != null ? current.epoch() : 0);
+        snapshot.put("expiresAt", current != null && current.expiresAt() > 0
+                ? Instant.ofEpochMilli(current.expiresAt()).toString() : null);
+        return snapshot;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renewer.shutdown();
+        try {
+            // 等正在进行的续约结束，避免释放后又被续上
+            renewer.awaitTermination(renewInterval, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!leader) {
+            return;
+        }
+        leader = false;
+        try {
+            backend.release(node);
+            log.info("已释放主节点租约");
+        } catch (IOException | RuntimeException e) {
+            log.warn("释放主节点租约失败: {}", e.getMessage());
+        }
+    }
+}
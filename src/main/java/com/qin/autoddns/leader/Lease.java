@@ -0,0 +1,20 @@
+package com.qin.autoddns.leader;
+
+/**
+ * 主节点租约
+ *
+ * @param holder    持有者的节点标识
+ * @param epoch     租约纪元，每次换主（或租约过期后重新获取）加一，可用于在日志中区分不同任期
+ * @param expiresAt 到期时间（毫秒时间戳），之后其他节点可以获取
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+public record Lease(String holder, long epoch, long expiresAt) {
+
+    /**
+     * 租约在指定时间是否由该节点持有
+     */
+    public boolean isHeldBy(String node, long now) {
+        return holder != null && holder.equals(node) && now < expiresAt;
+    }
+}
@@ -0,0 +1,35 @@
+package com.qin.autoddns.leader;
+
+import java.io.IOException;
+
+/**
+ * 租约存储后端
+ * 实现需保证 acquire 和 release 对所有节点是原子的：同一时间最多一个节点持有未过期的租约。
+ * 注册自定义的 {@link LeaseBackend} Bean 即可替换内置后端
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+public interface LeaseBackend {
+
+    /**
+     * 获取或续约租约
+     *
+     * @param node          当前节点标识
+     * @param leaseDuration 租约时长（毫秒）
+     * @return 操作后的租约；持有者不是当前节点时表示其他节点持有未过期的租约
+     */
+    Lease acquire(String node, long leaseDuration) throws IOException;
+
+    /**
+     * 当前节点持有租约时立即释放，使其他节点无需等待过期
+     *
+     * @param node 当前节点标识
+     */
+    void release(String node) throws IOException;
+
+    /**
+     * 后端说明，用于日志和健康检查
+     */
+    String describe();
+}
@@ -0,0 +1,35 @@
+package com.qin.autoddns.leader;
+
+/**
+ * 进程内租约，只在同一进程内互斥
+ * 单实例部署时使用，当前节点总能获取租约
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+public class LocalLeaseBackend implements LeaseBackend {
+    private Lease lease = new Lease(null, 0, 0);
+
+    @Override
+    public synchronized Lease acquire(String node, long leaseDuration) {
+        long now = System.currentTimeMillis();
+        if (!lease.isHeldBy(node, now) && now < lease.expiresAt()) {
+            return lease;
+        }
+        long epoch = lease.isHeldBy(node, now) ? lease.epoch() : lease.epoch() + 1;
+        lease = new Lease(node, epoch, now + leaseDuration);
+        return lease;
+    }
+
+    @Override
+    public synchronized void release(String node) {
+        if (lease.isHeldBy(node, System.currentTimeMillis())) {
+            lease = new Lease(node, lease.epoch(), 0);
+        }
+    }
+
+    @Override
+    public String describe() {
+        return "local";
+    }
+}
@@ -0,0 +1,221 @@
+package com.qin.autoddns.metrics;
+
+import com.qin.autoddns.cache.RecordCache;
+import com.qin.autoddns.enums.IPFamily;
+import com.qin.autoddns.util.IPAddressUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * DDNS同步链路的指标，通过 /actuator/prometheus 暴露：
+ * <ul>
+ *     <li>ddns.ip.detection：各查询服务的IP检测耗时</li>
+ *     <li>ddns.provider.request：各服务商查询/更新记录的耗时（含重试）</li>
+ *     <li>ddns.provider.api：各服务商单次API调用的耗时</li>
+ *     <li>ddns.provider.retries：服务商API重试次数</li>
+ *     <li>ddns.provider.ratelimit.wait：调用前等待限流令牌的时间</li>
+ *     <li>ddns.reconcile：每个地址族一次同步的总耗时</li>
+ *     <li>ddns.poll.interval：当前的定时检查间隔</li>
+ *     <li>ddns.propagation：记录更新后到所有权威DNS返回新IP的耗时</li>
+ *     <li>ddns.trigger.requests：推送通知接口收到的请求数</li>
+ *     <li>ddns.propagation.read.path：检查时权威DNS已返回当前IP、跳过服务商查询的次数</li>
+ *     <li>ddns.ip.changes / ddns.record.update.failures：IP变化次数和记录更新失败次数</li>
+ *     <li>ddns.record.cache.*：记录元数据缓存的命中情况</li>
+ * </ul>
+ * 服务商相关的指标都带 account 标签，区分同一服务商下的不同账号
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+@Component
+public class DDNSMetrics {
+
+    private final MeterRegistry registry;
+
+    public DDNSMetrics(MeterRegistry registry, RecordCache recordCache) {
+        this.registry = registry;
+
+        FunctionCounter.builder("ddns.record.cache.requests", recordCache, RecordCache::getHits)
+                .description("记录元数据缓存查询次数")
+                .tags("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("ddns.record.cache.requests", recordCache, RecordCache::getMisses)
+                .description("记录元数据缓存查询次数")
+                .tags("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("ddns.record.cache.invalidations", recordCache, RecordCache::getInvalidations)
+                .description("记录元数据缓存失效次数")
+                .register(registry);
+        Gauge.builder("ddns.record.cache.hit.ratio", recordCache, DDNSMetrics::hitRatio)
+                .description("记录元数据缓存命中率")
+                .register(registry);
+        Gauge.builder("ddns.record.cache.size", recordCache, RecordCache::size)
+                .description("记录元数据缓存条目数")
+                .register(registry);
+
+        IPAddressUtil.setLookupListener(this::recordIpLookup);
+    }
+
+    private static double hitRatio(RecordCache cache) {
+        long total = cache.getHits() + cache.getMisses();
+        return total == 0 ? 0 : (double) cache.getHits() / total;
+    }
+
+    /**
+     * 记录一次IP查询服务的调用
+     */
+    public void recordIpLookup(String source, IPFamily family, boolean success, long nanos) {
+        Timer.builder("ddns.ip.detection")
+                .description("公网IP查询服务耗时")
+                .tags("source", source, "family", family.getDesc(), "outcome", outcome(success))
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录一次服务商查询或更新记录的耗时
+     *
+     * @param provider  服务商代码
+     * @param account   账号名称
+     * @param operation getCurrentRecord 或 updateDNSRecord
+     */
+    public void recordProviderRequest(String provider, String account, String operation, long nanos) {
+        // 服务商实现吞掉了异常，成败以 ddns.provider.api 和 ddns.record.update.failures 为准
+        Timer.builder("ddns.provider.request")
+                .description("服务商查询/更新记录耗时，包含重试")
+                .tags("provider", provider, "account", account, "operation", operation)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录一次服务商API调用的耗时
+     *
+     * @param provider 服务商代码
+     * @param account  账号名称
+     * @param api      接口名称
+     */
+    public void recordProviderApi(String provider, String account, String api, boolean success, long nanos) {
+        Timer.builder("ddns.provider.api")
+                .description("服务商单次API调用耗时")
+                .tags("provider", provider, "account", account, "api", api, "outcome", outcome(success))
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录一次服务商API重试
+     *
+     * @param kind 失败类型
+     */
+    public void recordRetry(String provider, String account, String kind) {
+        Counter.builder("ddns.provider.retries")
+                .description("服务商API重试次数")
+                .tags("provider", provider, "account", account, "kind", kind)
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * 记录一次等待限流令牌的时间
+     */
+    public void recordRateLimitWait(String provider, String account, long nanos) {
+        Timer.builder("ddns.provider.ratelimit.wait")
+                .description("调用服务商API前等待限流令牌的时间")
+                .tags("provider", provider, "account", account)
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 注册当前定时检查间隔的指标
+     *
+     * @param scheduler       调度器
+     * @param intervalSeconds 读取当前间隔（秒）
+     */
+    public <T> void registerPollInterval(T scheduler, ToDoubleFunction<T> intervalSeconds) {
+        Gauge.builder("ddns.poll.interval", scheduler, intervalSeconds)
+                .description("当前的定时检查间隔（秒）")
+                .register(registry);
+    }
+
+    /**
+     * 记录一次更新后的生效验证
+     *
+     * @param propagated 是否在等待时间内所有权威DNS都返回了新IP
+     * @param nanos      从更新成功到生效（或放弃等待）的时间
+     */
+    public void recordPropagation(String provider, String account, boolean propagated, long nanos) {
+        Timer.builder("ddns.propagation")
+                .description("记录更新后到所有权威DNS返回新IP的耗时")
+                .tags("provider", provider, "account", account, "outcome", propagated ? "propagated" : "timeout")
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录一次检查时的权威DNS查询
+     *
+     * @param hit 权威DNS是否已返回当前IP，命中时跳过服务商查询
+     */
+    public void recordPropagationReadPath(boolean hit) {
+        Counter.builder("ddns.propagation.read.path")
+                .description("检查时查询权威DNS的次数")
+                .tags("result", hit ? "hit" : "miss")
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * 记录一次推送通知请求
+     *
+     * @param result accepted、unauthorized 或 invalid
+     */
+    public void recordTrigger(String result) {
+        Counter.builder("ddns.trigger.requests")
+                .description("推送通知接口收到的请求数")
+                .tags("result", result)
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * 记录一个地址族的一次完整同步耗时
+     */
+    public void recordReconcile(IPFamily family, long nanos) {
+        Timer.builder("ddns.reconcile")
+                .description("一次同步的总耗时")
+                .tags("family", family.getDesc())
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordIpChange(IPFamily family) {
+        Counter.builder("ddns.ip.changes")
+                .description("检测到的公网IP变化次数")
+                .tags("family", family.getDesc())
+                .register(registry)
+                .increment();
+    }
+
+    public void recordUpdateFailure(String provider, String account) {
+        Counter.builder("ddns.record.update.failures")
+                .description("DNS记录更新失败次数")
+                .tags("provider", provider, "account", account)
+                .register(registry)
+                .increment();
+    }
+
+    private static String outcome(boolean success) {
+        return success ? "success" : "failure";
+    }
+}
@@ -0,0 +1,14 @@
+package com.qin.autoddns.resilience;
+
+/**
+ * 等待限流令牌时线程被中断（关闭或取消同步），调用没有发出，不计入服务商故障
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+public class CallInterruptedException extends RuntimeException {
+
+    public CallInterruptedException(String key) {
+        super(key + " 等待限流令牌时被中断，调用未发出");
+    }
+}
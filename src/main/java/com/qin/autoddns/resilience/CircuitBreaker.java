@@ -0,0 +1,98 @@
+package com.qin.autoddns.resilience;
+
+/**
+ * 单个服务商的熔断器
+ * 连续失败达到阈值后熔断，熔断期内调用直接失败；熔断期结束后放行一次探测请求，
+ * 探测成功则恢复，失败则重新熔断
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String provider;
+    private final int failureThreshold;
+    private final long openDuration;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private long openCount;
+
+    public CircuitBreaker(String provider, int failureThreshold, long openDuration) {
+        this.provider = provider;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openDuration = openDuration;
+    }
+
+    /**
+     * 申请一次调用许可，熔断中抛出 {@link CircuitOpenException}
+     */
+    public synchronized void acquire() {
+        if (state == State.CLOSED) {
+            return;
+        }
+        long remaining = openedAt + openDuration - System.currentTimeMillis();
+        if (state == State.OPEN && remaining <= 0) {
+            // 熔断期结束，只放行当前这一次探测请求
+            state = State.HALF_OPEN;
+            return;
+        }
+        throw new CircuitOpenException(provider, Math.max(0, remaining));
+    }
+
+    /**
+     * 当前是否允许调用，不改变状态
+     */
+    public synchronized boolean isCallPermitted() {
+        return state == State.CLOSED
+                || (state == State.OPEN && System.currentTimeMillis() - openedAt >= openDuration);
+    }
+
+    /**
+     * 放弃已取得的调用许可，调用没有发出，不计入成功或失败。
+     * 半开状态的探测许可交还，下一次调用重新探测
+     */
+    public synchronized void release() {
+        if (state == State.HALF_OPEN) {
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis() - openDuration;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+    }
+
+    /**
+     * 记录一次服务商故障
+     *
+     * @return 是否因本次失败进入熔断
+     */
+    public synchronized boolean onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+            openCount++;
+            return true;
+        }
+        return false;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    public synchronized long getOpenCount() {
+        return openCount;
+    }
+}
@@ -0,0 +1,21 @@
+package com.qin.autoddns.resilience;
+
+/**
+ * 服务商处于熔断状态时快速失败抛出的异常
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+public class CircuitOpenException extends RuntimeException {
+
+    private final String provider;
+
+    public CircuitOpenException(String provider, long remainingMillis) {
+        super("服务商 " + provider + " 已熔断，" + remainingMillis + " 毫秒后恢复探测");
+        this.provider = provider;
+    }
+
+    public String getProvider() {
+        return provider;
+    }
+}
@@ -0,0 +1,32 @@
+package com.qin.autoddns.resilience;
+
+/**
+ * 失败分类结果
+ *
+ * @param kind       失败类型
+ * @param retryAfter 服务端要求的最短重试等待时间（毫秒），未指定时为null
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+public record Failure(FailureKind kind, Long retryAfter) {
+
+    public static Failure of(FailureKind kind) {
+        return new Failure(kind, null);
+    }
+
+    /**
+     * 是否允许重试
+     *
+     * @param idempotent 请求是否幂等
+     */
+    public boolean isRetryable(boolean idempotent) {
+        return kind == FailureKind.REJECTED || (kind == FailureKind.TRANSIENT && idempotent);
+    }
+
+    /**
+     * 是否说明服务商不可用，计入熔断统计
+     */
+    public boolean isProviderFault() {
+        return kind != FailureKind.PERMANENT;
+    }
+}
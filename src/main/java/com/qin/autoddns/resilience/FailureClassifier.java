@@ -0,0 +1,128 @@
+package com.qin.autoddns.resilience;
+
+import com.aliyuncs.exceptions.ClientException;
+import com.aliyuncs.exceptions.ServerException;
+import com.tencentcloudapi.common.exception.TencentCloudSDKException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.HttpStatusCodeException;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.UnknownHostException;
+import java.net.http.HttpConnectTimeoutException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 将 RestTemplate、腾讯云SDK、阿里云SDK 抛出的异常统一分类为可重试或不可重试
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+public final class FailureClassifier {
+
+    private FailureClassifier() {
+    }
+
+    public static Failure classify(Throwable error) {
+        if (error instanceof HttpStatusCodeException e) {
+            return classifyHttpStatus(e);
+        }
+        if (error instanceof TencentCloudSDKException e) {
+            return classifyTencent(e);
+        }
+        if (error instanceof ClientException e) {
+            return classifyAliyun(e);
+        }
+        return classifyIo(error);
+    }
+
+    private static Failure classifyHttpStatus(HttpStatusCodeException e) {
+        int status = e.getStatusCode().value();
+        if (status == HttpStatus.TOO_MANY_REQUESTS.value()) {
+            return new Failure(FailureKind.REJECTED, parseRetryAfter(e.getResponseHeaders()));
+        }
+        if (status == HttpStatus.SERVICE_UNAVAILABLE.value()) {
+            return new Failure(FailureKind.TRANSIENT, parseRetryAfter(e.getResponseHeaders()));
+        }
+        if (status == HttpStatus.REQUEST_TIMEOUT.value() || e.getStatusCode().is5xxServerError()) {
+            return Failure.of(FailureKind.TRANSIENT);
+        }
+        return Failure.of(FailureKind.PERMANENT);
+    }
+
+    private static Failure classifyTencent(TencentCloudSDKException e) {
+        String code = e.getErrorCode();
+        if (!StringUtils.hasText(code)) {
+            // 网络异常时SDK不返回错误码，按底层异常分类
+            return classifyIo(e);
+        }
+        if (code.startsWith("RequestLimitExceeded")) {
+            return Failure.of(FailureKind.REJECTED);
+        }
+        if (code.startsWith("InternalError")) {
+            return Failure.of(FailureKind.TRANSIENT);
+        }
+        return Failure.of(FailureKind.PERMANENT);
+    }
+
+    private static Failure classifyAliyun(ClientException e) {
+        String code = e.getErrCode();
+        if (code != null && code.startsWith("Throttling")) {
+            return Failure.of(FailureKind.REJECTED);
+        }
+        if ("SDK.ServerUnreachable".equals(code)) {
+            Failure io = classifyIo(e);
+            return io.kind() == FailureKind.PERMANENT ? Failure.of(FailureKind.TRANSIENT) : io;
+        }
+        if (e instanceof ServerException || "ServiceUnavailable".equals(code)
+                || (code != null && code.startsWith("InternalError"))) {
+            return Failure.of(FailureKind.TRANSIENT);
+        }
+        return Failure.of(FailureKind.PERMANENT);
+    }
+
+    /**
+     * 按异常链中的网络异常分类：连接未建立时请求一定未发出，其他IO异常请求可能已送达
+     */
+    private static Failure classifyIo(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException || cause instanceof HttpConnectTimeoutException
+                    || cause instanceof UnknownHostException) {
+                return Failure.of(FailureKind.REJECTED);
+            }
+        }
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IOException) {
+                return Failure.of(FailureKind.TRANSIENT);
+            }
+        }
+        return Failure.of(FailureKind.PERMANENT);
+    }
+
+    /**
+     * 解析 Retry-After 响应头，支持秒数和HTTP日期两种格式
+     *
+     * @return 等待时间（毫秒），无法解析时返回null
+     */
+    static Long parseRetryAfter(HttpHeaders headers) {
+        String value = headers != null ? headers.getFirst(HttpHeaders.RETRY_AFTER) : null;
+        if (!StringUtils.hasText(value)) {
+            return null;
+        }
+        try {
+            return Math.max(0, Long.parseLong(value.trim()) * 1000);
+        } catch (NumberFormatException ignored) {
+            // 不是秒数，尝试按HTTP日期解析
+        }
+        try {
+            ZonedDateTime at = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+            return Math.max(0, Duration.between(ZonedDateTime.now(at.getZone()), at).toMillis());
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
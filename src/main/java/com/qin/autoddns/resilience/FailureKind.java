@@ -0,0 +1,22 @@
+package com.qin.autoddns.resilience;
+
+/**
+ * 服务商调用失败的类型
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+public enum FailureKind {
+    /**
+     * 请求被服务端拒绝且未被处理（限流、连接失败），任何请求都可以重试
+     */
+    REJECTED,
+    /**
+     * 临时故障（超时、5xx），请求可能已被处理，只有幂等请求可以重试
+     */
+    TRANSIENT,
+    /**
+     * 永久错误（鉴权失败、参数错误、记录不存在等），重试没有意义
+     */
+    PERMANENT
+}
@@ -0,0 +1,14 @@
+package com.qin.autoddns.resilience;
+
+/**
+ * 一次服务商API调用
+ *
+ * @param <T> 返回值类型
+ * @param <E> SDK抛出的异常类型
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+@FunctionalInterface
+public interface ProviderCall<T, E extends Exception> {
+    T call() throws E;
+}
@@ -0,0 +1,227 @@
+package com.qin.autoddns.resilience;
+
+import com.qin.autoddns.config.DDNSConfig;
+import com.qin.autoddns.enums.DNSProvider;
+import com.qin.autoddns.metrics.DDNSMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 服务商API调用执行器，为所有服务商提供统一的限流、重试和熔断策略：
+ * <ul>
+ *     <li>每个账号一个令牌桶，每次请求（含重试）前取得令牌，调用速率不超过服务商配额</li>
+ *     <li>只重试限流、连接失败等未被处理的请求，以及幂等请求的临时故障，鉴权失败等4xx错误直接返回</li>
+ *     <li>重试间隔按指数退避并加入随机抖动，服务端返回 Retry-After 时至少等待该时间</li>
+ *     <li>每个账号独立熔断，熔断期间调用直接失败，不占用同步线程</li>
+ * </ul>
+ * 熔断器、令牌桶和统计均按 服务商/账号 区分，一个账号的故障或限流不影响其他账号
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+@Component
+public class ProviderCallExecutor {
+
+    private final Logger log = LoggerFactory.getLogger(ProviderCallExecutor.class);
+    private final DDNSConfig ddnsConfig;
+    private final DDNSConfig.ResilienceConfig config;
+    private final DDNSMetrics metrics;
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> limiters = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> retries = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> failures = new ConcurrentHashMap<>();
+
+    public ProviderCallExecutor(DDNSConfig config, DDNSMetrics metrics) {
+        this.ddnsConfig = config;
+        this.config = config.getResilience();
+        this.metrics = metrics;
+    }
+
+    /**
+     * 执行一次服务商调用
+     *
+     * @param provider   服务商代码
+     * @param account    账号名称
+     * @param operation  操作名称，用于日志
+     * @param idempotent 请求是否幂等（查询、按ID更新为幂等，创建记录不是）
+     * @param call       调用
+     * @return 调用结果
+     * @throws E                        重试耗尽或不可重试时抛出最后一次的异常
+     * @throws CircuitOpenException     服务商处于熔断状态
+     * @throws CallInterruptedException 等待限流令牌时被中断，调用未发出
+     */
+    public <T, E extends Exception> T execute(String provider, String account, String operation,
+                                              boolean idempotent, ProviderCall<T, E> call) throws E {
+        String key = key(provider, account);
+        CircuitBreaker breaker = breaker(key);
+        breaker.acquire();
+        TokenBucket limiter = limiter(provider, account);
+        int maxAttempts = Math.max(1, config.getMaxAttempts());
+        // 调用结果是否已计入熔断器；中断、Error 等未计入的结束方式在 finally 中按失败处理，
+        // 否则半开状态的探测请求没有结果，熔断器会一直停在半开状态拒绝所有调用
+        boolean recorded = false;
+        try {
+            for (int attempt = 1; ; attempt++) {
+                long waited;
+                try {
+                    waited = limiter.acquire();
+                } catch (InterruptedException e) {
+                    // 关闭或取消时不再发出调用；之前的重试已确认是服务商故障，首次调用则不计入熔断
+                    Thread.currentThread().interrupt();
+                    if (attempt > 1) {
+                        recordFailure(key, breaker);
+                    } else {
+                        breaker.release();
+                    }
+                    recorded = true;
+                    throw new CallInterruptedException(key);
+                }
+                if (waited > 0) {
+                    metrics.recordRateLimitWait(provider, account, waited);
+                }
+                long start = System.nanoTime();
+                try {
+                    T result = call.call();
+                    metrics.recordProviderApi(provider, account, operation, true, System.nanoTime() - start);
+                    breaker.onSuccess();
+                    recorded = true;
+                    return result;
+                } catch (Exception e) {
+                    metrics.recordProviderApi(provider, account, operation, false, System.nanoTime() - start);
+                    Failure failure = FailureClassifier.classify(e);
+                    if (!failure.isProviderFault()) {
+                        // 服务商正常响应了错误，不影响熔断状态
+                        breaker.onSuccess();
+                        recorded = true;
+                        throw e;
+                    }
+                    long delay = attempt < maxAttempts && failure.isRetryable(idempotent)
+                            ? backoff(attempt, failure) : -1;
+                    if (delay < 0) {
+                        recordFailure(key, breaker);
+                        recorded = true;
+                        throw e;
+                    }
+                    counter(retries, key).incrementAndGet();
+                    metrics.recordRetry(provider, account, failure.kind().name());
+                    log.warn("{} {} 调用失败（第{}次，{}），{} 毫秒后重试: {}",
+                            key, operation, attempt, failure.kind(), delay, e.getMessage());
+                    try {
+                        Thread.sleep(delay);
+                    } catch (InterruptedException interrupted) {
+                        Thread.currentThread().interrupt();
+                        throw e;
+                    }
+                }
+            }
+        } finally {
+            if (!recorded) {
+                recordFailure(key, breaker);
+            }
+        }
+    }
+
+    private void recordFailure(String key, CircuitBreaker breaker) {
+        counter(failures, key).incrementAndGet();
+        if (breaker.onFailure()) {
+            log.error("{} 调用连续失败，熔断 {} 毫秒", key, config.getOpenDuration());
+        }
+    }
+
+    /**
+     * 账号当前是否允许调用（未熔断或熔断期已结束）
+     *
+     * @param provider 服务商代码
+     * @param account  账号名称
+     */
+    public boolean isCallPermitted(String provider, String account) {
+        return breaker(key(provider, account)).isCallPermitted();
+    }
+
+    /**
+     * 账号的令牌桶在本次同步的等待上限内是否还能放行调用。
+     * 排队等待超过 rate-limit.max-wait 时返回false，调用方应把剩余工作留到下一次同步，
+     * 避免一个大账号长时间占住同步流程
+     *
+     * @param provider 服务商代码
+     * @param account  账号名称
+     */
+    public boolean hasCapacity(String provider, String account) {
+        long maxWait = ddnsConfig.getRateLimit(account).getMaxWait();
+        return limiter(provider, account).estimatedWait() <= TimeUnit.MILLISECONDS.toNanos(maxWait);
+    }
+
+    /**
+     * 计算第 attempt 次失败后的等待时间，返回-1表示不再重试
+     */
+    private long backoff(int attempt, Failure failure) {
+        long cap = Math.min(config.getMaxBackoff(), config.getInitialBackoff() << Math.min(attempt - 1, 20));
+        // 全抖动：在 0 到退避上限之间随机，避免多个实例同时重试
+        long delay = ThreadLocalRandom.current().nextLong(cap + 1);
+        if (failure.retryAfter() != null) {
+            if (failure.retryAfter() > config.getMaxRetryAfter()) {
+                return -1;
+            }
+            delay = Math.max(delay, failure.retryAfter());
+        }
+        return delay;
+    }
+
+    /**
+     * 熔断器和统计的键，顶层账号只用服务商代码
+     */
+    private String key(String provider, String account) {
+        return ddnsConfig.isDefaultAccount(account) ? provider : provider + "/" + account;
+    }
+
+    private CircuitBreaker breaker(String key) {
+        return breakers.computeIfAbsent(key, name ->
+                new CircuitBreaker(name, config.getFailureThreshold(), config.getOpenDuration()));
+    }
+
+    private TokenBucket limiter(String provider, String account) {
+        return limiters.computeIfAbsent(key(provider, account), name -> {
+            DDNSConfig.RateLimitConfig rateLimit = ddnsConfig.getRateLimit(account);
+            DNSProvider dnsProvider = DNSProvider.fromCode(provider);
+            double permitsPerSecond = rateLimit.getPermitsPerSecond() > 0
+                    ? rateLimit.getPermitsPerSecond() : dnsProvider.getDefaultPermitsPerSecond();
+            int burst = rateLimit.getBurst() > 0 ? rateLimit.getBurst() : dnsProvider.getDefaultBurst();
+            log.info("{} API限流: {} 次/秒, 突发 {} 次", name, permitsPerSecond, burst);
+            return new TokenBucket(permitsPerSecond, burst);
+        });
+    }
+
+    private AtomicLong counter(Map<String, AtomicLong> counters, String key) {
+        return counters.computeIfAbsent(key, name -> new AtomicLong());
+    }
+
+    /**
+     * 各服务商账号的熔断状态、限流和重试统计
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new TreeMap<>();
+        breakers.forEach((key, breaker) -> {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("state", breaker.getState());
+            item.put("consecutiveFailures", breaker.getConsecutiveFailures());
+            item.put("openCount", breaker.getOpenCount());
+            item.put("retries", counter(retries, key).get());
+            item.put("failures", counter(failures, key).get());
+            TokenBucket limiter = limiters.get(key);
+            if (limiter != null) {
+                item.put("availablePermits", Math.floor(limiter.getAvailable() * 100) / 100);
+            }
+            stats.put(key, item);
+        });
+        return stats;
+    }
+}
@@ -0,0 +1,98 @@
+package com.qin.autoddns.resilience;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 令牌桶限流器
+ * 令牌按固定速率补充，最多积累 burst 个；令牌不足时允许预支，
+ * 预支的调用按到期顺序依次等待，因此并发调用方自然排队而不会同时醒来
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+public class TokenBucket {
+
+    private final double permitsPerNano;
+    private final double capacity;
+    // 当前可用令牌数，为负表示已被预支
+    private double available;
+    private long lastRefill;
+
+    /**
+     * @param permitsPerSecond 每秒补充的令牌数
+     * @param burst            桶容量
+     */
+    public TokenBucket(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive: " + permitsPerSecond);
+        }
+        this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.capacity = Math.max(1, burst);
+        this.available = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * 取得一个令牌，令牌不足时等待
+     *
+     * @return 等待的纳秒数
+     * @throws InterruptedException 等待前或等待中被中断，此时没有取得令牌，预支的令牌已归还
+     */
+    public long acquire() throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        long wait = reserve();
+        if (wait > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                cancel();
+                throw e;
+            }
+        }
+        return wait;
+    }
+
+    /**
+     * 预支一个令牌
+     *
+     * @return 需要等待的纳秒数，0表示立即可用
+     */
+    private synchronized long reserve() {
+        refill();
+        available -= 1;
+        return available >= 0 ? 0 : (long) Math.ceil(-available / permitsPerNano);
+    }
+
+    /**
+     * 归还预支后未使用的令牌
+     */
+    private synchronized void cancel() {
+        available = Math.min(capacity, available + 1);
+    }
+
+    /**
+     * 现在申请令牌需要等待的时间，不占用令牌
+     *
+     * @return 纳秒数
+     */
+    public synchronized long estimatedWait() {
+        refill();
+        return available >= 1 ? 0 : (long) Math.ceil((1 - available) / permitsPerNano);
+    }
+
+    /**
+     * 当前可用令牌数，为负表示排队中的调用数
+     */
+    public synchronized double getAvailable() {
+        refill();
+        return available;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        available = Math.min(capacity, available + (now - lastRefill) * permitsPerNano);
+        lastRefill = now;
+    }
+}
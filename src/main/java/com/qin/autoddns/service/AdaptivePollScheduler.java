@@ -0,0 +1,177 @@
+package com.qin.autoddns.service;
+
+import com.qin.autoddns.config.DDNSConfig;
+import com.qin.autoddns.event.ReconcileCompletedEvent;
+import com.qin.autoddns.metrics.DDNSMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * 定时检查调度器
+ * 自适应模式下根据IP变化历史调整下一次检查的时间：IP未变化时每次检查后按 growth-factor 放宽间隔，
+ * IP变化后立即收紧到最小间隔，短时间内反复变化（抖动）时保持最小间隔直到 flap-window 内不再变化，
+ * 间隔始终在 min-interval 与 max-interval 之间。关闭自适应时按 update-interval 固定频率检查。
+ * <p>
+ * 网卡监听等其他来源触发的同步同样计入IP变化历史，并以同步完成时间为起点重新安排下一次检查
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+@Component
+public class AdaptivePollScheduler {
+    private final Logger log = LoggerFactory.getLogger(AdaptivePollScheduler.class);
+    private final DDNSUpdateService updateService;
+    private final TaskScheduler taskScheduler;
+    private final DDNSConfig.PollingConfig polling;
+    private final long fixedInterval;
+    private final long minInterval;
+    private final long maxInterval;
+    // 以下字段由 this 保护
+    private long interval;
+    private String reason;
+    private long lastChange; // 上一次IP变化的时间（毫秒），0表示启动后未变化
+    private boolean flapping;
+    private ScheduledFuture<?> next;
+    private Instant nextRun;
+    private long generation; // 每次重新安排加一，过期的检查任务结束后不再安排下一次
+
+    public AdaptivePollScheduler(DDNSConfig config, DDNSUpdateService updateService, TaskScheduler taskScheduler,
+                                 DDNSMetrics metrics) {
+        this.updateService = updateService;
+        this.taskScheduler = taskScheduler;
+        this.polling = config.getPolling();
+        this.fixedInterval = config.getUpdateInterval();
+        this.minInterval = Math.max(1000, polling.getMinInterval());
+        this.maxInterval = Math.max(minInterval, polling.getMaxInterval());
+        if (polling.isAdaptive()) {
+            this.interval = clamp(fixedInterval);
+            this.reason = "初始间隔";
+        } else {
+            this.interval = fixedInterval;
+            this.reason = "固定间隔";
+        }
+        metrics.registerPollInterval(this, scheduler -> scheduler.getInterval() / 1000.0);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (polling.isAdaptive()) {
+            log.info("自适应定时检查已启动，间隔范围: {} ~ {} 毫秒，初始间隔: {} 毫秒", minInterval, maxInterval, interval);
+        } else {
+            log.info("定时检查已启动，更新间隔: {} 毫秒", interval);
+        }
+        synchronized (this) {
+            schedule(Instant.now());
+        }
+    }
+
+    /**
+     * 任意来源的同步完成后按本次结果调整间隔，并从现在起重新安排下一次检查
+     */
+    @EventListener
+    public void onReconcileCompleted(ReconcileCompletedEvent event) {
+        if (!polling.isAdaptive()) {
+            return;
+        }
+        synchronized (this) {
+            adjust(event.isIpChanged(), event.isFailed(), System.currentTimeMillis());
+            schedule(Instant.now().plusMillis(interval));
+        }
+    }
+
+    private void adjust(boolean ipChanged, boolean failed, long now) {
+        long previous = interval;
+        if (ipChanged) {
+            flapping = lastChange > 0 && now - lastChange < polling.getFlapWindow();
+            lastChange = now;
+            interval = minInterval;
+            reason = flapping ? "IP抖动" : "IP刚变化";
+        } else if (flapping && now - lastChange < polling.getFlapWindow()) {
+            interval = minInterval;
+            reason = "IP抖动，等待稳定";
+        } else if (failed) {
+            // 失败时不放宽间隔，但也不超过配置的更新间隔，尽快重试
+            flapping = false;
+            interval = Math.min(interval, clamp(fixedInterval));
+            reason = "上次同步失败";
+        } else {
+            flapping = false;
+            interval = clamp((long) (interval * Math.max(1.0, polling.getGrowthFactor())));
+            reason = interval >= maxInterval ? "IP稳定，已达最大间隔" : "IP稳定，逐步放宽";
+        }
+        if (interval != previous) {
+            log.info("定时检查间隔调整为 {} 毫秒，原因: {}", interval, reason);
+        }
+    }
+
+    private long clamp(long millis) {
+        return Math.max(minInterval, Math.min(maxInterval, millis));
+    }
+
+    /**
+     * 取消已安排的检查，改为在指定时间执行，调用方需持有 this 锁
+     */
+    private void schedule(Instant at) {
+        if (next != null) {
+            next.cancel(false);
+        }
+        long current = ++generation;
+        nextRun = at;
+        next = taskScheduler.schedule(() -> tick(current), at);
+    }
+
+    private void tick(long scheduledGeneration) {
+        Instant start = Instant.now();
+        try {
+            updateService.reconcileAll("定时检查");
+        } catch (RuntimeException e) {
+            log.error("定时检查异常", e);
+        } finally {
+            synchronized (this) {
+                // 同步完成事件已重新安排时不再重复安排；固定间隔模式从本次开始时间起算，保持固定频率
+                if (generation == scheduledGeneration) {
+                    schedule(polling.isAdaptive() ? Instant.now().plusMillis(interval) : start.plusMillis(interval));
+                }
+            }
+        }
+    }
+
+    /**
+     * 当前的检查间隔（毫秒）
+     */
+    public synchronized long getInterval() {
+        return interval;
+    }
+
+    /**
+     * 当前间隔、原因和下一次检查时间
+     */
+    public synchronized Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("adaptive", polling.isAdaptive());
+        snapshot.put("interval", interval);
+        snapshot.put("reason", reason);
+        snapshot.put("minInterval", polling.isAdaptive() ? minInterval : fixedInterval);
+        snapshot.put("maxInterval", polling.isAdaptive() ? maxInterval : fixedInterval);
+        snapshot.put("nextRun", nextRun != null ? nextRun.toString() : null);
+        snapshot.put("lastIpChange", lastChange > 0 ? Instant.ofEpochMilli(lastChange).toString() : null);
+        return snapshot;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (next != null) {
+            next.cancel(false);
+        }
+    }
+}
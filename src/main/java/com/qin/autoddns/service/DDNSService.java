@@ -1,5 +1,12 @@
 package com.qin.autoddns.service;
 
+import com.qin.autoddns.resilience.CallInterruptedException;
+import com.qin.autoddns.resilience.CircuitOpenException;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * DDNS服务接口
  *
@@ -14,16 +21,86 @@ public interface DDNSService {
      * @param subDomain  子域名
      * @param recordType 记录类型(A, AAAA等)
      * @param value      IP地址
+     * @param ttl        TTL（秒），为null时使用服务商默认值
      * @return 是否更新成功
      */
-    boolean updateDNSRecord(String domain, String subDomain, String recordType, String value);
+    boolean updateDNSRecord(String domain, String subDomain, String recordType, String value, Long ttl);
+
+    /**
+     * 更新DNS记录，使用服务商默认TTL
+     *
+     * @param domain     域名
+     * @param subDomain  子域名
+     * @param recordType 记录类型(A, AAAA等)
+     * @param value      IP地址
+     * @return 是否更新成功
+     */
+    default boolean updateDNSRecord(String domain, String subDomain, String recordType, String value) {
+        return updateDNSRecord(domain, subDomain, recordType, value, null);
+    }
+
+    /**
+     * 批量更新同一主域名下的多条DNS记录
+     * 默认逐条调用 {@link #updateDNSRecord(String, String, String, String, Long)}，支持批量接口的服务商可覆盖。
+     * 途中熔断或被中断时剩余记录不再调用、按失败返回，已写入记录的结果保留
+     *
+     * @param updates 待更新的记录
+     * @return 每条记录是否更新成功
+     */
+    default Map<RecordUpdate, Boolean> updateDNSRecords(List<RecordUpdate> updates) {
+        Map<RecordUpdate, Boolean> results = new LinkedHashMap<>();
+        for (RecordUpdate update : updates) {
+            boolean success;
+            try {
+                success = updateDNSRecord(update.domain(), update.subDomain(),
+                        update.recordType(), update.value(), update.ttl());
+            } catch (CircuitOpenException | CallInterruptedException e) {
+                updates.forEach(remaining -> results.putIfAbsent(remaining, false));
+                break;
+            }
+            results.put(update, success);
+        }
+        return results;
+    }
 
     /**
      * 获取当前DNS记录
      *
+     * @param domain     域名
+     * @param subDomain  子域名
+     * @param recordType 记录类型(A, AAAA等)
+     * @return 当前记录值
+     */
+    String getCurrentRecord(String domain, String subDomain, String recordType);
+
+    /**
+     * 获取当前A记录
+     *
      * @param domain    域名
      * @param subDomain 子域名
      * @return 当前记录值
      */
-    String getCurrentRecord(String domain, String subDomain);
-} 
\ No newline at end of file
+    default String getCurrentRecord(String domain, String subDomain) {
+        return getCurrentRecord(domain, subDomain, "A");
+    }
+
+    /**
+     * 获取本地缓存的记录ID，不发起API请求
+     *
+     * @param domain     域名
+     * @param subDomain  子域名
+     * @param recordType 记录类型(A, AAAA等)
+     * @return 记录ID，未缓存时返回null
+     */
+    default String getCachedRecordId(String domain, String subDomain, String recordType) {
+        return null;
+    }
+
+    /**
+     * 测试与服务商的连通性，启动后在后台执行，同时预先建立连接
+     *
+     * @throws RuntimeException 连接或鉴权失败
+     */
+    default void testConnection() {
+    }
+}
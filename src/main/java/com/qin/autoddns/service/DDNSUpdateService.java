@@ -1,15 +1,58 @@
 package com.qin.autoddns.service;
 
+import com.qin.autoddns.cache.RecordCache;
 import com.qin.autoddns.config.DDNSConfig;
+import com.qin.autoddns.config.DDNSConfig.RecordConfig;
+import com.qin.autoddns.enums.IPFamily;
+import com.qin.autoddns.event.LeadershipChangedEvent;
+import com.qin.autoddns.event.LocalAddressChangedEvent;
+import com.qin.autoddns.event.ReconcileCompletedEvent;
 import com.qin.autoddns.factory.DDNSFactory;
+import com.qin.autoddns.leader.LeaderElection;
+import com.qin.autoddns.metrics.DDNSMetrics;
+import com.qin.autoddns.resilience.CallInterruptedException;
+import com.qin.autoddns.resilience.CircuitOpenException;
+import com.qin.autoddns.resilience.ProviderCallExecutor;
+import com.qin.autoddns.state.RecordStateStore;
+import com.qin.autoddns.util.IPAddress;
 import com.qin.autoddns.util.IPAddressUtil;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
 /**
  * DDNS更新服务
+ * A记录和AAAA记录按地址族拆分为互不依赖的同步流程并行执行，某一地址族检测缓慢或失败不会拖延另一地址族。
+ * 每个流程检测一次公网IP，然后在虚拟线程上并发检查该地址族的所有记录，
+ * 需要更新的记录按服务商账号和主域名分组写入。
+ * 每个服务商账号有独立的并发许可（ddns.max-concurrency-per-provider）和限流令牌桶，
+ * 账号之间不共享任何排队资源，一个大账号不会拖住其他账号；
+ * 某个账号在本次同步中等待令牌超过上限时，其余记录留到紧接着的补充同步中处理。
+ * 定时检查（{@link AdaptivePollScheduler}）和网卡地址变化都会触发同步，同步进行中到达的触发会合并为一次补充同步，
+ * 每次同步结束后发布 {@link ReconcileCompletedEvent}。
+ * 多副本部署时只有主节点（{@link LeaderElection}）执行同步。
+ * 启用生效验证时，检查记录前先查询权威DNS（{@link PropagationVerifier}），已返回当前IP的记录不再调用服务商API
  *
  * @author qinshijiao
  * @since 2024/03/21
@@ -18,60 +61,369 @@ import org.springframework.stereotype.Service;
 public class DDNSUpdateService {
     private final Logger log = LoggerFactory.getLogger(DDNSUpdateService.class);
     private final DDNSConfig config;
-    private final DDNSService ddnsService;
+    private final DDNSFactory ddnsFactory;
     private final EmailService emailService;
+    private final RecordStateStore stateStore;
+    private final RecordCache recordCache;
+    private final ProviderCallExecutor callExecutor;
+    private final DDNSMetrics metrics;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PropagationVerifier propagationVerifier;
+    private final LeaderElection leaderElection;
+    private final List<RecordConfig> records;
+    private final Map<IPFamily, List<RecordConfig>> recordsByFamily = new EnumMap<>(IPFamily.class);
+    // 各地址族上一次检测到的公网IP，用于统计IP变化次数
+    private final Map<IPFamily, IPAddress> lastDetectedIps = new ConcurrentHashMap<>();
+    // 外部通知的公网IP，下一次同步该地址族时使用一次
+    private final Map<IPFamily, String> offeredIps = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    // 各服务商账号的并发许可，key为 服务商/账号
+    private final Map<String, Semaphore> accountPermits = new ConcurrentHashMap<>();
+    private final ReentrantLock reconcileLock = new ReentrantLock();
+    private final AtomicBoolean reconcileRequested = new AtomicBoolean();
+    // 本次同步中因限流被推迟的记录数，以及实际查询服务商的记录数
+    private final AtomicInteger deferredChecks = new AtomicInteger();
+    private final AtomicInteger providerChecks = new AtomicInteger();
+    // 本次同步是否检测到IP变化、是否有失败
+    private final AtomicBoolean ipChanged = new AtomicBoolean();
+    private final AtomicBoolean failed = new AtomicBoolean();
 
-    public DDNSUpdateService(DDNSConfig config, DDNSFactory ddnsFactory, EmailService emailService) {
+    public DDNSUpdateService(DDNSConfig config, DDNSFactory ddnsFactory, EmailService emailService,
+                             RecordStateStore stateStore, RecordCache recordCache, ProviderCallExecutor callExecutor,
+                             DDNSMetrics metrics,
+                             ApplicationEventPublisher eventPublisher, PropagationVerifier propagationVerifier,
+                             LeaderElection leaderElection) {
         this.config = config;
-        this.ddnsService = ddnsFactory.createDDNSService(config.getProvider());
+        this.ddnsFactory = ddnsFactory;
         this.emailService = emailService;
+        this.stateStore = stateStore;
+        this.recordCache = recordCache;
+        this.callExecutor = callExecutor;
+        this.metrics = metrics;
+        this.eventPublisher = eventPublisher;
+        this.propagationVerifier = propagationVerifier;
+        this.leaderElection = leaderElection;
+        this.records = config.resolveRecords();
+        // 启动时校验所有记录的服务商配置
+        for (RecordConfig record : records) {
+            ddnsFactory.getDDNSService(record.getProvider(), record.getAccount());
+            recordsByFamily.computeIfAbsent(IPFamily.fromRecordType(record.getType()), key -> new ArrayList<>())
+                    .add(record);
+        }
         log.info("DDNS服务已启动，当前配置：");
-        log.info("域名: {}.{}", config.getSubDomain(), config.getDomain());
+        for (RecordConfig record : records) {
+            log.info("域名: {}", record);
+        }
         log.info("服务提供商: {}", config.getProvider());
-        log.info("更新间隔: {} 毫秒", config.getUpdateInterval());
-    }
-
-    @Scheduled(fixedRateString = "${ddns.update-interval}")
-    public void updateDNSRecord() {
-        String currentIp = IPAddressUtil.getPublicIP();
-        if (currentIp != null) {
-            String currentRecord = ddnsService.getCurrentRecord(config.getDomain(), config.getSubDomain());
-            String fullDomain = config.getSubDomain() + "." + config.getDomain();
-
-            log.info("检查DNS记录: {}", fullDomain);
-            log.info("当前公网IP: {}", currentIp);
-            log.info("当前DNS记录: {}", currentRecord != null ? currentRecord : "无记录");
-
-            if (!currentIp.equals(currentRecord)) {
-                log.info("IP地址发生变化，开始更新DNS记录...");
-                boolean success = ddnsService.updateDNSRecord(
-                        config.getDomain(),
-                        config.getSubDomain(),
-                        "A",
-                        currentIp
-                );
-                if (success) {
-                    log.info("DNS记录更新成功:");
-                    log.info("域名: {}", fullDomain);
-                    log.info("新IP: {}", currentIp);
-                    log.info("原IP: {}", currentRecord != null ? currentRecord : "无历史记录");
-                    emailService.sendDNSUpdateNotification(true, fullDomain, currentRecord, currentIp, null);
-                } else {
-                    log.error("DNS记录更新失败:");
-                    log.error("域名: {}", fullDomain);
-                    log.error("目标IP: {}", currentIp);
-                    log.error("当前IP: {}", currentRecord);
-                    emailService.sendDNSUpdateNotification(false, fullDomain, currentRecord, currentIp, "DNS API调用失败");
+    }
+
+    @EventListener
+    public void onLocalAddressChanged(LocalAddressChangedEvent event) {
+        requestReconcile("网卡地址变化");
+    }
+
+    @EventListener
+    public void onLeadershipChanged(LeadershipChangedEvent event) {
+        if (event.isLeader()) {
+            // 待命期间其他节点可能已修改记录，本地状态和记录ID缓存都不再可信，全部重新查询服务商
+            stateStore.invalidateAll();
+            recordCache.invalidateAll();
+            // 接管后立即同步一次，不等下一次定时检查
+            requestReconcile("成为主节点");
+        }
+    }
+
+    /**
+     * 提供外部获知的公网IP，下一次同步该地址族时直接使用，不再查询IP服务
+     *
+     * @param family 地址族
+     * @param ip     公网IP
+     */
+    public void offerAddress(IPFamily family, String ip) {
+        offeredIps.put(family, ip);
+    }
+
+    /**
+     * 异步触发一次同步，不阻塞调用线程
+     *
+     * @param reason 触发原因
+     */
+    public void requestReconcile(String reason) {
+        executor.execute(() -> reconcileAll(reason));
+    }
+
+    /**
+     * 同步所有记录；已有同步在进行时只登记请求，由正在执行的线程在结束后补充执行一次
+     *
+     * @param reason 触发原因
+     */
+    public void reconcileAll(String reason) {
+        if (!leaderElection.isLeader()) {
+            log.debug("当前节点不是主节点，跳过同步，触发原因: {}", reason);
+            // 通知的IP只对本次同步有效，不留到成为主节点之后
+            offeredIps.clear();
+            return;
+        }
+        reconcileRequested.set(true);
+        while (reconcileRequested.get() && reconcileLock.tryLock()) {
+            try {
+                if (reconcileRequested.getAndSet(false)) {
+                    log.debug("开始同步DNS记录，触发原因: {}", reason);
+                    doReconcileAll();
                 }
-            } else {
-                log.info("IP地址未发生变化，无需更新");
+            } finally {
+                reconcileLock.unlock();
+            }
+        }
+    }
+
+    private void doReconcileAll() {
+        deferredChecks.set(0);
+        providerChecks.set(0);
+        ipChanged.set(false);
+        failed.set(false);
+        // 各地址族独立检测IP、检查并写入记录，互不等待对方的检测结果
+        List<Callable<Void>> families = new ArrayList<>(recordsByFamily.size());
+        recordsByFamily.forEach((family, familyRecords) -> families.add(() -> {
+            long start = System.nanoTime();
+            try {
+                reconcileFamily(family, familyRecords);
+            } finally {
+                metrics.recordReconcile(family, System.nanoTime() - start);
             }
-        } else {
-            log.error("无法获取当前公网IP地址");
+            return null;
+        }));
+        invokeAll(families);
+
+        // 有账号因限流推迟了部分记录时立即补充同步；本次没有任何进展时等下一次定时检查，避免空转
+        int deferred = deferredChecks.get();
+        if (deferred > 0 && providerChecks.get() > 0) {
+            log.info("{} 条记录因服务商限流推迟到补充同步", deferred);
+            reconcileRequested.set(true);
+        }
+        eventPublisher.publishEvent(new ReconcileCompletedEvent(this, ipChanged.get(), failed.get()));
+    }
+
+    /**
+     * 同步某一地址族的所有记录
+     *
+     * @param family        地址族
+     * @param familyRecords 该地址族的记录
+     */
+    private void reconcileFamily(IPFamily family, List<RecordConfig> familyRecords) {
+        String offeredIp = offeredIps.remove(family);
+        String currentIp = offeredIp != null ? offeredIp : detectPublicIP(family);
+        if (currentIp == null) {
+            log.error("无法获取当前公网{}地址", family.getDesc());
+            failed.set(true);
             emailService.sendDNSUpdateNotification(false,
-                    config.getSubDomain() + "." + config.getDomain(),
+                    familyRecords.stream().map(RecordConfig::getFullDomain).toList(),
                     "未知", "未知",
-                    "无法获取当前公网IP地址");
+                    "无法获取当前公网" + family.getDesc() + "地址");
+            return;
         }
+        log.info("当前公网{}: {}{}", family.getDesc(), currentIp, offeredIp != null ? "（来自推送通知）" : "");
+        IPAddress detected = IPAddress.parse(currentIp, family);
+        IPAddress previousIp = detected != null ? lastDetectedIps.put(family, detected) : null;
+        if (previousIp != null && !previousIp.equals(detected)) {
+            metrics.recordIpChange(family);
+            ipChanged.set(true);
+        }
+
+        // 第一阶段：并发检查各条记录，找出需要更新的记录
+        List<Callable<PendingUpdate>> checks = new ArrayList<>(familyRecords.size());
+        for (RecordConfig record : familyRecords) {
+            checks.add(() -> withAccountPermit(record, () -> check(record, currentIp)));
+        }
+        List<PendingUpdate> pending = invokeAll(checks).stream().filter(Objects::nonNull).toList();
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        // 第二阶段：按 服务商账号+主域名 分组写入，支持批量接口的服务商一次请求更新整组记录
+        Map<String, List<PendingUpdate>> groups = pending.stream().collect(Collectors.groupingBy(
+                update -> accountKey(update.record()) + "|" + update.record().getZone(),
+                LinkedHashMap::new, Collectors.toList()));
+        List<Callable<Void>> writes = new ArrayList<>(groups.size());
+        for (List<PendingUpdate> group : groups.values()) {
+            writes.add(() -> withAccountPermit(group.get(0).record(), () -> {
+                apply(group);
+                return null;
+            }));
+        }
+        invokeAll(writes);
+    }
+
+    /**
+     * 在虚拟线程上并发执行任务并等待全部完成，异常的任务结果为null
+     */
+    private <T> List<T> invokeAll(List<Callable<T>> tasks) {
+        List<T> results = new ArrayList<>(tasks.size());
+        try {
+            for (Future<T> future : executor.invokeAll(tasks)) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    log.error("同步DNS记录异常", e.getCause());
+                    results.add(null);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("DNS记录同步被中断");
+        }
+        return results;
+    }
+
+    private String detectPublicIP(IPFamily family) {
+        DDNSConfig.IpDetectionConfig ipDetection = config.getIpDetection();
+        if ("interface".equalsIgnoreCase(ipDetection.getSource())) {
+            String localIp = IPAddressUtil.getLocalPublicIP(family);
+            if (localIp != null) {
+                return localIp;
+            }
+            log.debug("本机网卡没有公网{}地址，改用外部服务查询", family.getDesc());
+        }
+        List<String> sources = family == IPFamily.IPV6 ? ipDetection.getIpv6Sources() : ipDetection.getIpv4Sources();
+        if (sources == null || sources.isEmpty()) {
+            sources = IPAddressUtil.defaultServices(family);
+        }
+        return ipDetection.isHedged()
+                ? IPAddressUtil.getPublicIPHedged(family, sources, ipDetection.getHedgeDelay())
+                : IPAddressUtil.getPublicIP(family, sources);
+    }
+
+    private static String accountKey(RecordConfig record) {
+        return record.getProvider() + "/" + record.getAccount();
+    }
+
+    /**
+     * 获取记录所属服务商账号的并发许可后执行任务
+     */
+    private <T> T withAccountPermit(RecordConfig record, Callable<T> task) throws Exception {
+        Semaphore permits = accountPermits.computeIfAbsent(accountKey(record),
+                key -> new Semaphore(Math.max(1, config.getMaxConcurrencyPerProvider())));
+        permits.acquire();
+        try {
+            return task.call();
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * 检查单条记录
+     *
+     * @return 需要更新时返回待更新记录，否则返回null
+     */
+    private PendingUpdate check(RecordConfig record, String currentIp) {
+        String fullDomain = record.getFullDomain();
+        if (stateStore.isUpToDate(record, currentIp)) {
+            log.debug("{} IP地址与上次同步一致，跳过查询", fullDomain);
+            return null;
+        }
+        if (propagationVerifier.isServing(record, currentIp)) {
+            log.info("{} 权威DNS已返回当前IP，跳过服务商查询", fullDomain);
+            stateStore.markVerified(record, currentIp, null);
+            return null;
+        }
+        if (!callExecutor.isCallPermitted(record.getProvider(), record.getAccount())) {
+            log.warn("{} 服务商 {} 熔断中，跳过本次检查", fullDomain, accountKey(record));
+            return null;
+        }
+        if (!callExecutor.hasCapacity(record.getProvider(), record.getAccount())) {
+            log.debug("{} 服务商 {} 限流排队已满，推迟到补充同步", fullDomain, accountKey(record));
+            deferredChecks.incrementAndGet();
+            return null;
+        }
+        providerChecks.incrementAndGet();
+
+        DDNSService ddnsService = ddnsFactory.getDDNSService(record.getProvider(), record.getAccount());
+        long start = System.nanoTime();
+        String currentRecord = ddnsService.getCurrentRecord(record.getZone(), record.getName(), record.getType());
+        metrics.recordProviderRequest(record.getProvider(), record.getAccount(), "getCurrentRecord",
+                System.nanoTime() - start);
+
+        log.info("检查DNS记录: {}, 当前DNS记录: {}", fullDomain, currentRecord != null ? currentRecord : "无记录");
+
+        if (IPAddressUtil.isSameAddress(currentIp, currentRecord)) {
+            log.info("{} IP地址未发生变化，无需更新", fullDomain);
+            stateStore.markVerified(record, currentIp,
+                    ddnsService.getCachedRecordId(record.getZone(), record.getName(), record.getType()));
+            return null;
+        }
+        log.info("{} IP地址发生变化，开始更新DNS记录...", fullDomain);
+        return new PendingUpdate(record, currentRecord,
+                new RecordUpdate(record.getZone(), record.getName(), record.getType(), currentIp, record.getTtl()));
+    }
+
+    /**
+     * 写入同一服务商账号、同一主域名下的一组记录
+     */
+    private void apply(List<PendingUpdate> group) {
+        RecordConfig first = group.get(0).record();
+        // 检查期间租约可能已过期，此时其他节点可能已接管，放弃写入
+        if (!leaderElection.isLeader()) {
+            log.warn("已不再是主节点，放弃写入 {} 条记录", group.size());
+            return;
+        }
+        DDNSService ddnsService = ddnsFactory.getDDNSService(first.getProvider(), first.getAccount());
+        // 写入前先落盘写入意图，进程在写入途中退出时重启后据此重新查询这些记录
+        for (PendingUpdate pending : group) {
+            stateStore.markIntent(pending.record(), pending.update().value(), pending.currentRecord());
+        }
+        stateStore.sync();
+        Map<RecordUpdate, Boolean> results;
+        String errorMsg = "DNS API调用失败";
+        long start = System.nanoTime();
+        try {
+            results = ddnsService.updateDNSRecords(group.stream().map(PendingUpdate::update).toList());
+        } catch (CircuitOpenException | CallInterruptedException e) {
+            results = Map.of();
+            errorMsg = e.getMessage();
+        } catch (RuntimeException e) {
+            // 服务商实现抛出的意外异常，本组没有结果的记录都按失败处理
+            results = Map.of();
+            errorMsg = "DNS API调用异常: " + e.getMessage();
+            log.error("{} 写入 {} 条记录时发生异常", accountKey(first), group.size(), e);
+        } finally {
+            metrics.recordProviderRequest(first.getProvider(), first.getAccount(), "updateDNSRecord",
+                    System.nanoTime() - start);
+        }
+        for (PendingUpdate pending : group) {
+            RecordConfig record = pending.record();
+            String fullDomain = record.getFullDomain();
+            String currentRecord = pending.currentRecord();
+            String currentIp = pending.update().value();
+            if (Boolean.TRUE.equals(results.get(pending.update()))) {
+                stateStore.markApplied(record, currentIp,
+                        ddnsService.getCachedRecordId(record.getZone(), record.getName(), record.getType()));
+                log.info("DNS记录更新成功: 域名: {}, 新IP: {}, 原IP: {}",
+                        fullDomain, currentIp, currentRecord != null ? currentRecord : "无历史记录");
+                emailService.sendDNSUpdateNotification(true, fullDomain, currentRecord, currentIp, null);
+                propagationVerifier.verifyAsync(record, currentIp);
+            } else {
+                stateStore.invalidate(record);
+                failed.set(true);
+                metrics.recordUpdateFailure(record.getProvider(), record.getAccount());
+                log.error("DNS记录更新失败: 域名: {}, 目标IP: {}, 当前IP: {}", fullDomain, currentIp, currentRecord);
+                emailService.sendDNSUpdateNotification(false, fullDomain, currentRecord, currentIp, errorMsg);
+            }
+        }
+    }
+
+    /**
+     * 检查后确认需要写入的记录
+     *
+     * @param record        记录配置
+     * @param currentRecord 服务商上的当前值
+     * @param update        待写入的内容
+     */
+    private record PendingUpdate(RecordConfig record, String currentRecord, RecordUpdate update) {
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
     }
-} 
\ No newline at end of file
+}
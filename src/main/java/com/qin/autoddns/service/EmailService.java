@@ -1,32 +1,71 @@
 package com.qin.autoddns.service;
 
 import com.qin.autoddns.config.EmailConfig;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
 /**
  * 邮件服务
+ * 通知先放入有界队列，由后台线程按汇总窗口合并为一封邮件发送，调用方不会因SMTP缓慢而阻塞。
+ * 同一域名的相同失败告警在抑制时间内只发送一次，该域名更新成功后重新计算；
+ * 涉及多个域名的告警按各域名分别计算，其中任一域名未被抑制时发送
  *
  * @author qinshijiao
  * @since 2024/03/21
  */
 @Service
 public class EmailService {
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    // 关闭时等待剩余通知发送完成的时间（毫秒）
+    private static final long SHUTDOWN_TIMEOUT = 10000;
+
     private final Logger log = LoggerFactory.getLogger(EmailService.class);
 
     private final EmailConfig emailConfig;
     private final JavaMailSender mailSender;
+    private final BlockingQueue<Notification> queue;
+    // 失败告警最近一次入队时间，按域名和错误信息区分
+    private final Map<AlertKey, Long> lastAlerts = new ConcurrentHashMap<>();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong suppressed = new AtomicLong();
+    // 上一封邮件发出后被抑制的告警数，在下一封邮件中说明
+    private final AtomicLong pendingSuppressed = new AtomicLong();
+    // 发送邮件期间持有，关闭时不中断正在进行的发送
+    private final Lock sendLock = new ReentrantLock();
+    private final Thread worker;
+    private volatile boolean running = true;
 
     public EmailService(EmailConfig emailConfig, JavaMailSender mailSender) {
         this.emailConfig = emailConfig;
         this.mailSender = mailSender;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, emailConfig.getQueueCapacity()));
+        this.worker = emailConfig.isEnabled()
+                ? Thread.ofVirtual().name("email-notifier").start(this::processQueue)
+                : null;
     }
 
     /**
-     * 发送DNS更新结果通知
+     * 发送DNS更新结果通知，仅入队，不等待发送完成
      *
      * @param success  是否成功
      * @param domain   域名
@@ -35,45 +74,231 @@ public class EmailService {
      * @param errorMsg 错误信息（如果有）
      */
     public void sendDNSUpdateNotification(boolean success, String domain, String oldIp, String newIp, String errorMsg) {
+        sendDNSUpdateNotification(success, List.of(domain), oldIp, newIp, errorMsg);
+    }
+
+    /**
+     * 发送涉及多个域名的通知（如无法获取公网IP时该地址族的所有记录），仅入队，不等待发送完成
+     *
+     * @param success  是否成功
+     * @param domains  域名列表
+     * @param oldIp    原IP
+     * @param newIp    新IP
+     * @param errorMsg 错误信息（如果有）
+     */
+    public void sendDNSUpdateNotification(boolean success, List<String> domains, String oldIp, String newIp,
+                                          String errorMsg) {
         if (!emailConfig.isEnabled()) {
             return;
         }
 
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(emailConfig.getFrom());
-            message.setTo(emailConfig.getTo());
-
-            if (success) {
-                message.setSubject("DDNS更新成功通知 - " + domain);
-                message.setText(String.format("""
-                        DDNS记录更新成功！
-                        
-                        域名: %s
-                        原IP: %s
-                        新IP: %s
-                        
-                        此邮件为自动发送，请勿回复。
-                        """, domain, oldIp, newIp));
-            } else {
-                message.setSubject("DDNS更新失败警告 - " + domain);
-                message.setText(String.format("""
-                        DDNS记录更新失败！
-                        
-                        域名: %s
-                        当前IP: %s
-                        目标IP: %s
-                        错误信息: %s
-                        
-                        请检查系统日志获取详细信息。
-                        此邮件为自动发送，请勿回复。
-                        """, domain, oldIp, newIp, errorMsg));
+        long now = System.currentTimeMillis();
+        String domain = String.join(", ", domains);
+        if (success) {
+            // 记录已恢复，之后再失败时重新告警
+            lastAlerts.keySet().removeIf(key -> domains.contains(key.domain()));
+        } else if (isDuplicateAlert(domains, errorMsg, now)) {
+            suppressed.incrementAndGet();
+            pendingSuppressed.incrementAndGet();
+            log.debug("相同的失败告警已在抑制时间内发送过，跳过: {}", domain);
+            return;
+        }
+
+        if (!queue.offer(new Notification(success, domain, oldIp, newIp, errorMsg, now))) {
+            dropped.incrementAndGet();
+            log.warn("通知队列已满，丢弃通知: {}", domain);
+        }
+    }
+
+    /**
+     * 各域名的相同告警都在抑制时间内发送过时视为重复；否则刷新未被抑制的域名的告警时间
+     */
+    private boolean isDuplicateAlert(List<String> domains, String errorMsg, long now) {
+        long interval = emailConfig.getDuplicateSuppressInterval();
+        if (interval <= 0) {
+            return false;
+        }
+        boolean duplicate = true;
+        for (String domain : domains) {
+            boolean[] armed = new boolean[1];
+            lastAlerts.compute(new AlertKey(domain, errorMsg), (k, last) -> {
+                if (last != null && now - last < interval) {
+                    return last;
+                }
+                armed[0] = true;
+                return now;
+            });
+            duplicate &= !armed[0];
+        }
+        return duplicate;
+    }
+
+    /**
+     * 后台线程：取到第一条通知后等待汇总窗口结束，将窗口内的通知合并为一封邮件发送
+     */
+    private void processQueue() {
+        while (running || !queue.isEmpty()) {
+            List<Notification> batch = new ArrayList<>();
+            try {
+                Notification first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.currentTimeMillis() + emailConfig.getDigestWindow();
+                long remaining;
+                while (running && (remaining = deadline - System.currentTimeMillis()) > 0) {
+                    Notification next = queue.poll(remaining, TimeUnit.MILLISECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                    }
+                }
+            } catch (InterruptedException e) {
+                // 关闭时中断等待，发送已取出的通知后退出
+                running = false;
+            }
+            queue.drainTo(batch);
+            if (!batch.isEmpty()) {
+                send(batch);
             }
+        }
+    }
 
+    private void send(List<Notification> batch) {
+        long suppressedCount = pendingSuppressed.getAndSet(0);
+        sendLock.lock();
+        try {
+            // 关闭时只在未发送期间中断，此前留下的中断标记不能影响本次发送
+            Thread.interrupted();
+            SimpleMailMessage message = batch.size() == 1
+                    ? buildMessage(batch.get(0), suppressedCount) : buildDigest(batch, suppressedCount);
             mailSender.send(message);
-            log.info("发送{}通知邮件成功", success ? "成功" : "失败");
+            log.info("发送通知邮件成功，共{}条通知", batch.size());
         } catch (Exception e) {
-            log.error("发送通知邮件失败", e);
+            // 抑制数留到下一封邮件中说明
+            pendingSuppressed.addAndGet(suppressedCount);
+            log.error("发送通知邮件失败，丢弃{}条通知", batch.size(), e);
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    private SimpleMailMessage buildMessage(Notification notification, long suppressedCount) {
+        SimpleMailMessage message = newMessage();
+        if (notification.success()) {
+            message.setSubject("DDNS更新成功通知 - " + notification.domain());
+            message.setText(String.format("""
+                    DDNS记录更新成功！
+
+                    域名: %s
+                    原IP: %s
+                    新IP: %s
+                    %s
+                    此邮件为自动发送，请勿回复。
+                    """, notification.domain(), notification.oldIp(), notification.newIp(),
+                    suppressedNote(suppressedCount)));
+        } else {
+            message.setSubject("DDNS更新失败警告 - " + notification.domain());
+            message.setText(String.format("""
+                    DDNS记录更新失败！
+
+                    域名: %s
+                    当前IP: %s
+                    目标IP: %s
+                    错误信息: %s
+                    %s
+                    请检查系统日志获取详细信息。
+                    此邮件为自动发送，请勿回复。
+                    """, notification.domain(), notification.oldIp(), notification.newIp(),
+                    notification.errorMsg(), suppressedNote(suppressedCount)));
+        }
+        return message;
+    }
+
+    private SimpleMailMessage buildDigest(List<Notification> batch, long suppressedCount) {
+        long failures = batch.stream().filter(notification -> !notification.success()).count();
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("最近共有%d条DDNS通知，其中失败%d条：%n%n", batch.size(), failures));
+        for (Notification notification : batch) {
+            String time = LocalDateTime.ofInstant(Instant.ofEpochMilli(notification.timestamp()),
+                    ZoneId.systemDefault()).format(TIME_FORMATTER);
+            if (notification.success()) {
+                text.append(String.format("[%s] 更新成功 %s: %s -> %s%n", time,
+                        notification.domain(), notification.oldIp(), notification.newIp()));
+            } else {
+                text.append(String.format("[%s] 更新失败 %s: 当前IP %s, 目标IP %s, 错误信息: %s%n", time,
+                        notification.domain(), notification.oldIp(), notification.newIp(),
+                        Objects.toString(notification.errorMsg(), "无")));
+            }
+        }
+        text.append(String.format("%n%s%n此邮件为自动发送，请勿回复。%n", suppressedNote(suppressedCount)));
+
+        SimpleMailMessage message = newMessage();
+        message.setSubject(failures > 0
+                ? String.format("DDNS通知汇总 - %d条（失败%d条）", batch.size(), failures)
+                : String.format("DDNS通知汇总 - %d条", batch.size()));
+        message.setText(text.toString());
+        return message;
+    }
+
+    /**
+     * 上一封邮件发出后被抑制的告警数说明，没有时为空行
+     */
+    private static String suppressedNote(long suppressedCount) {
+        return suppressedCount > 0 ? String.format("%n另有%d条重复的失败告警已被抑制。%n", suppressedCount) : "";
+    }
+
+    private SimpleMailMessage newMessage() {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(emailConfig.getFrom());
+        message.setTo(emailConfig.getTo());
+        return message;
+    }
+
+    /**
+     * 获取通知队列统计
+     *
+     * @return 队列长度、丢弃数和抑制数
+     */
+    public Map<String, Object> stats() {
+        return Map.of(
+                "queued", queue.size(),
+                "dropped", dropped.get(),
+                "suppressed", suppressed.get());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (worker == null) {
+            return;
+        }
+        running = false;
+        try {
+            // 正在发送的邮件不中断，发送结束后再中断汇总窗口内的等待；超时仍未结束时不再等待
+            boolean idle = sendLock.tryLock(SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS);
+            try {
+                worker.interrupt();
+            } finally {
+                if (idle) {
+                    sendLock.unlock();
+                }
+            }
+            worker.join(SHUTDOWN_TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * 待发送的通知
+     */
+    private record Notification(boolean success, String domain, String oldIp, String newIp, String errorMsg,
+                                long timestamp) {
+    }
+
+    /**
+     * 失败告警的抑制键
+     */
+    private record AlertKey(String domain, String errorMsg) {
+    }
+}
@@ -0,0 +1,53 @@
+package com.qin.autoddns.service;
+
+import com.qin.autoddns.config.DDNSConfig;
+import com.qin.autoddns.enums.IPFamily;
+import com.qin.autoddns.event.LocalAddressChangedEvent;
+import com.qin.autoddns.util.IPAddressUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * 网卡地址监听
+ * 定期枚举本机网卡地址并与上一次结果比较，地址变化时发布 {@link LocalAddressChangedEvent}，
+ * 使DNS记录在地址变化后立即同步，而不必等待下一次定时检查。
+ * 只比较已配置记录的地址族中的公网地址，容器网卡、内网地址和IPv6临时地址的变化不会触发同步
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+@Component
+public class InterfaceAddressWatcher {
+    private final Logger log = LoggerFactory.getLogger(InterfaceAddressWatcher.class);
+    private final DDNSConfig.IpDetectionConfig ipDetection;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Set<IPFamily> families = EnumSet.noneOf(IPFamily.class);
+    private volatile Set<String> lastAddresses;
+
+    public InterfaceAddressWatcher(DDNSConfig config, ApplicationEventPublisher eventPublisher) {
+        this.ipDetection = config.getIpDetection();
+        this.eventPublisher = eventPublisher;
+        config.resolveRecords().forEach(record -> families.add(IPFamily.fromRecordType(record.getType())));
+    }
+
+    @Scheduled(fixedDelayString = "${ddns.ip-detection.interface-watch-interval:1000}")
+    public void checkInterfaces() {
+        if (!ipDetection.isInterfaceWatch() || families.isEmpty()) {
+            return;
+        }
+        Set<String> current = IPAddressUtil.getLocalAddresses(families);
+        Set<String> previous = lastAddresses;
+        lastAddresses = current;
+        if (previous == null || previous.equals(current)) {
+            return;
+        }
+        log.info("检测到网卡地址变化: {} -> {}", previous, current);
+        eventPublisher.publishEvent(new LocalAddressChangedEvent(this, previous, current));
+    }
+}
@@ -0,0 +1,325 @@
+package com.qin.autoddns.service;
+
+import com.qin.autoddns.config.DDNSConfig;
+import com.qin.autoddns.config.DDNSConfig.RecordConfig;
+import com.qin.autoddns.dns.DnsClient;
+import com.qin.autoddns.dns.DnsException;
+import com.qin.autoddns.dns.DnsMessage;
+import com.qin.autoddns.dns.DnsResponse;
+import com.qin.autoddns.enums.DNSProvider;
+import com.qin.autoddns.metrics.DDNSMetrics;
+import com.qin.autoddns.state.RecordStateStore;
+import com.qin.autoddns.util.IPAddressUtil;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 记录生效验证
+ * 直接向域名的权威DNS服务器查询记录（不请求递归，不经过任何缓存），所有查询共用一个 {@link DnsClient}：
+ * <ul>
+ *     <li>更新成功后在虚拟线程上轮询尚未返回新IP的权威服务器，全部返回新IP即视为生效，记录生效耗时；</li>
+ *     <li>检查记录时先查询权威服务器，全部已返回当前IP则说明记录无需更新，不再调用服务商API。</li>
+ * </ul>
+ * 权威服务器默认通过 bootstrap-resolvers 查询主域名的NS记录得到，结果缓存1小时。
+ * 开启Cloudflare代理的记录对外返回的是Cloudflare的地址，不做验证
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+@Service
+public class PropagationVerifier {
+    private final Logger log = LoggerFactory.getLogger(PropagationVerifier.class);
+    // 权威服务器列表的缓存时间
+    private static final long NAMESERVER_TTL = TimeUnit.HOURS.toMillis(1);
+
+    private final DDNSConfig config;
+    private final DDNSConfig.PropagationConfig propagation;
+    private final DDNSMetrics metrics;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    // 各主域名的权威服务器，key为主域名
+    private final Map<String, Nameservers> nameservers = new ConcurrentHashMap<>();
+    // 各记录正在等待生效的IP，记录再次更新后旧的验证任务据此退出
+    private final Map<String, String> expectedIps = new ConcurrentHashMap<>();
+    // 各记录最近一次验证结果
+    private final Map<String, Result> results = new ConcurrentHashMap<>();
+    private final AtomicLong readPathHits = new AtomicLong();
+    private final AtomicLong readPathMisses = new AtomicLong();
+    private DnsClient client; // 首次使用时创建，由 this 保护
+
+    public PropagationVerifier(DDNSConfig config, DDNSMetrics metrics) {
+        this.config = config;
+        this.propagation = config.getPropagation();
+        this.metrics = metrics;
+        if (propagation.isEnabled()) {
+            log.info("生效验证已启用，检查时{}查询权威DNS", propagation.isReadPath() ? "先" : "不");
+        }
+    }
+
+    /**
+     * 权威DNS是否都已返回当前IP
+     *
+     * @param record    记录配置
+     * @param currentIp 当前公网IP
+     * @return 所有权威服务器都权威应答且只返回当前IP时为true；未启用、查询失败或任一服务器不一致时为false
+     */
+    public boolean isServing(RecordConfig record, String currentIp) {
+        if (!propagation.isEnabled() || !propagation.isReadPath() || isProxied(record)) {
+            return false;
+        }
+        boolean hit;
+        try {
+            List<InetSocketAddress> servers = resolveNameservers(record.getZone());
+            hit = pendingServers(record, currentIp, servers).isEmpty();
+        } catch (IOException e) {
+            log.debug("{} 查询权威DNS失败: {}", record.getFullDomain(), e.getMessage());
+            hit = false;
+        }
+        (hit ? readPathHits : readPathMisses).incrementAndGet();
+        metrics.recordPropagationReadPath(hit);
+        return hit;
+    }
+
+    /**
+     * 在后台等待更新后的记录在所有权威DNS生效，立即返回
+     *
+     * @param record     记录配置
+     * @param expectedIp 新写入的IP
+     */
+    public void verifyAsync(RecordConfig record, String expectedIp) {
+        if (!propagation.isEnabled() || isProxied(record)) {
+            return;
+        }
+        String key = RecordStateStore.key(record);
+        expectedIps.put(key, expectedIp);
+        executor.execute(() -> verify(record, expectedIp, key));
+    }
+
+    private void verify(RecordConfig record, String expectedIp, String key) {
+        String fullDomain = record.getFullDomain();
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(propagation.getMaxWait());
+        try {
+            List<InetSocketAddress> pending = resolveNameservers(record.getZone());
+            while (true) {
+                if (!expectedIp.equals(expectedIps.get(key))) {
+                    log.debug("{} 已再次更新，停止等待 {} 生效", fullDomain, expectedIp);
+                    return;
+                }
+                // 只重新查询上一轮还未返回新IP的服务器
+                pending = pendingServers(record, expectedIp, pending);
+                long elapsed = System.nanoTime() - start;
+                if (pending.isEmpty()) {
+                    log.info("{} 已在所有权威DNS生效，耗时 {} 毫秒", fullDomain, TimeUnit.NANOSECONDS.toMillis(elapsed));
+                    finish(record, key, expectedIp, true, elapsed);
+                    return;
+                }
+                if (System.nanoTime() - deadline >= 0) {
+                    log.warn("{} 等待 {} 毫秒后仍有权威DNS未返回新IP {}: {}",
+                            fullDomain, propagation.getMaxWait(), expectedIp, pending);
+                    finish(record, key, expectedIp, false, elapsed);
+                    return;
+                }
+                Thread.sleep(propagation.getPollInterval());
+            }
+        } catch (IOException e) {
+            log.warn("{} 生效验证失败: {}", fullDomain, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            expectedIps.remove(key, expectedIp);
+        }
+    }
+
+    private void finish(RecordConfig record, String key, String ip, boolean propagated, long nanos) {
+        metrics.recordPropagation(record.getProvider(), record.getAccount(), propagated, nanos);
+        results.put(key, new Result(ip, propagated, TimeUnit.NANOSECONDS.toMillis(nanos), Instant.now()));
+    }
+
+    /**
+     * 同时向所有服务器查询记录，返回应答与期望IP不一致的服务器
+     */
+    private List<InetSocketAddress> pendingServers(RecordConfig record, String expectedIp,
+                                                   List<InetSocketAddress> servers) throws IOException {
+        String name = queryName(record);
+        int type = DnsMessage.queryType(record.getType());
+        DnsClient dnsClient = client();
+        Map<InetSocketAddress, CompletableFuture<DnsResponse>> queries = new LinkedHashMap<>();
+        for (InetSocketAddress server : servers) {
+            queries.put(server, dnsClient.query(server, name, type, false));
+        }
+        List<InetSocketAddress> pending = new ArrayList<>();
+        queries.forEach((server, query) -> {
+            if (!matches(query, name, type, expectedIp)) {
+                pending.add(server);
+            }
+        });
+        return pending;
+    }
+
+    private boolean matches(CompletableFuture<DnsResponse> query, String name, int type, String expectedIp) {
+        DnsResponse response;
+        try {
+            response = query.join();
+        } catch (CompletionException e) {
+            log.debug("查询权威DNS失败: {}", e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+            return false;
+        }
+        // 非权威应答可能来自缓存，不能说明记录已生效
+        if (!response.authoritative() || response.rcode() != DnsResponse.RCODE_NOERROR) {
+            return false;
+        }
+        List<String> values = response.values(name, type);
+        return !values.isEmpty() && values.stream().allMatch(value -> IPAddressUtil.isSameAddress(expectedIp, value));
+    }
+
+    private static String queryName(RecordConfig record) {
+        return "@".equals(record.getName()) ? record.getZone() : record.getFullDomain();
+    }
+
+    private boolean isProxied(RecordConfig record) {
+        return DNSProvider.CLOUDFLARE.getCode().equalsIgnoreCase(record.getProvider())
+                && config.forAccount(record.getAccount()).isProxied();
+    }
+
+    /**
+     * 获取主域名的权威服务器地址，优先使用配置，否则查询NS记录
+     */
+    private List<InetSocketAddress> resolveNameservers(String zone) throws IOException {
+        Nameservers cached = nameservers.get(zone);
+        if (cached != null && System.currentTimeMillis() < cached.expiresAt()) {
+            return cached.addresses();
+        }
+        List<String> hosts = propagation.getNameservers().get(zone);
+        if (hosts == null || hosts.isEmpty()) {
+            hosts = lookupNameservers(zone);
+        }
+        List<InetSocketAddress> addresses = new ArrayList<>(hosts.size());
+        for (String host : hosts) {
+            try {
+                addresses.add(new InetSocketAddress(preferIpv4(InetAddress.getAllByName(host)), DnsClient.DNS_PORT));
+            } catch (UnknownHostException e) {
+                log.warn("无法解析权威DNS服务器 {}: {}", host, e.getMessage());
+            }
+        }
+        if (addresses.isEmpty()) {
+            throw new DnsException("没有可用的权威DNS服务器: " + zone);
+        }
+        log.info("{} 的权威DNS服务器: {}", zone, addresses);
+        nameservers.put(zone, new Nameservers(List.copyOf(addresses), System.currentTimeMillis() + NAMESERVER_TTL));
+        return addresses;
+    }
+
+    /**
+     * 通过递归DNS查询主域名的NS记录，依次尝试各递归DNS
+     */
+    private List<String> lookupNameservers(String zone) throws IOException {
+        DnsClient dnsClient = client();
+        for (String resolver : propagation.getBootstrapResolvers()) {
+            try {
+                DnsResponse response = dnsClient.query(new InetSocketAddress(resolver, DnsClient.DNS_PORT),
+                        zone, DnsMessage.TYPE_NS, true).join();
+                List<String> hosts = response.values(zone, DnsMessage.TYPE_NS);
+                if (!hosts.isEmpty()) {
+                    return hosts;
+                }
+            } catch (CompletionException e) {
+                log.debug("通过 {} 查询 {} 的NS记录失败: {}", resolver, zone, e.getCause().getMessage());
+            }
+        }
+        throw new DnsException("无法查询 " + zone + " 的NS记录");
+    }
+
+    private static InetAddress preferIpv4(InetAddress[] addresses) {
+        for (InetAddress address : addresses) {
+            if (address instanceof Inet4Address) {
+                return address;
+            }
+        }
+        return addresses[0];
+    }
+
+    private synchronized DnsClient client() throws IOException {
+        if (client == null) {
+            client = new DnsClient(propagation.getTimeout(), propagation.getAttempts());
+        }
+        return client;
+    }
+
+    /**
+     * 生效验证统计
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", propagation.isEnabled());
+        stats.put("readPath", propagation.isReadPath());
+        stats.put("readPathHits", readPathHits.get());
+        stats.put("readPathMisses", readPathMisses.get());
+        stats.put("verifying", List.copyOf(expectedIps.keySet()));
+        Map<String, Object> nameserverStats = new LinkedHashMap<>();
+        nameservers.forEach((zone, servers) -> nameserverStats.put(zone, servers.addresses().toString()));
+        stats.put("nameservers", nameserverStats);
+        Map<String, Object> recordStats = new LinkedHashMap<>();
+        results.forEach((key, result) -> {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("ip", result.ip());
+            item.put("outcome", result.propagated() ? "propagated" : "timeout");
+            item.put("millis", result.millis());
+            item.put("at", result.at().toString());
+            recordStats.put(key, item);
+        });
+        stats.put("records", recordStats);
+        return stats;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        executor.shutdownNow();
+        if (client != null) {
+            try {
+                client.close();
+            } catch (IOException e) {
+                log.debug("关闭DNS客户端失败: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 主域名的权威服务器地址
+     *
+     * @param addresses 服务器地址
+     * @param expiresAt 缓存到期时间（毫秒）
+     */
+    private record Nameservers(List<InetSocketAddress> addresses, long expiresAt) {
+    }
+
+    /**
+     * 一次生效验证的结果
+     *
+     * @param ip         写入的IP
+     * @param propagated 是否在 max-wait 内生效
+     * @param millis     从更新成功到生效（或放弃等待）的时间
+     * @param at         验证结束时间
+     */
+    private record Result(String ip, boolean propagated, long millis, Instant at) {
+    }
+}
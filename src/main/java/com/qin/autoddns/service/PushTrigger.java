@@ -0,0 +1,143 @@
+package com.qin.autoddns.service;
+
+import com.qin.autoddns.config.DDNSConfig;
+import com.qin.autoddns.enums.IPFamily;
+import com.qin.autoddns.util.IPAddress;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * 推送通知触发的同步
+ * 外部系统在公网IP变化时发来通知，短时间内的多次通知合并为一次同步：
+ * 每次通知把同步推迟到 debounce 之后，但距本批第一次通知不超过 max-delay。
+ * 通知中带有IP且 trust-address 开启时，该IP直接作为同步使用的公网IP，省去IP查询
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+@Component
+public class PushTrigger {
+    private final Logger log = LoggerFactory.getLogger(PushTrigger.class);
+    private final DDNSUpdateService updateService;
+    private final TaskScheduler taskScheduler;
+    private final DDNSConfig.TriggerConfig trigger;
+    private final byte[] token;
+    // 以下字段由 this 保护
+    private final Map<IPFamily, String> addresses = new EnumMap<>(IPFamily.class);
+    private ScheduledFuture<?> pending;
+    private Instant pendingAt;
+    private long firstAt; // 本批第一次通知的时间（毫秒）
+    private int batched; // 本批合并的通知数
+    private long generation; // 每次重新安排加一，过期的任务不再执行
+    private long received;
+    private long triggered;
+    private Instant lastTriggered;
+
+    public PushTrigger(DDNSConfig config, DDNSUpdateService updateService, TaskScheduler taskScheduler) {
+        this.updateService = updateService;
+        this.taskScheduler = taskScheduler;
+        this.trigger = config.getTrigger();
+        this.token = StringUtils.hasText(trigger.getToken()) ? trigger.getToken().getBytes(StandardCharsets.UTF_8) : null;
+        if (trigger.isEnabled()) {
+            if (token == null) {
+                log.warn("推送通知接口已启用但未配置 trigger.token，将拒绝所有请求");
+            } else {
+                log.info("推送通知接口已启用，合并窗口: {} 毫秒，最长等待: {} 毫秒", trigger.getDebounce(), trigger.getMaxDelay());
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return trigger.isEnabled();
+    }
+
+    /**
+     * 校验访问令牌，比较耗时与令牌内容无关
+     */
+    public boolean isAuthorized(String presented) {
+        return token != null && presented != null
+                && MessageDigest.isEqual(token, presented.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 登记一次通知，安排或推迟同步
+     *
+     * @param address 通知中的公网IP，可为null
+     * @return 预计执行同步的时间
+     */
+    public synchronized Instant submit(IPAddress address) {
+        long now = System.currentTimeMillis();
+        received++;
+        if (address != null) {
+            addresses.put(address.family(), address.toString());
+        }
+        if (pending == null) {
+            firstAt = now;
+            batched = 0;
+        } else {
+            pending.cancel(false);
+        }
+        batched++;
+        long current = ++generation;
+        pendingAt = Instant.ofEpochMilli(Math.min(now + Math.max(0, trigger.getDebounce()),
+                firstAt + Math.max(0, trigger.getMaxDelay())));
+        pending = taskScheduler.schedule(() -> fire(current), pendingAt);
+        log.debug("收到推送通知{}，本批第 {} 次，将于 {} 同步", address != null ? "（" + address + "）" : "", batched, pendingAt);
+        return pendingAt;
+    }
+
+    private void fire(long scheduledGeneration) {
+        int count;
+        Map<IPFamily, String> offered = new EnumMap<>(IPFamily.class);
+        synchronized (this) {
+            // 执行前又收到通知时，由重新安排的任务执行
+            if (generation != scheduledGeneration) {
+                return;
+            }
+            count = batched;
+            offered.putAll(addresses);
+            addresses.clear();
+            pending = null;
+            pendingAt = null;
+            triggered++;
+            lastTriggered = Instant.now();
+        }
+        if (trigger.isTrustAddress()) {
+            offered.forEach(updateService::offerAddress);
+        }
+        log.info("推送通知触发同步，合并 {} 次通知{}", count, offered.isEmpty() ? "" : "，通知的IP: " + offered.values());
+        updateService.requestReconcile("推送通知");
+    }
+
+    /**
+     * 收到的通知数、实际触发的同步次数和待执行的同步
+     */
+    public synchronized Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("enabled", trigger.isEnabled());
+        snapshot.put("received", received);
+        snapshot.put("triggered", triggered);
+        snapshot.put("pendingAt", pendingAt != null ? pendingAt.toString() : null);
+        snapshot.put("lastTriggered", lastTriggered != null ? lastTriggered.toString() : null);
+        return snapshot;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (pending != null) {
+            pending.cancel(false);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.qin.autoddns.service;
+
+/**
+ * 一条待写入的DNS记录
+ *
+ * @param domain     域名
+ * @param subDomain  子域名
+ * @param recordType 记录类型(A, AAAA等)
+ * @param value      记录值
+ * @param ttl        TTL（秒），为null时使用服务商默认值
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+public record RecordUpdate(String domain, String subDomain, String recordType, String value, Long ttl) {
+}
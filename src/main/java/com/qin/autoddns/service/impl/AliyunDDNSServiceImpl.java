@@ -1,23 +1,31 @@
 package com.qin.autoddns.service.impl;
 
+import com.aliyuncs.AcsRequest;
 import com.aliyuncs.DefaultAcsClient;
 import com.aliyuncs.IAcsClient;
 import com.aliyuncs.alidns.model.v20150109.DescribeDomainsRequest;
 import com.aliyuncs.alidns.model.v20150109.DescribeDomainsResponse;
-import com.aliyuncs.alidns.model.v20150109.DescribeDomainRecordsRequest;
-import com.aliyuncs.alidns.model.v20150109.DescribeDomainRecordsResponse;
+import com.aliyuncs.alidns.model.v20150109.DescribeSubDomainRecordsRequest;
+import com.aliyuncs.alidns.model.v20150109.DescribeSubDomainRecordsResponse;
 import com.aliyuncs.alidns.model.v20150109.UpdateDomainRecordRequest;
 import com.aliyuncs.alidns.model.v20150109.UpdateDomainRecordResponse;
 import com.aliyuncs.alidns.model.v20150109.AddDomainRecordRequest;
 import com.aliyuncs.alidns.model.v20150109.AddDomainRecordResponse;
 import com.aliyuncs.exceptions.ClientException;
+import com.aliyuncs.http.HttpClientConfig;
+import com.aliyuncs.http.ProtocolType;
 import com.aliyuncs.profile.DefaultProfile;
+import com.qin.autoddns.cache.RecordCache;
+import com.qin.autoddns.cache.RecordKey;
 import com.qin.autoddns.config.DDNSConfig;
+import com.qin.autoddns.enums.DNSProvider;
+import com.qin.autoddns.resilience.ProviderCallExecutor;
 import com.qin.autoddns.service.DDNSService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.core.env.Environment;
-import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.util.Set;
 
 /**
  * 阿里云DNS服务实现
@@ -25,43 +33,61 @@ import org.springframework.stereotype.Service;
  * @author qinshijiao
  * @since 2024/03/21
  */
-@Service
 public class AliyunDDNSServiceImpl implements DDNSService {
 
+    private static final String PROVIDER = DNSProvider.ALIYUN.getCode();
+    private static final long DEFAULT_TTL = 600L; // 默认TTL 600秒
+    private static final String DEFAULT_REGION = "cn-hangzhou";
+    private static final String DEFAULT_LINE = "default";
+    private static final long PAGE_SIZE = 100L;
+    // 更新的值与现有记录相同时返回的错误码
+    private static final String ERROR_RECORD_DUPLICATE = "DomainRecordDuplicate";
+    // 记录ID失效时可能返回的错误码
+    private static final Set<String> RECORD_MISSING_ERRORS = Set.of(
+            "DomainRecordNotBelongToUser",
+            "InvalidRR.NoExist");
+
     private final Logger log = LoggerFactory.getLogger(AliyunDDNSServiceImpl.class);
     private IAcsClient client;
     private final DDNSConfig config;
-    private final Environment environment;
+    private final RecordCache recordCache;
+    private final ProviderCallExecutor callExecutor;
+    // 所属账号，用于区分限流、熔断和指标
+    private final String account;
+    // 自定义接入地址（不含协议），为null时使用SDK按地域解析的默认地址
+    private final String endpoint;
 
-    public AliyunDDNSServiceImpl(DDNSConfig config, Environment environment) {
+    public AliyunDDNSServiceImpl(DDNSConfig config, RecordCache recordCache, ProviderCallExecutor callExecutor) {
         this.config = config;
-        this.environment = environment;
-
-        // 检查是否激活了阿里云配置
-        String[] activeProfiles = environment.getActiveProfiles();
-        boolean isAliyunProfileActive = activeProfiles.length == 0 ||
-                environment.getProperty("ddns.provider", String.class, "").equals("aliyun");
-
-        if (isAliyunProfileActive) {
-            try {
-                // 验证配置
-                validateConfig();
-
-                // 初始化客户端
-                DefaultProfile profile = DefaultProfile.getProfile("cn-hangzhou", 
-                    config.getAccessKey(), config.getSecretKey());
-                this.client = new DefaultAcsClient(profile);
-
-                // 测试连接
-                testConnection();
-
-                log.info("阿里云DNS服务初始化成功");
-            } catch (Exception e) {
-                log.error("阿里云DNS服务初始化失败: {}", e.getMessage());
-                throw new RuntimeException("DNS服务初始化失败", e);
+        this.recordCache = recordCache;
+        this.callExecutor = callExecutor;
+        this.account = config.getAccount();
+        String configuredEndpoint = config.getProviderEndpoint(PROVIDER);
+        this.endpoint = configuredEndpoint != null ? configuredEndpoint.replaceFirst("^https?://", "") : null;
+
+        try {
+            // 验证配置
+            validateConfig();
+
+            // 初始化客户端
+            String region = StringUtils.hasText(config.getRegion()) ? config.getRegion() : DEFAULT_REGION;
+            DefaultProfile profile = DefaultProfile.getProfile(region,
+                config.getAccessKey(), config.getSecretKey());
+            HttpClientConfig httpClientConfig = HttpClientConfig.getDefault();
+            // 带 http:// 前缀时使用明文HTTP，用于本地模拟服务
+            if (configuredEndpoint != null && configuredEndpoint.startsWith("http://")) {
+                httpClientConfig.setProtocolType(ProtocolType.HTTP);
             }
-        } else {
-            log.info("阿里云DNS服务未激活，跳过初始化");
+            httpClientConfig.setConnectionTimeoutMillis(config.getHttp().getConnectTimeout());
+            httpClientConfig.setReadTimeoutMillis(config.getHttp().getReadTimeout());
+            profile.setHttpClientConfig(httpClientConfig);
+            this.client = new DefaultAcsClient(profile);
+
+            log.info("阿里云DNS服务初始化成功, region: {}, endpoint: {}", region,
+                    configuredEndpoint != null ? configuredEndpoint : "默认");
+        } catch (Exception e) {
+            log.error("阿里云DNS服务初始化失败: {}", e.getMessage());
+            throw new RuntimeException("DNS服务初始化失败", e);
         }
     }
 
@@ -84,11 +110,12 @@ public class AliyunDDNSServiceImpl implements DDNSService {
         return accessKey.substring(0, 4) + "***" + accessKey.substring(accessKey.length() - 4);
     }
 
-    private void testConnection() {
+    @Override
+    public void testConnection() {
         try {
-            DescribeDomainsRequest request = new DescribeDomainsRequest();
+            DescribeDomainsRequest request = withEndpoint(new DescribeDomainsRequest());
             request.setPageSize(1);
-            client.getAcsResponse(request);
+            callExecutor.execute(PROVIDER, account, "DescribeDomains", true, () -> client.getAcsResponse(request));
             log.info("DNS服务连接测试成功");
         } catch (ClientException e) {
             log.error("DNS服务连接测试失败: {}", e.getMessage());
@@ -96,8 +123,23 @@ public class AliyunDDNSServiceImpl implements DDNSService {
         }
     }
 
+    /**
+     * 配置了自定义接入地址时指定到请求上。
+     * 不使用 DefaultProfile.addEndpoint，它写入进程全局的接入地址表，多个阿里云账号会互相覆盖
+     */
+    private <R extends AcsRequest<?>> R withEndpoint(R request) {
+        if (endpoint != null) {
+            request.setSysEndpoint(endpoint);
+        }
+        return request;
+    }
+
+    private RecordKey recordKey(String domain, String subDomain, String recordType) {
+        return new RecordKey(PROVIDER, domain, subDomain, recordType);
+    }
+
     @Override
-    public boolean updateDNSRecord(String domain, String subDomain, String recordType, String value) {
+    public boolean updateDNSRecord(String domain, String subDomain, String recordType, String value, Long ttl) {
         if (client == null) {
             log.warn("阿里云DNS服务未初始化，无法更新记录");
             return false;
@@ -107,11 +149,26 @@ public class AliyunDDNSServiceImpl implements DDNSService {
             log.info("开始更新DNS记录: domain={}, subDomain={}, type={}, value={}",
                     domain, subDomain, recordType, value);
 
-            String recordId = getRecordId(domain, subDomain, recordType);
+            RecordKey key = recordKey(domain, subDomain, recordType);
+            String recordId = recordCache.getRecordId(key);
             if (recordId != null) {
-                return updateExistingRecord(recordId, subDomain, recordType, value);
+                try {
+                    return updateExistingRecord(recordId, domain, subDomain, recordType, value, ttl);
+                } catch (ClientException e) {
+                    if (!RECORD_MISSING_ERRORS.contains(e.getErrCode())) {
+                        throw e;
+                    }
+                    // 缓存的记录ID已失效（记录被删除或重建），重新查询
+                    log.warn("缓存的记录ID已失效: recordId={}, {}", recordId, e.getErrCode());
+                    recordCache.invalidate(key);
+                }
+            }
+
+            DescribeSubDomainRecordsResponse.Record record = findRecord(domain, subDomain, recordType);
+            if (record != null) {
+                return updateExistingRecord(record.getRecordId(), domain, subDomain, recordType, value, ttl);
             } else {
-                return createNewRecord(domain, subDomain, recordType, value);
+                return createNewRecord(domain, subDomain, recordType, value, ttl);
             }
         } catch (ClientException e) {
             log.error("更新DNS记录失败: {}", e.getMessage(), e);
@@ -119,57 +176,65 @@ public class AliyunDDNSServiceImpl implements DDNSService {
         }
     }
 
-    private boolean updateExistingRecord(String recordId, String subDomain, String recordType, String value) 
-            throws ClientException {
+    private boolean updateExistingRecord(String recordId, String domain, String subDomain, String recordType,
+                                         String value, Long ttl) throws ClientException {
         log.info("更新已存在的记录: recordId={}", recordId);
-        UpdateDomainRecordRequest request = new UpdateDomainRecordRequest();
+        UpdateDomainRecordRequest request = withEndpoint(new UpdateDomainRecordRequest());
         request.setRecordId(recordId);
         request.setRR(subDomain);
         request.setType(recordType);
         request.setValue(value);
-        request.setTTL(600L); // 默认TTL 600秒
+        long effectiveTtl = ttl != null ? ttl : DEFAULT_TTL;
+        request.setTTL(effectiveTtl);
 
-        UpdateDomainRecordResponse response = client.getAcsResponse(request);
-        log.info("记录更新成功: {}", response.getRecordId());
+        try {
+            UpdateDomainRecordResponse response = callExecutor.execute(PROVIDER, account, "UpdateDomainRecord", true,
+                    () -> client.getAcsResponse(request));
+            log.info("记录更新成功: {}", response.getRecordId());
+        } catch (ClientException e) {
+            if (!ERROR_RECORD_DUPLICATE.equals(e.getErrCode())) {
+                throw e;
+            }
+            // 记录值与目标值相同，视为更新成功
+            log.info("记录值未变化，无需更新: {}", recordId);
+        }
+        recordCache.put(recordKey(domain, subDomain, recordType), recordId, value, effectiveTtl);
         return true;
     }
 
-    private boolean createNewRecord(String domain, String subDomain, String recordType, String value) 
+    private boolean createNewRecord(String domain, String subDomain, String recordType, String value, Long ttl)
             throws ClientException {
         log.info("创建新记录");
-        AddDomainRecordRequest request = new AddDomainRecordRequest();
+        AddDomainRecordRequest request = withEndpoint(new AddDomainRecordRequest());
         request.setDomainName(domain);
         request.setRR(subDomain);
         request.setType(recordType);
         request.setValue(value);
-        request.setTTL(600L); // 默认TTL 600秒
+        long effectiveTtl = ttl != null ? ttl : DEFAULT_TTL;
+        request.setTTL(effectiveTtl);
 
-        AddDomainRecordResponse response = client.getAcsResponse(request);
+        AddDomainRecordResponse response = callExecutor.execute(PROVIDER, account, "AddDomainRecord", false,
+                () -> client.getAcsResponse(request));
+        if (response.getRecordId() != null) {
+            recordCache.put(recordKey(domain, subDomain, recordType), response.getRecordId(), value, effectiveTtl);
+        }
         log.info("新记录创建成功: {}", response.getRecordId());
         return true;
     }
 
     @Override
-    public String getCurrentRecord(String domain, String subDomain) {
+    public String getCurrentRecord(String domain, String subDomain, String recordType) {
         if (client == null) {
             log.warn("阿里云DNS服务未初始化，无法获取记录");
             return null;
         }
 
         try {
-            log.debug("获取当前记录: domain={}, subDomain={}", domain, subDomain);
-            DescribeDomainRecordsRequest request = new DescribeDomainRecordsRequest();
-            request.setDomainName(domain);
-            request.setRRKeyWord(subDomain);
-
-            DescribeDomainRecordsResponse response = client.getAcsResponse(request);
-            if (response.getDomainRecords() != null && !response.getDomainRecords().isEmpty()) {
-                for (DescribeDomainRecordsResponse.Record record : response.getDomainRecords()) {
-                    if (record.getRR().equals(subDomain)) {
-                        log.debug("找到记录: {}", record.getValue());
-                        return record.getValue();
-                    }
-                }
+            log.debug("获取当前记录: domain={}, subDomain={}, type={}", domain, subDomain, recordType);
+            DescribeSubDomainRecordsResponse.Record record = findRecord(domain, subDomain, recordType);
+            if (record != null) {
+                log.debug("找到记录: {}", record.getValue());
+                return record.getValue();
             }
             log.debug("未找到记录");
             return null;
@@ -179,24 +244,49 @@ public class AliyunDDNSServiceImpl implements DDNSService {
         }
     }
 
-    private String getRecordId(String domain, String subDomain, String recordType) {
-        try {
-            DescribeDomainRecordsRequest request = new DescribeDomainRecordsRequest();
-            request.setDomainName(domain);
-            request.setRRKeyWord(subDomain);
-            request.setType(recordType);
-
-            DescribeDomainRecordsResponse response = client.getAcsResponse(request);
-            if (response.getDomainRecords() != null && !response.getDomainRecords().isEmpty()) {
-                for (DescribeDomainRecordsResponse.Record record : response.getDomainRecords()) {
-                    if (record.getRR().equals(subDomain) && record.getType().equals(recordType)) {
-                        return record.getRecordId();
-                    }
+    @Override
+    public String getCachedRecordId(String domain, String subDomain, String recordType) {
+        return recordCache.peekRecordId(recordKey(domain, subDomain, recordType));
+    }
+
+    /**
+     * 通过 DescribeSubDomainRecords 精确查询子域名的记录，并缓存记录ID。
+     * 查询结果同时供读取当前值和后续更新使用
+     *
+     * @return 默认线路的记录，没有默认线路时返回第一条匹配记录，不存在时返回null
+     */
+    private DescribeSubDomainRecordsResponse.Record findRecord(String domain, String subDomain, String recordType)
+            throws ClientException {
+        DescribeSubDomainRecordsRequest request = withEndpoint(new DescribeSubDomainRecordsRequest());
+        request.setSubDomain(subDomain + "." + domain);
+        request.setDomainName(domain);
+        request.setType(recordType);
+        request.setPageSize(PAGE_SIZE);
+
+        DescribeSubDomainRecordsResponse response = callExecutor.execute(PROVIDER, account,
+                "DescribeSubDomainRecords", true, () -> client.getAcsResponse(request));
+        DescribeSubDomainRecordsResponse.Record match = null;
+        if (response.getDomainRecords() != null) {
+            for (DescribeSubDomainRecordsResponse.Record record : response.getDomainRecords()) {
+                if (!record.getRR().equals(subDomain) || !record.getType().equals(recordType)) {
+                    continue;
+                }
+                if (DEFAULT_LINE.equals(record.getLine())) {
+                    match = record;
+                    break;
+                }
+                if (match == null) {
+                    match = record;
                 }
             }
-        } catch (ClientException e) {
-            log.error("获取记录ID失败: {}", e.getMessage(), e);
         }
-        return null;
+
+        RecordKey key = recordKey(domain, subDomain, recordType);
+        if (match != null) {
+            recordCache.put(key, match.getRecordId(), match.getValue(), match.getTTL());
+        } else {
+            recordCache.invalidate(key);
+        }
+        return match;
     }
-}
\ No newline at end of file
+}
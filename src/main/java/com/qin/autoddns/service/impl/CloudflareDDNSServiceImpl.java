@@ -1,34 +1,92 @@
 package com.qin.autoddns.service.impl;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.qin.autoddns.cache.RecordCache;
+import com.qin.autoddns.cache.RecordKey;
 import com.qin.autoddns.config.DDNSConfig;
+import com.qin.autoddns.enums.DNSProvider;
+import com.qin.autoddns.resilience.ProviderCallExecutor;
 import com.qin.autoddns.service.DDNSService;
+import com.qin.autoddns.service.RecordUpdate;
+import com.qin.autoddns.service.impl.cloudflare.CloudflareBatchRequest;
+import com.qin.autoddns.service.impl.cloudflare.CloudflareBatchResult;
+import com.qin.autoddns.service.impl.cloudflare.CloudflareError;
+import com.qin.autoddns.service.impl.cloudflare.CloudflareRecord;
+import com.qin.autoddns.service.impl.cloudflare.CloudflareRecordPage;
+import com.qin.autoddns.service.impl.cloudflare.CloudflareRecordPatch;
+import com.qin.autoddns.service.impl.cloudflare.CloudflareRecordRequest;
+import com.qin.autoddns.service.impl.cloudflare.CloudflareResponse;
+import com.qin.autoddns.service.impl.cloudflare.CloudflareZone;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
-import org.springframework.stereotype.Service;
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
 /**
  * Cloudflare DNS服务实现
+ * 请求体和响应使用类型化的记录类，通过共享的 {@link ObjectMapper} 直接读写HTTP流；
+ * 记录列表按页流式解析，逐条处理，不在内存中保留整页的JSON树。
+ * 配置的 zone-id 对应 domain，其他主域名的记录首次使用时按名称查询 Zone ID 并缓存
  */
-@Service
 public class CloudflareDDNSServiceImpl implements DDNSService {
 
+    private static final String DEFAULT_API_BASE = "https://api.cloudflare.com/client/v4";
+    private static final long DEFAULT_TTL = 300;
+    // 分页扫描时每页记录数，Cloudflare 允许的最大值
+    private static final int PAGE_SIZE = 5000;
+    // 创建记录时记录已存在的错误码
+    private static final Set<Integer> RECORD_CONFLICT_ERRORS = Set.of(81057, 81058);
+    private static final String PROVIDER = DNSProvider.CLOUDFLARE.getCode();
+
     private final Logger log = LoggerFactory.getLogger(CloudflareDDNSServiceImpl.class);
     private final DDNSConfig config;
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
-    private String recordId;
+    private final RecordCache recordCache;
+    private final ProviderCallExecutor callExecutor;
+    // 所属账号，用于区分限流、熔断和指标
+    private final String account;
+    private final JavaType recordResponseType;
+    private final JavaType batchResponseType;
+    private final JavaType zoneListResponseType;
+    // API地址前缀，如 https://api.cloudflare.com/client/v4
+    private final String apiBase;
+    // 主域名（小写）到 Zone ID 的映射，区域ID不会变化，查询到后一直缓存
+    private final Map<String, String> zoneIds = new ConcurrentHashMap<>();
 
-    public CloudflareDDNSServiceImpl(DDNSConfig config) {
+    public CloudflareDDNSServiceImpl(DDNSConfig config, RestTemplate restTemplate, ObjectMapper objectMapper,
+                                     RecordCache recordCache, ProviderCallExecutor callExecutor) {
         this.config = config;
-        this.restTemplate = new RestTemplate();
-        this.objectMapper = new ObjectMapper();
+        this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
+        this.recordCache = recordCache;
+        this.callExecutor = callExecutor;
+        this.account = config.getAccount();
+        this.recordResponseType = objectMapper.getTypeFactory()
+                .constructParametricType(CloudflareResponse.class, CloudflareRecord.class);
+        this.batchResponseType = objectMapper.getTypeFactory()
+                .constructParametricType(CloudflareResponse.class, CloudflareBatchResult.class);
+        this.zoneListResponseType = objectMapper.getTypeFactory().constructParametricType(CloudflareResponse.class,
+                objectMapper.getTypeFactory().constructCollectionType(List.class, CloudflareZone.class));
+        String endpoint = config.getProviderEndpoint(PROVIDER);
+        this.apiBase = endpoint != null ? endpoint.replaceAll("/+$", "") : DEFAULT_API_BASE;
 
         try {
             validateConfig();
@@ -46,32 +104,135 @@ public class CloudflareDDNSServiceImpl implements DDNSService {
         if (config.getZoneId() == null || config.getZoneId().trim().isEmpty()) {
             throw new IllegalArgumentException("Cloudflare Zone ID 不能为空");
         }
-        log.info("API Token长度: {}, Zone ID: {}",
+        if (StringUtils.hasText(config.getDomain())) {
+            zoneIds.put(config.getDomain().toLowerCase(Locale.ROOT), config.getZoneId());
+        }
+        log.info("API Token长度: {}, Zone ID: {}（{}）",
                 config.getAccessKey().length(),
-                config.getZoneId());
+                config.getZoneId(), StringUtils.hasText(config.getDomain()) ? config.getDomain() : "未指定主域名");
+    }
+
+    /**
+     * 区域下记录接口地址，如 https://api.cloudflare.com/client/v4/zones/{zoneId}/dns_records
+     *
+     * @param domain 记录所在的主域名
+     */
+    private String recordsUrl(String domain) throws Exception {
+        return apiBase + "/zones/" + zoneId(domain) + "/dns_records";
+    }
+
+    /**
+     * 获取主域名对应的 Zone ID，未缓存时按名称查询（令牌需要 Zone:Read 权限）
+     *
+     * @throws IllegalStateException 查询失败或账号下没有该主域名
+     */
+    private String zoneId(String domain) throws Exception {
+        String name = domain.toLowerCase(Locale.ROOT);
+        String zoneId = zoneIds.get(name);
+        if (zoneId != null) {
+            return zoneId;
+        }
+        String url = apiBase + "/zones?name=" + name + "&per_page=1";
+        CloudflareResponse<List<CloudflareZone>> response = callExecutor.execute(PROVIDER, account, "lookup", true,
+                () -> restTemplate.execute(url, HttpMethod.GET, requestCallback(null),
+                        this.<CloudflareResponse<List<CloudflareZone>>>responseExtractor(zoneListResponseType)));
+        if (response == null || !response.success()) {
+            throw new IllegalStateException("查询Zone ID失败: " + domain + " " + errorsOf(response));
+        }
+        CloudflareZone zone = response.result() != null ? response.result().stream()
+                .filter(candidate -> name.equalsIgnoreCase(candidate.name())).findFirst().orElse(null) : null;
+        if (zone == null || zone.id() == null) {
+            throw new IllegalStateException("账号下没有主域名 " + domain + " 的区域");
+        }
+        log.info("主域名 {} 的 Zone ID: {}", domain, zone.id());
+        zoneIds.put(name, zone.id());
+        return zone.id();
+    }
+
+    @Override
+    public void testConnection() {
+        try {
+            CloudflareRecordPage result = callExecutor.execute(PROVIDER, account, "lookup", true,
+                    () -> restTemplate.execute(apiBase + "/zones/" + config.getZoneId() + "/dns_records?per_page=1",
+                            HttpMethod.GET, requestCallback(null),
+                            response -> CloudflareRecordPage.read(objectMapper, response.getBody(), record -> {
+                            })));
+            if (result == null || !result.success()) {
+                throw new IllegalStateException(result != null ? String.valueOf(result.errors()) : "空响应");
+            }
+            log.info("DNS服务连接测试成功");
+        } catch (Exception e) {
+            log.error("DNS服务连接测试失败: {}", e.getMessage());
+            throw new RuntimeException("DNS服务连接测试失败", e);
+        }
+    }
+
+    private void setHeaders(HttpHeaders headers) {
+        headers.setBearerAuth(config.getAccessKey());
+        headers.setContentType(MediaType.APPLICATION_JSON);
+    }
+
+    /**
+     * 请求回调：设置认证头，请求体直接序列化到输出流
+     *
+     * @param body 请求体，为null时不发送请求体
+     */
+    private RequestCallback requestCallback(Object body) {
+        return request -> {
+            setHeaders(request.getHeaders());
+            if (body != null) {
+                request.getBody().write(objectMapper.writeValueAsBytes(body));
+            }
+        };
+    }
+
+    /**
+     * 响应提取：从响应流直接反序列化为指定类型
+     */
+    private <T> ResponseExtractor<T> responseExtractor(JavaType type) {
+        return response -> objectMapper.readValue(response.getBody(), type);
     }
 
-    private HttpHeaders createHeaders() {
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("Authorization", "Bearer " + config.getAccessKey());
-        headers.set("Content-Type", "application/json");
-        return headers;
+    private RecordKey recordKey(String domain, String subDomain, String recordType) {
+        return new RecordKey(PROVIDER, domain, subDomain, recordType);
     }
 
     @Override
-    public boolean updateDNSRecord(String domain, String subDomain, String recordType, String value) {
+    public boolean updateDNSRecord(String domain, String subDomain, String recordType, String value, Long ttl) {
         try {
             log.info("开始更新DNS记录: domain={}, subDomain={}, type={}, value={}",
                     domain, subDomain, recordType, value);
 
-            if (recordId == null) {
-                recordId = getRecordId(domain, subDomain);
+            RecordKey key = recordKey(domain, subDomain, recordType);
+            long effectiveTtl = ttl != null ? ttl : DEFAULT_TTL;
+            String recordId = recordCache.getRecordId(key);
+            if (recordId != null) {
+                try {
+                    return updateExistingRecord(domain, subDomain, recordType, value, effectiveTtl, recordId);
+                } catch (HttpClientErrorException.NotFound e) {
+                    // 缓存的记录ID已失效（记录被删除或重建），重新查询
+                    log.warn("缓存的记录ID已失效: recordId={}", recordId);
+                    recordCache.invalidate(key);
+                }
             }
 
+            // 查询失败时抛出异常，只有确认记录不存在才创建，避免重复创建同名记录
+            recordId = getRecordId(domain, subDomain, recordType);
             if (recordId != null) {
-                return updateExistingRecord(domain, subDomain, recordType, value);
-            } else {
-                return createNewRecord(domain, subDomain, recordType, value);
+                return updateExistingRecord(domain, subDomain, recordType, value, effectiveTtl, recordId);
+            }
+            try {
+                return createNewRecord(domain, subDomain, recordType, value, effectiveTtl);
+            } catch (HttpClientErrorException e) {
+                if (!isRecordConflict(e)) {
+                    throw e;
+                }
+                // 记录已被其他实例创建，重新查询后更新
+                log.warn("记录已存在，重新查询后更新: {}.{}", subDomain, domain);
+                recordCache.invalidate(key);
+                recordId = getRecordId(domain, subDomain, recordType);
+                return recordId != null
+                        && updateExistingRecord(domain, subDomain, recordType, value, effectiveTtl, recordId);
             }
         } catch (Exception e) {
             log.error("更新DNS记录失败: {}", e.getMessage(), e);
@@ -79,97 +240,193 @@ public class CloudflareDDNSServiceImpl implements DDNSService {
         }
     }
 
-    private boolean updateExistingRecord(String domain, String subDomain, String recordType, String value) {
+    /**
+     * 按主域名分组，每个区域通过 /dns_records/batch 接口在一次请求中更新多条记录。
+     * 批量接口在单个事务中执行，任一记录失败则整体回滚，此时退回逐条更新
+     */
+    @Override
+    public Map<RecordUpdate, Boolean> updateDNSRecords(List<RecordUpdate> updates) {
+        Map<String, List<RecordUpdate>> byZone = new LinkedHashMap<>();
+        for (RecordUpdate update : updates) {
+            byZone.computeIfAbsent(update.domain().toLowerCase(Locale.ROOT), zone -> new ArrayList<>()).add(update);
+        }
+        Map<RecordUpdate, Boolean> results = new LinkedHashMap<>();
+        byZone.values().forEach(zoneUpdates -> results.putAll(updateZoneRecords(zoneUpdates)));
+        return results;
+    }
+
+    /**
+     * 批量更新同一区域的记录
+     */
+    private Map<RecordUpdate, Boolean> updateZoneRecords(List<RecordUpdate> updates) {
+        if (updates.size() < 2) {
+            return DDNSService.super.updateDNSRecords(updates);
+        }
         try {
-            String url = String.format("https://api.cloudflare.com/client/v4/zones/%s/dns_records/%s",
-                    config.getZoneId(), recordId);
-
-            String requestBody = String.format("""
-                    {
-                        "type": "%s",
-                        "name": "%s",
-                        "content": "%s",
-                        "ttl": 300,
-                        "proxied": %b
-                    }
-                    """, recordType, subDomain + "." + domain, value, config.isProxied());
-
-            HttpHeaders headers = createHeaders();
-            HttpEntity<String> requestEntity = new HttpEntity<>(requestBody, headers);
-
-            ResponseEntity<String> response = restTemplate.exchange(
-                    url, HttpMethod.PUT, requestEntity, String.class);
-
-            JsonNode root = objectMapper.readTree(response.getBody());
-            if (root.get("success").asBoolean()) {
+            log.info("开始批量更新DNS记录: {} 条", updates.size());
+            Map<RecordUpdate, String> recordIds = resolveRecordIds(updates);
+            List<CloudflareRecordPatch> patches = new ArrayList<>();
+            List<CloudflareRecordRequest> posts = new ArrayList<>();
+            for (RecordUpdate update : updates) {
+                String recordId = recordIds.get(update);
+                long ttl = update.ttl() != null ? update.ttl() : DEFAULT_TTL;
+                if (recordId != null) {
+                    patches.add(new CloudflareRecordPatch(recordId, update.value(), ttl, config.isProxied()));
+                } else {
+                    posts.add(new CloudflareRecordRequest(update.recordType(),
+                            update.subDomain() + "." + update.domain(), update.value(), ttl, config.isProxied()));
+                }
+            }
+
+            String url = recordsUrl(updates.get(0).domain()) + "/batch";
+            RequestCallback callback = requestCallback(new CloudflareBatchRequest(patches, posts));
+            // 只包含按ID更新的批量请求是幂等的，包含创建时不能在超时后重试
+            CloudflareResponse<CloudflareBatchResult> response = callExecutor.execute(PROVIDER, account, "batch",
+                    posts.isEmpty(), () -> restTemplate.execute(url, HttpMethod.POST, callback,
+                            this.<CloudflareResponse<CloudflareBatchResult>>responseExtractor(batchResponseType)));
+
+            if (response != null && response.success()) {
+                CloudflareBatchResult result = response.result();
+                if (result != null) {
+                    cacheRecords(result.patches(), updates);
+                    cacheRecords(result.posts(), updates);
+                }
+                log.info("批量更新成功: 更新 {} 条, 创建 {} 条", patches.size(), posts.size());
+                Map<RecordUpdate, Boolean> results = new LinkedHashMap<>();
+                updates.forEach(update -> results.put(update, true));
+                return results;
+            }
+            log.warn("批量更新失败，改为逐条更新: {}", errorsOf(response));
+        } catch (Exception e) {
+            log.warn("批量更新失败，改为逐条更新: {}", e.getMessage());
+        }
+        // 批量失败可能是记录ID已失效，逐条更新前清除缓存
+        updates.forEach(update -> recordCache.invalidate(
+                recordKey(update.domain(), update.subDomain(), update.recordType())));
+        return DDNSService.super.updateDNSRecords(updates);
+    }
+
+    /**
+     * 查找批量更新中各记录的ID：优先使用缓存，缓存未命中的记录只有一条时按名称查询，
+     * 多条时按记录类型分页扫描一次，避免逐条查询。
+     * 任一查询失败时抛出异常，不会把查询失败的记录当作不存在而创建
+     *
+     * @return 已存在记录的ID，查询确认不存在的记录不在结果中
+     */
+    private Map<RecordUpdate, String> resolveRecordIds(List<RecordUpdate> updates) throws Exception {
+        Map<RecordUpdate, String> recordIds = new HashMap<>();
+        Map<String, Map<String, RecordUpdate>> missing = new LinkedHashMap<>();
+        for (RecordUpdate update : updates) {
+            String recordId = recordCache.getRecordId(
+                    recordKey(update.domain(), update.subDomain(), update.recordType()));
+            if (recordId != null) {
+                recordIds.put(update, recordId);
+            } else {
+                missing.computeIfAbsent(update.recordType(), type -> new HashMap<>())
+                        .put(update.subDomain() + "." + update.domain(), update);
+            }
+        }
+        for (Map.Entry<String, Map<String, RecordUpdate>> entry : missing.entrySet()) {
+            Map<String, RecordUpdate> byName = entry.getValue();
+            RecordUpdate first = byName.values().iterator().next();
+            if (byName.size() == 1) {
+                String recordId = getRecordId(first.domain(), first.subDomain(), first.recordType());
+                if (recordId != null) {
+                    recordIds.put(first, recordId);
+                }
+                continue;
+            }
+            // 同一批记录属于同一区域
+            scanRecords(first.domain(), "type=" + entry.getKey(), record -> {
+                RecordUpdate update = byName.get(record.name());
+                if (update != null && record.id() != null && !recordIds.containsKey(update)) {
+                    recordIds.put(update, record.id());
+                    cacheRecord(update, record);
+                }
+            });
+        }
+        return recordIds;
+    }
+
+    /**
+     * 更新已有记录，记录不存在（404）时抛出异常，由调用方失效缓存后重新查询
+     */
+    private boolean updateExistingRecord(String domain, String subDomain, String recordType, String value,
+                                         long ttl, String recordId) {
+        try {
+            String url = recordsUrl(domain) + "/" + recordId;
+            RequestCallback callback = requestCallback(buildRecordRequest(recordType, subDomain + "." + domain,
+                    value, ttl, config.isProxied()));
+
+            CloudflareResponse<CloudflareRecord> response = callExecutor.execute(PROVIDER, account, "update", true,
+                    () -> restTemplate.execute(url, HttpMethod.PUT, callback,
+                            this.<CloudflareResponse<CloudflareRecord>>responseExtractor(recordResponseType)));
+
+            if (response != null && response.success()) {
+                recordCache.put(recordKey(domain, subDomain, recordType), recordId, value, ttl);
                 log.info("记录更新成功");
                 return true;
             } else {
-                log.error("记录更新失败: {}", root.get("errors").toString());
+                log.error("记录更新失败: {}", errorsOf(response));
                 return false;
             }
+        } catch (HttpClientErrorException.NotFound e) {
+            throw e;
         } catch (Exception e) {
             log.error("更新记录失败: {}", e.getMessage(), e);
             return false;
         }
     }
 
-    private boolean createNewRecord(String domain, String subDomain, String recordType, String value) {
+    /**
+     * 创建新记录，记录已存在时抛出异常，由调用方失效缓存后重新查询
+     */
+    private boolean createNewRecord(String domain, String subDomain, String recordType, String value, long ttl) {
         try {
-            String url = String.format("https://api.cloudflare.com/client/v4/zones/%s/dns_records",
-                    config.getZoneId());
-
-            String requestBody = String.format("""
-                    {
-                        "type": "%s",
-                        "name": "%s",
-                        "content": "%s",
-                        "ttl": 300,
-                        "proxied": %b
-                    }
-                    """, recordType, subDomain + "." + domain, value, config.isProxied());
-
-            HttpHeaders headers = createHeaders();
-            HttpEntity<String> requestEntity = new HttpEntity<>(requestBody, headers);
-
-            ResponseEntity<String> response = restTemplate.exchange(
-                    url, HttpMethod.POST, requestEntity, String.class);
-
-            JsonNode root = objectMapper.readTree(response.getBody());
-            if (root.get("success").asBoolean()) {
-                this.recordId = root.get("result").get("id").asText();
+            String url = recordsUrl(domain);
+            RequestCallback callback = requestCallback(buildRecordRequest(recordType, subDomain + "." + domain,
+                    value, ttl, config.isProxied()));
+
+            CloudflareResponse<CloudflareRecord> response = callExecutor.execute(PROVIDER, account, "create", false,
+                    () -> restTemplate.execute(url, HttpMethod.POST, callback,
+                            this.<CloudflareResponse<CloudflareRecord>>responseExtractor(recordResponseType)));
+
+            if (response != null && response.success() && response.result() != null) {
+                recordCache.put(recordKey(domain, subDomain, recordType), response.result().id(), value, ttl);
                 log.info("新记录创建成功");
                 return true;
             } else {
-                log.error("创建记录失败: {}", root.get("errors").toString());
+                log.error("创建记录失败: {}", errorsOf(response));
                 return false;
             }
+        } catch (HttpClientErrorException e) {
+            if (isRecordConflict(e)) {
+                throw e;
+            }
+            log.error("创建记录失败: {}", e.getMessage(), e);
+            return false;
         } catch (Exception e) {
             log.error("创建记录失败: {}", e.getMessage(), e);
             return false;
         }
     }
 
+    /**
+     * 构造创建/更新单条记录的请求体
+     */
+    static CloudflareRecordRequest buildRecordRequest(String recordType, String name, String value, long ttl,
+                                                      boolean proxied) {
+        return new CloudflareRecordRequest(recordType, name, value, ttl, proxied);
+    }
+
     @Override
-    public String getCurrentRecord(String domain, String subDomain) {
+    public String getCurrentRecord(String domain, String subDomain, String recordType) {
         try {
-            log.debug("获取当前记录: domain={}, subDomain={}", domain, subDomain);
-
-            String url = String.format("https://api.cloudflare.com/client/v4/zones/%s/dns_records?name=%s.%s",
-                    config.getZoneId(), subDomain, domain);
-
-            HttpHeaders headers = createHeaders();
-            ResponseEntity<String> response = restTemplate.exchange(
-                    url, HttpMethod.GET, new HttpEntity<>(headers), String.class);
-
-            JsonNode root = objectMapper.readTree(response.getBody());
-            if (root.get("success").asBoolean()) {
-                JsonNode records = root.get("result");
-                if (records.isArray() && !records.isEmpty()) {
-                    String value = records.get(0).get("content").asText();
-                    log.debug("找到记录: {}", value);
-                    return value;
-                }
+            log.debug("获取当前记录: domain={}, subDomain={}, type={}", domain, subDomain, recordType);
+            CloudflareRecord record = lookupRecord(domain, subDomain, recordType);
+            if (record != null) {
+                log.debug("找到记录: {}", record.content());
+                return record.content();
             }
             log.debug("未找到记录");
             return null;
@@ -179,25 +436,111 @@ public class CloudflareDDNSServiceImpl implements DDNSService {
         }
     }
 
-    private String getRecordId(String domain, String subDomain) {
+    @Override
+    public String getCachedRecordId(String domain, String subDomain, String recordType) {
+        return recordCache.peekRecordId(recordKey(domain, subDomain, recordType));
+    }
+
+    /**
+     * 查询记录ID
+     *
+     * @return 记录ID，查询确认记录不存在时返回null
+     * @throws Exception 查询失败，此时不能认为记录不存在
+     */
+    private String getRecordId(String domain, String subDomain, String recordType) throws Exception {
+        CloudflareRecord record = lookupRecord(domain, subDomain, recordType);
+        return record != null ? record.id() : null;
+    }
+
+    /**
+     * 按名称和类型查询记录，并刷新记录缓存
+     *
+     * @return 第一条匹配记录，查询确认不存在时返回null
+     * @throws Exception 查询失败
+     */
+    private CloudflareRecord lookupRecord(String domain, String subDomain, String recordType) throws Exception {
+        CloudflareRecord[] first = new CloudflareRecord[1];
+        scanRecords(domain, "name=" + subDomain + "." + domain + "&type=" + recordType, record -> {
+            if (first[0] == null) {
+                first[0] = record;
+            }
+        });
+        RecordKey key = recordKey(domain, subDomain, recordType);
+        if (first[0] != null) {
+            recordCache.put(key, first[0].id(), first[0].content(), ttlOf(first[0]));
+        } else {
+            recordCache.invalidate(key);
+        }
+        return first[0];
+    }
+
+    /**
+     * 分页查询记录列表，每页响应流式解析，记录逐条交给 consumer
+     *
+     * @param domain   记录所在的主域名
+     * @param query    查询条件，如 type=A
+     * @param consumer 记录处理
+     * @throws IllegalStateException 任一页查询失败，已交给 consumer 的记录不完整
+     */
+    private void scanRecords(String domain, String query, Consumer<CloudflareRecord> consumer) throws Exception {
+        String recordsUrl = recordsUrl(domain);
+        int totalPages = 1;
+        for (int page = 1; page <= totalPages; page++) {
+            String url = recordsUrl + "?" + query
+                    + "&per_page=" + PAGE_SIZE + "&page=" + page;
+            CloudflareRecordPage result = callExecutor.execute(PROVIDER, account, "lookup", true,
+                    () -> restTemplate.execute(url, HttpMethod.GET, requestCallback(null),
+                            response -> CloudflareRecordPage.read(objectMapper, response.getBody(), consumer)));
+            if (result == null || !result.success()) {
+                throw new IllegalStateException("查询记录列表失败: " + (result != null ? result.errors() : "空响应"));
+            }
+            totalPages = result.totalPages();
+        }
+    }
+
+    /**
+     * 缓存批量接口返回的记录
+     */
+    private void cacheRecords(List<CloudflareRecord> records, List<RecordUpdate> updates) {
+        if (records == null) {
+            return;
+        }
+        for (CloudflareRecord record : records) {
+            for (RecordUpdate update : updates) {
+                if ((update.subDomain() + "." + update.domain()).equals(record.name())
+                        && update.recordType().equals(record.type())) {
+                    cacheRecord(update, record);
+                    break;
+                }
+            }
+        }
+    }
+
+    private void cacheRecord(RecordUpdate update, CloudflareRecord record) {
+        recordCache.put(recordKey(update.domain(), update.subDomain(), update.recordType()),
+                record.id(), record.content(), ttlOf(record));
+    }
+
+    private static long ttlOf(CloudflareRecord record) {
+        return record.ttl() != null ? record.ttl() : DEFAULT_TTL;
+    }
+
+    private static List<CloudflareError> errorsOf(CloudflareResponse<?> response) {
+        return response != null ? response.errorList() : List.of();
+    }
+
+    private boolean isRecordConflict(HttpClientErrorException e) {
         try {
-            String url = String.format("https://api.cloudflare.com/client/v4/zones/%s/dns_records?name=%s.%s",
-                    config.getZoneId(), subDomain, domain);
-
-            HttpHeaders headers = createHeaders();
-            ResponseEntity<String> response = restTemplate.exchange(
-                    url, HttpMethod.GET, new HttpEntity<>(headers), String.class);
-
-            JsonNode root = objectMapper.readTree(response.getBody());
-            if (root.get("success").asBoolean()) {
-                JsonNode records = root.get("result");
-                if (records.isArray() && !records.isEmpty()) {
-                    return records.get(0).get("id").asText();
+            CloudflareResponse<?> response = objectMapper.readValue(e.getResponseBodyAsByteArray(),
+                    CloudflareResponse.class);
+            for (CloudflareError error : response.errorList()) {
+                if (RECORD_CONFLICT_ERRORS.contains(error.code())) {
+                    return true;
                 }
             }
-        } catch (Exception e) {
-            log.error("获取记录ID失败: {}", e.getMessage(), e);
+        } catch (Exception ignored) {
+            // 响应体不是JSON，按普通错误处理
         }
-        return null;
+        return false;
     }
-} 
\ No newline at end of file
+}
@@ -1,15 +1,21 @@
 package com.qin.autoddns.service.impl;
 
+import com.qin.autoddns.cache.RecordCache;
+import com.qin.autoddns.cache.RecordKey;
 import com.qin.autoddns.config.DDNSConfig;
+import com.qin.autoddns.enums.DNSProvider;
+import com.qin.autoddns.resilience.ProviderCallExecutor;
 import com.qin.autoddns.service.DDNSService;
 import com.tencentcloudapi.common.Credential;
 import com.tencentcloudapi.common.exception.TencentCloudSDKException;
+import com.tencentcloudapi.common.profile.ClientProfile;
+import com.tencentcloudapi.common.profile.HttpProfile;
 import com.tencentcloudapi.dnspod.v20210323.DnspodClient;
 import com.tencentcloudapi.dnspod.v20210323.models.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.core.env.Environment;
-import org.springframework.stereotype.Service;
+
+import java.util.Set;
 
 /**
  * 腾讯云DNS服务实现
@@ -17,42 +23,59 @@ import org.springframework.stereotype.Service;
  * @author qinshijiao
  * @since 2024/03/21
  */
-@Service
 public class TencentDDNSServiceImpl implements DDNSService {
 
+    private static final String PROVIDER = DNSProvider.TENCENT.getCode();
+    private static final String DEFAULT_LINE = "默认";
+    private static final long PAGE_SIZE = 100L;
+    // 查询结果为空时返回的错误码
+    private static final String ERROR_NO_RECORD = "ResourceNotFound.NoDataOfRecord";
+    // 账号下没有域名时返回的错误码
+    private static final String ERROR_NO_DOMAIN = "ResourceNotFound.NoDataOfDomain";
+    // 记录ID失效时可能返回的错误码
+    private static final Set<String> RECORD_MISSING_ERRORS = Set.of(
+            "InvalidParameter.RecordIdInvalid",
+            "ResourceNotFound.NoDataOfRecord");
+
     private final Logger log = LoggerFactory.getLogger(TencentDDNSServiceImpl.class);
     private DnspodClient client;
     private final DDNSConfig config;
-    private final Environment environment;
+    private final RecordCache recordCache;
+    private final ProviderCallExecutor callExecutor;
+    // 所属账号，用于区分限流、熔断和指标
+    private final String account;
 
-    public TencentDDNSServiceImpl(DDNSConfig config, Environment environment) {
+    public TencentDDNSServiceImpl(DDNSConfig config, RecordCache recordCache, ProviderCallExecutor callExecutor) {
         this.config = config;
-        this.environment = environment;
-
-        // 检查是否激活了腾讯云配置
-        String[] activeProfiles = environment.getActiveProfiles();
-        boolean isTencentProfileActive = activeProfiles.length == 0 ||
-                environment.getProperty("ddns.provider", String.class, "").equals("tencent");
-
-        if (isTencentProfileActive) {
-            try {
-                // 验证配置
-                validateConfig();
-
-                // 初始化客户端
-                Credential cred = new Credential(config.getAccessKey(), config.getSecretKey());
-                this.client = new DnspodClient(cred, "ap-guangzhou");
+        this.recordCache = recordCache;
+        this.callExecutor = callExecutor;
+        this.account = config.getAccount();
 
-                // 测试连接
-                testConnection();
+        try {
+            // 验证配置
+            validateConfig();
 
-                log.info("腾讯云DNS服务初始化成功");
-            } catch (Exception e) {
-                log.error("腾讯云DNS服务初始化失败: {}", e.getMessage());
-                throw new RuntimeException("DNS服务初始化失败", e);
+            // 初始化客户端
+            Credential cred = new Credential(config.getAccessKey(), config.getSecretKey());
+            HttpProfile httpProfile = new HttpProfile();
+            httpProfile.setConnTimeout(toSeconds(config.getHttp().getConnectTimeout()));
+            httpProfile.setReadTimeout(toSeconds(config.getHttp().getReadTimeout()));
+            String endpoint = config.getProviderEndpoint(PROVIDER);
+            if (endpoint != null) {
+                // 带 http:// 前缀时使用明文HTTP，用于本地模拟服务
+                if (endpoint.startsWith(HttpProfile.REQ_HTTP)) {
+                    httpProfile.setProtocol(HttpProfile.REQ_HTTP);
+                }
+                httpProfile.setEndpoint(endpoint.replaceFirst("^https?://", ""));
             }
-        } else {
-            log.info("腾讯云DNS服务未激活，跳过初始化");
+            ClientProfile clientProfile = new ClientProfile();
+            clientProfile.setHttpProfile(httpProfile);
+            this.client = new DnspodClient(cred, "ap-guangzhou", clientProfile);
+
+            log.info("腾讯云DNS服务初始化成功");
+        } catch (Exception e) {
+            log.error("腾讯云DNS服务初始化失败: {}", e.getMessage());
+            throw new RuntimeException("DNS服务初始化失败", e);
         }
     }
 
@@ -68,6 +91,10 @@ public class TencentDDNSServiceImpl implements DDNSService {
                 config.getSecretKey().length());
     }
 
+    private int toSeconds(long millis) {
+        return (int) Math.max(1, (millis + 999) / 1000);
+    }
+
     private String maskAccessKey(String accessKey) {
         if (accessKey == null || accessKey.length() < 8) {
             return "***";
@@ -75,20 +102,33 @@ public class TencentDDNSServiceImpl implements DDNSService {
         return accessKey.substring(0, 4) + "***" + accessKey.substring(accessKey.length() - 4);
     }
 
-    private void testConnection() {
+    /**
+     * 查询账号下的第一个域名，只验证凭据，不依赖配置的主域名（只配置 records 时为空，其他账号的记录也不在顶层域名下）
+     */
+    @Override
+    public void testConnection() {
         try {
-            DescribeRecordListRequest request = new DescribeRecordListRequest();
-            request.setDomain(config.getDomain());
-            client.DescribeRecordList(request);
+            DescribeDomainListRequest request = new DescribeDomainListRequest();
+            request.setLimit(1L);
+            callExecutor.execute(PROVIDER, account, "DescribeDomainList", true,
+                    () -> client.DescribeDomainList(request));
             log.info("DNS服务连接测试成功");
         } catch (TencentCloudSDKException e) {
+            if (ERROR_NO_DOMAIN.equals(e.getErrorCode())) {
+                log.info("DNS服务连接测试成功（账号下暂无域名）");
+                return;
+            }
             log.error("DNS服务连接测试失败: {}", e.getMessage());
             throw new RuntimeException("DNS服务连接测试失败", e);
         }
     }
 
+    private RecordKey recordKey(String domain, String subDomain, String recordType) {
+        return new RecordKey(PROVIDER, domain, subDomain, recordType);
+    }
+
     @Override
-    public boolean updateDNSRecord(String domain, String subDomain, String recordType, String value) {
+    public boolean updateDNSRecord(String domain, String subDomain, String recordType, String value, Long ttl) {
         if (client == null) {
             log.warn("腾讯云DNS服务未初始化，无法更新记录");
             return false;
@@ -98,11 +138,27 @@ public class TencentDDNSServiceImpl implements DDNSService {
             log.info("开始更新DNS记录: domain={}, subDomain={}, type={}, value={}",
                     domain, subDomain, recordType, value);
 
-            String recordId = getRecordId(domain, subDomain);
+            RecordKey key = recordKey(domain, subDomain, recordType);
+            String recordId = recordCache.getRecordId(key);
             if (recordId != null) {
-                return updateExistingRecord(domain, subDomain, recordType, value, recordId);
+                try {
+                    return updateExistingRecord(domain, subDomain, recordType, value, ttl, recordId);
+                } catch (TencentCloudSDKException e) {
+                    if (!RECORD_MISSING_ERRORS.contains(e.getErrorCode())) {
+                        throw e;
+                    }
+                    // 缓存的记录ID已失效（记录被删除或重建），重新查询
+                    log.warn("缓存的记录ID已失效: recordId={}, {}", recordId, e.getErrorCode());
+                    recordCache.invalidate(key);
+                }
+            }
+
+            RecordListItem record = findRecord(domain, subDomain, recordType);
+            if (record != null) {
+                return updateExistingRecord(domain, subDomain, recordType, value, ttl,
+                        record.getRecordId().toString());
             } else {
-                return createNewRecord(domain, subDomain, recordType, value);
+                return createNewRecord(domain, subDomain, recordType, value, ttl);
             }
         } catch (TencentCloudSDKException e) {
             log.error("更新DNS记录失败: {}", e.getMessage(), e);
@@ -111,54 +167,61 @@ public class TencentDDNSServiceImpl implements DDNSService {
     }
 
     private boolean updateExistingRecord(String domain, String subDomain, String recordType,
-                                         String value, String recordId) throws TencentCloudSDKException {
+                                         String value, Long ttl, String recordId) throws TencentCloudSDKException {
         log.info("更新已存在的记录: recordId={}", recordId);
         ModifyRecordRequest request = new ModifyRecordRequest();
         request.setDomain(domain);
         request.setRecordId(Long.parseLong(recordId));
         request.setRecordType(recordType);
-        request.setRecordLine("默认");
+        request.setRecordLine(DEFAULT_LINE);
         request.setValue(value);
         request.setSubDomain(subDomain);
+        if (ttl != null) {
+            request.setTTL(ttl);
+        }
 
-        ModifyRecordResponse response = client.ModifyRecord(request);
-        log.info("记录更新成功: {}", response);
+        ModifyRecordResponse response = callExecutor.execute(PROVIDER, account, "ModifyRecord", true,
+                () -> client.ModifyRecord(request));
+        recordCache.put(recordKey(domain, subDomain, recordType), recordId, value, ttl);
+        log.info("记录更新成功: {}", response.getRequestId());
         return true;
     }
 
     private boolean createNewRecord(String domain, String subDomain, String recordType,
-                                    String value) throws TencentCloudSDKException {
+                                    String value, Long ttl) throws TencentCloudSDKException {
         log.info("创建新记录");
         CreateRecordRequest request = new CreateRecordRequest();
         request.setDomain(domain);
         request.setRecordType(recordType);
-        request.setRecordLine("默认");
+        request.setRecordLine(DEFAULT_LINE);
         request.setValue(value);
         request.setSubDomain(subDomain);
+        if (ttl != null) {
+            request.setTTL(ttl);
+        }
 
-        CreateRecordResponse response = client.CreateRecord(request);
-        log.info("新记录创建成功: {}", response);
+        CreateRecordResponse response = callExecutor.execute(PROVIDER, account, "CreateRecord", false,
+                () -> client.CreateRecord(request));
+        if (response.getRecordId() != null) {
+            recordCache.put(recordKey(domain, subDomain, recordType), response.getRecordId().toString(), value, ttl);
+        }
+        log.info("新记录创建成功: recordId={}", response.getRecordId());
         return true;
     }
 
     @Override
-    public String getCurrentRecord(String domain, String subDomain) {
+    public String getCurrentRecord(String domain, String subDomain, String recordType) {
         if (client == null) {
             log.warn("腾讯云DNS服务未初始化，无法获取记录");
             return null;
         }
 
         try {
-            log.debug("获取当前记录: domain={}, subDomain={}", domain, subDomain);
-            DescribeRecordListRequest request = new DescribeRecordListRequest();
-            request.setDomain(domain);
-
-            DescribeRecordListResponse response = client.DescribeRecordList(request);
-            for (RecordListItem record : response.getRecordList()) {
-                if (record.getName().equals(subDomain)) {
-                    log.debug("找到记录: {}", record.getValue());
-                    return record.getValue();
-                }
+            log.debug("获取当前记录: domain={}, subDomain={}, type={}", domain, subDomain, recordType);
+            RecordListItem record = findRecord(domain, subDomain, recordType);
+            if (record != null) {
+                log.debug("找到记录: {}", record.getValue());
+                return record.getValue();
             }
             log.debug("未找到记录");
             return null;
@@ -168,20 +231,74 @@ public class TencentDDNSServiceImpl implements DDNSService {
         }
     }
 
-    private String getRecordId(String domain, String subDomain) {
-        try {
+    @Override
+    public String getCachedRecordId(String domain, String subDomain, String recordType) {
+        return recordCache.peekRecordId(recordKey(domain, subDomain, recordType));
+    }
+
+    /**
+     * 按主机头和记录类型在服务端过滤查询记录，并缓存记录ID。
+     * 同一主机头可能存在多条线路的记录，分页查询直到找到默认线路的记录
+     *
+     * @return 默认线路的记录，没有默认线路时返回第一条匹配记录，不存在时返回null
+     */
+    private RecordListItem findRecord(String domain, String subDomain, String recordType)
+            throws TencentCloudSDKException {
+        RecordListItem firstMatch = null;
+        long offset = 0;
+        while (true) {
             DescribeRecordListRequest request = new DescribeRecordListRequest();
             request.setDomain(domain);
+            request.setSubdomain(subDomain);
+            request.setRecordType(recordType);
+            request.setOffset(offset);
+            request.setLimit(PAGE_SIZE);
 
-            DescribeRecordListResponse response = client.DescribeRecordList(request);
-            for (RecordListItem record : response.getRecordList()) {
-                if (record.getName().equals(subDomain)) {
-                    return record.getRecordId().toString();
+            DescribeRecordListResponse response;
+            try {
+                response = callExecutor.execute(PROVIDER, account, "DescribeRecordList", true,
+                        () -> client.DescribeRecordList(request));
+            } catch (TencentCloudSDKException e) {
+                if (ERROR_NO_RECORD.equals(e.getErrorCode())) {
+                    break;
                 }
+                throw e;
+            }
+
+            RecordListItem[] items = response.getRecordList();
+            if (items == null || items.length == 0) {
+                break;
+            }
+            for (RecordListItem record : items) {
+                if (!record.getName().equals(subDomain) || !record.getType().equals(recordType)) {
+                    continue;
+                }
+                if (DEFAULT_LINE.equals(record.getLine())) {
+                    cacheRecord(domain, subDomain, recordType, record);
+                    return record;
+                }
+                if (firstMatch == null) {
+                    firstMatch = record;
+                }
+            }
+
+            offset += items.length;
+            Long total = response.getRecordCountInfo() != null ? response.getRecordCountInfo().getTotalCount() : null;
+            if (total == null || offset >= total) {
+                break;
             }
-        } catch (TencentCloudSDKException e) {
-            log.error("获取记录ID失败: {}", e.getMessage(), e);
         }
-        return null;
+
+        if (firstMatch != null) {
+            cacheRecord(domain, subDomain, recordType, firstMatch);
+        } else {
+            recordCache.invalidate(recordKey(domain, subDomain, recordType));
+        }
+        return firstMatch;
+    }
+
+    private void cacheRecord(String domain, String subDomain, String recordType, RecordListItem record) {
+        recordCache.put(recordKey(domain, subDomain, recordType),
+                record.getRecordId().toString(), record.getValue(), record.getTTL());
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,12 @@
+package com.qin.autoddns.service.impl.cloudflare;
+
+import java.util.List;
+
+/**
+ * /dns_records/batch 请求体
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+public record CloudflareBatchRequest(List<CloudflareRecordPatch> patches, List<CloudflareRecordRequest> posts) {
+}
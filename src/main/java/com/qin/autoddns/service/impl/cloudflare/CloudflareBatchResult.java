@@ -0,0 +1,15 @@
+package com.qin.autoddns.service.impl.cloudflare;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+/**
+ * /dns_records/batch 响应中的 result
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record CloudflareBatchResult(List<CloudflareRecord> patches, List<CloudflareRecord> posts) {
+}
@@ -0,0 +1,13 @@
+package com.qin.autoddns.service.impl.cloudflare;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Cloudflare 响应中的错误项
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record CloudflareError(int code, String message) {
+}
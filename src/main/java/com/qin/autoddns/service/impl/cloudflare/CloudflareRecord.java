@@ -0,0 +1,13 @@
+package com.qin.autoddns.service.impl.cloudflare;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Cloudflare 返回的DNS记录，只映射用到的字段
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record CloudflareRecord(String id, String name, String type, String content, Long ttl, Boolean proxied) {
+}
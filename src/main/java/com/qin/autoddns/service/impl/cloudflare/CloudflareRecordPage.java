@@ -0,0 +1,68 @@
+package com.qin.autoddns.service.impl.cloudflare;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 流式读取记录列表响应的一页：result 数组中的记录逐条反序列化后交给调用方，
+ * 不构造整页的 JsonNode 树，也不把整页记录放入列表
+ *
+ * @param success    是否成功
+ * @param errors     错误列表
+ * @param totalPages 总页数，响应中没有分页信息时为1
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+public record CloudflareRecordPage(boolean success, List<CloudflareError> errors, int totalPages) {
+
+    private static final TypeReference<List<CloudflareError>> ERROR_LIST = new TypeReference<>() {
+    };
+
+    public static CloudflareRecordPage read(ObjectMapper objectMapper, InputStream body,
+                                            Consumer<CloudflareRecord> consumer) throws IOException {
+        boolean success = false;
+        List<CloudflareError> errors = List.of();
+        int totalPages = 1;
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Cloudflare 响应不是JSON对象");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "success" -> success = parser.getValueAsBoolean();
+                    case "errors" -> {
+                        if (value == JsonToken.START_ARRAY) {
+                            errors = objectMapper.readValue(parser, ERROR_LIST);
+                        }
+                    }
+                    case "result" -> {
+                        if (value == JsonToken.START_ARRAY) {
+                            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                                consumer.accept(objectMapper.readValue(parser, CloudflareRecord.class));
+                            }
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                    case "result_info" -> {
+                        if (value == JsonToken.START_OBJECT) {
+                            totalPages = Math.max(1,
+                                    objectMapper.readValue(parser, CloudflareResultInfo.class).totalPages());
+                        }
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+        return new CloudflareRecordPage(success, errors, totalPages);
+    }
+}
@@ -0,0 +1,10 @@
+package com.qin.autoddns.service.impl.cloudflare;
+
+/**
+ * 批量接口中按记录ID修改的项
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+public record CloudflareRecordPatch(String id, String content, long ttl, boolean proxied) {
+}
@@ -0,0 +1,10 @@
+package com.qin.autoddns.service.impl.cloudflare;
+
+/**
+ * 创建或覆盖单条记录的请求体，也用作批量接口中的新建项
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+public record CloudflareRecordRequest(String type, String name, String content, long ttl, boolean proxied) {
+}
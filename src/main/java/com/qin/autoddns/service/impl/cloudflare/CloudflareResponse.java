@@ -0,0 +1,23 @@
+package com.qin.autoddns.service.impl.cloudflare;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+/**
+ * Cloudflare API 统一响应格式
+ *
+ * @param <T> result 的类型
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record CloudflareResponse<T>(boolean success, List<CloudflareError> errors, T result) {
+
+    /**
+     * 错误列表，响应中没有 errors 字段时返回空列表
+     */
+    public List<CloudflareError> errorList() {
+        return errors != null ? errors : List.of();
+    }
+}
@@ -0,0 +1,15 @@
+package com.qin.autoddns.service.impl.cloudflare;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * 列表接口的分页信息
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record CloudflareResultInfo(int page, @JsonProperty("total_pages") int totalPages,
+                                   @JsonProperty("total_count") long totalCount) {
+}
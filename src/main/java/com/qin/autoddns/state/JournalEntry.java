@@ -0,0 +1,66 @@
+package com.qin.autoddns.state;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * 同步日志中的一条记录，每行一条JSON
+ *
+ * @param type      记录类型
+ * @param key       记录的状态键，见 {@link RecordStateStore#key}
+ * @param ip        目标IP或已确认的IP
+ * @param previous  写入前服务商上的值，仅 INTENT 有
+ * @param recordId  服务商的记录ID，仅 APPLIED/VERIFIED 有
+ * @param updatedAt 最近一次写入服务商的时间，仅 VERIFIED 有
+ * @param at        日志时间（毫秒时间戳）
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+@JsonInclude(JsonInclude.Include.NON_DEFAULT)
+public record JournalEntry(Type type, String key, String ip, String previous, String recordId, long updatedAt,
+                           long at) {
+
+    public enum Type {
+        /**
+         * 即将写入服务商
+         */
+        INTENT,
+        /**
+         * 已写入服务商
+         */
+        APPLIED,
+        /**
+         * 已从服务商或权威DNS确认，无需写入
+         */
+        VERIFIED,
+        /**
+         * 状态已清除，下次同步时重新查询
+         */
+        INVALIDATED
+    }
+
+    public static JournalEntry intent(String key, String ip, String previous, long at) {
+        return new JournalEntry(Type.INTENT, key, ip, previous, null, 0, at);
+    }
+
+    public static JournalEntry applied(String key, RecordState state) {
+        return new JournalEntry(Type.APPLIED, key, state.ip(), null, state.recordId(), 0, state.updatedAt());
+    }
+
+    public static JournalEntry verified(String key, RecordState state) {
+        return new JournalEntry(Type.VERIFIED, key, state.ip(), null, state.recordId(), state.updatedAt(),
+                state.verifiedAt());
+    }
+
+    public static JournalEntry invalidated(String key, long at) {
+        return new JournalEntry(Type.INVALIDATED, key, null, null, null, 0, at);
+    }
+
+    /**
+     * APPLIED/VERIFIED 对应的记录状态
+     */
+    public RecordState toState() {
+        return type == Type.APPLIED
+                ? new RecordState(ip, recordId, at, at)
+                : new RecordState(ip, recordId, updatedAt, at);
+    }
+}
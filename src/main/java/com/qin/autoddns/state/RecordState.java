@@ -0,0 +1,14 @@
+package com.qin.autoddns.state;
+
+/**
+ * 记录最近一次成功同步的状态
+ *
+ * @param ip         最近一次写入或确认的记录值
+ * @param recordId   服务商的记录ID，未知时为null
+ * @param updatedAt  最近一次写入服务商的时间（毫秒时间戳）
+ * @param verifiedAt 最近一次从服务商确认记录值的时间（毫秒时间戳）
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+public record RecordState(String ip, String recordId, long updatedAt, long verifiedAt) {
+}
@@ -0,0 +1,301 @@
+package com.qin.autoddns.state;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.qin.autoddns.config.DDNSConfig;
+import com.qin.autoddns.config.DDNSConfig.RecordConfig;
+import com.qin.autoddns.util.IPAddressUtil;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 记录同步状态存储
+ * 在内存中保存每条记录最近一次同步的IP，公网IP未变化时据此跳过服务商API查询。
+ * 状态变化追加到只追加的同步日志（{@link StateJournal}），不再每次重写整个状态文件；
+ * 写入服务商前先落盘一条写入意图，进程中途退出后重启时据此找出未完成的写入。
+ * 日志超过 state.compact-threshold 条或启动回放后压缩：状态整体写入 state.file，日志另起新文件。
+ * 启动时先读取状态文件再回放日志
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+@Component
+public class RecordStateStore {
+    private final Logger log = LoggerFactory.getLogger(RecordStateStore.class);
+
+    private final DDNSConfig.StateConfig stateConfig;
+    private final ObjectMapper objectMapper;
+    private final Map<String, RecordState> states = new ConcurrentHashMap<>();
+    // 状态修改和追加日志持有读锁，可并发执行；压缩持有写锁，保证快照与日志一致
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final StateJournal journal;
+    private volatile boolean journalAvailable;
+
+    public RecordStateStore(DDNSConfig config, ObjectMapper objectMapper) {
+        this.stateConfig = config.getState();
+        this.objectMapper = objectMapper;
+        this.journal = new StateJournal(Path.of(stateConfig.getJournal()), objectMapper);
+        load();
+        replay();
+    }
+
+    /**
+     * 记录的状态键：服务商|完整域名|记录类型
+     */
+    public static String key(RecordConfig record) {
+        return record.getProvider() + "|" + record.getFullDomain() + "|" + record.getType();
+    }
+
+    public RecordState get(RecordConfig record) {
+        return states.get(key(record));
+    }
+
+    /**
+     * 判断是否可以跳过服务商查询：上次同步的IP与当前IP相同，且未到漂移检查时间
+     *
+     * @param record    记录配置
+     * @param currentIp 当前公网IP
+     * @return 是否可以跳过
+     */
+    public boolean isUpToDate(RecordConfig record, String currentIp) {
+        RecordState state = get(record);
+        if (state == null || !IPAddressUtil.isSameAddress(currentIp, state.ip())) {
+            return false;
+        }
+        long driftCheckInterval = stateConfig.getDriftCheckInterval();
+        return driftCheckInterval <= 0 || System.currentTimeMillis() - state.verifiedAt() < driftCheckInterval;
+    }
+
+    /**
+     * 即将写入服务商：清除记录状态并追加写入意图，调用 {@link #sync()} 后才保证落盘
+     *
+     * @param record   记录配置
+     * @param ip       目标IP
+     * @param previous 服务商上的当前值
+     */
+    public void markIntent(RecordConfig record, String ip, String previous) {
+        String key = key(record);
+        lock.readLock().lock();
+        try {
+            // 写入结果确认前记录状态未知，中途退出时重启后不会误以为记录已是旧值
+            states.remove(key);
+            append(JournalEntry.intent(key, ip, previous, System.currentTimeMillis()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 等待已追加的日志落盘，并发调用的线程共用一次刷盘
+     */
+    public void sync() {
+        if (!journalAvailable) {
+            return;
+        }
+        // 与压缩互斥：压缩会切换日志文件，切换后旧文件上未完成的刷盘不能算作新文件的进度
+        lock.readLock().lock();
+        try {
+            journal.flush();
+        } catch (IOException e) {
+            log.warn("同步日志刷盘失败: {}", e.getMessage());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 记录已写入服务商
+     */
+    public void markApplied(RecordConfig record, String ip, String recordId) {
+        long now = System.currentTimeMillis();
+        RecordState state = new RecordState(ip, recordId, now, now);
+        update(key(record), state, JournalEntry.applied(key(record), state));
+    }
+
+    /**
+     * 记录值已从服务商确认，无需写入
+     */
+    public void markVerified(RecordConfig record, String ip, String recordId) {
+        long now = System.currentTimeMillis();
+        RecordState previous = states.get(key(record));
+        long updatedAt = previous != null && IPAddressUtil.isSameAddress(ip, previous.ip()) ? previous.updatedAt() : now;
+        String id = recordId != null ? recordId : previous != null ? previous.recordId() : null;
+        RecordState state = new RecordState(ip, id, updatedAt, now);
+        update(key(record), state, JournalEntry.verified(key(record), state));
+    }
+
+    /**
+     * 清除记录状态，下次同步时强制查询服务商
+     */
+    public void invalidate(RecordConfig record) {
+        String key = key(record);
+        update(key, null, JournalEntry.invalidated(key, System.currentTimeMillis()));
+    }
+
+    /**
+     * 清除所有记录状态并等待落盘，用于记录可能已被其他节点修改时（如重新成为主节点）
+     */
+    public void invalidateAll() {
+        long now = System.currentTimeMillis();
+        lock.readLock().lock();
+        try {
+            for (String key : states.keySet()) {
+                states.remove(key);
+                append(JournalEntry.invalidated(key, now));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        // 落盘后重启也不会恢复这些可能已过时的状态
+        sync();
+        if (journalAvailable && journal.size() >= stateConfig.getCompactThreshold()) {
+            compact();
+        }
+    }
+
+    private void update(String key, RecordState state, JournalEntry entry) {
+        lock.readLock().lock();
+        try {
+            if (state != null) {
+                states.put(key, state);
+            } else {
+                states.remove(key);
+            }
+            // 这些记录丢失只会导致重启后多查询一次服务商，随下一次刷盘落盘即可
+            append(entry);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (journalAvailable && journal.size() >= stateConfig.getCompactThreshold()) {
+            compact();
+        }
+    }
+
+    private void append(JournalEntry entry) {
+        if (!journalAvailable) {
+            return;
+        }
+        try {
+            journal.append(entry);
+        } catch (IOException e) {
+            log.warn("写入同步日志失败: {}", e.getMessage());
+        }
+    }
+
+    private void load() {
+        Path file = Path.of(stateConfig.getFile());
+        if (!Files.exists(file)) {
+            return;
+        }
+        try {
+            Map<String, RecordState> loaded = objectMapper.readValue(file.toFile(), new TypeReference<>() {
+            });
+            states.putAll(loaded);
+            log.info("已加载 {} 条记录同步状态: {}", loaded.size(), file);
+        } catch (IOException e) {
+            log.warn("读取记录同步状态失败，将重新查询所有记录: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 回放同步日志，找出上次退出时未完成的写入
+     */
+    private void replay() {
+        Map<String, JournalEntry> interrupted = new LinkedHashMap<>();
+        int count;
+        try {
+            count = journal.open(entry -> {
+                switch (entry.type()) {
+                    case INTENT -> {
+                        states.remove(entry.key());
+                        interrupted.put(entry.key(), entry);
+                    }
+                    case APPLIED, VERIFIED -> {
+                        states.put(entry.key(), entry.toState());
+                        interrupted.remove(entry.key());
+                    }
+                    case INVALIDATED -> {
+                        states.remove(entry.key());
+                        interrupted.remove(entry.key());
+                    }
+                }
+            });
+            journalAvailable = true;
+        } catch (IOException e) {
+            log.warn("打开同步日志失败，记录同步状态只保存在内存中: {}", e.getMessage());
+            return;
+        }
+        if (count == 0) {
+            return;
+        }
+        log.info("已回放 {} 条同步日志，当前 {} 条记录同步状态", count, states.size());
+        interrupted.values().forEach(entry -> log.warn("{} 上次退出时正在更新为 {}，首次同步时将重新查询服务商",
+                entry.key(), entry.ip()));
+        compact();
+    }
+
+    /**
+     * 压缩日志：当前状态写入状态文件并落盘后，日志另起新文件
+     */
+    private void compact() {
+        lock.writeLock().lock();
+        try {
+            if (journal.size() == 0) {
+                return;
+            }
+            int entries = journal.size();
+            journal.flush();
+            save();
+            journal.rotate();
+            log.debug("同步日志已压缩，{} 条日志合并为 {} 条记录同步状态", entries, states.size());
+        } catch (IOException e) {
+            // 状态文件与日志都保持原样，下一次写入时重试
+            log.warn("压缩同步日志失败: {}", e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void save() throws IOException {
+        Path file = Path.of(stateConfig.getFile());
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) {
+            Files.createDirectories(dir);
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        byte[] content = objectMapper.writeValueAsBytes(new TreeMap<>(states));
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(content);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @PreDestroy
+    public void close() {
+        try {
+            journal.close();
+        } catch (IOException e) {
+            log.warn("关闭同步日志失败: {}", e.getMessage());
+        }
+    }
+}
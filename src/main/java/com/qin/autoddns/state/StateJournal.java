@@ -0,0 +1,203 @@
+package com.qin.autoddns.state;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * 只追加的同步日志
+ * 每条 {@link JournalEntry} 编码为一行JSON追加到文件末尾，调用 {@link #flush()} 后落盘。
+ * 刷盘采用组提交：并发刷盘的线程排队等待，排在前面的线程一次 force 覆盖此前所有已写入的内容，
+ * 后面的线程发现自己写入的内容已落盘后直接返回，一次同步中并发写入的多条记录通常只需一次 fsync。
+ * <p>
+ * 崩溃可能在文件末尾留下不完整的一行，回放时读到第一条无法解析的记录即停止，并截掉之后的内容
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+public class StateJournal implements Closeable {
+    private final Logger log = LoggerFactory.getLogger(StateJournal.class);
+
+    private final Path file;
+    private final ObjectMapper objectMapper;
+    // 保护写入和文件切换
+    private final ReentrantLock writeLock = new ReentrantLock();
+    // 同一时间只有一个线程刷盘，其余线程等待后检查自己的记录是否已被一并刷盘；切换文件时也持有，
+    // 避免刷盘落到已关闭的旧文件，或把旧文件的刷盘进度记到新文件上
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private FileChannel channel;
+    private volatile long written; // 已写入的字节数
+    private volatile long synced; // 已刷盘的字节数
+    private int entries; // 当前文件的记录数
+    private long syncs; // 累计刷盘次数
+
+    public StateJournal(Path file, ObjectMapper objectMapper) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 打开日志并按顺序回放已有记录，之后才能追加
+     *
+     * @param consumer 接收每条记录
+     * @return 回放的记录数
+     */
+    public int open(Consumer<JournalEntry> consumer) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) {
+            Files.createDirectories(dir);
+        }
+        byte[] content = Files.exists(file) ? Files.readAllBytes(file) : new byte[0];
+        int valid = 0;
+        int count = 0;
+        for (int end; valid < content.length && (end = indexOf(content, valid)) >= 0; valid = end + 1) {
+            JournalEntry entry;
+            try {
+                entry = objectMapper.readValue(content, valid, end - valid, JournalEntry.class);
+            } catch (IOException e) {
+                log.warn("同步日志在偏移 {} 处损坏，丢弃之后的内容: {}", valid, e.getMessage());
+                break;
+            }
+            consumer.accept(entry);
+            count++;
+        }
+        if (valid < content.length) {
+            log.warn("同步日志末尾有 {} 字节不完整的记录，已丢弃", content.length - valid);
+        }
+        writeLock.lock();
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            channel.truncate(valid);
+            channel.position(valid);
+            channel.force(true);
+            written = valid;
+            synced = valid;
+            entries = count;
+        } finally {
+            writeLock.unlock();
+        }
+        return count;
+    }
+
+    private static int indexOf(byte[] content, int from) {
+        for (int i = from; i < content.length; i++) {
+            if (content[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 追加一条记录，随下一次 {@link #flush()} 落盘
+     */
+    public void append(JournalEntry entry) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(entry);
+        ByteBuffer buffer = ByteBuffer.allocate(json.length + 1).put(json).put((byte) '\n').flip();
+        writeLock.lock();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            written += json.length + 1;
+            entries++;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 把调用前已写入的内容全部刷盘
+     */
+    public void flush() throws IOException {
+        long position = written;
+        if (synced >= position) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            // 等锁期间前一个线程可能已经把这些内容一并刷盘
+            if (synced >= position) {
+                return;
+            }
+            long target = written;
+            channel.force(false);
+            synced = target;
+            syncs++;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * 开始新的日志文件，旧文件保留为 .1 作为审计记录
+     * 调用前状态快照必须已经落盘，调用期间不能有并发追加
+     */
+    public void rotate() throws IOException {
+        syncLock.lock();
+        writeLock.lock();
+        try {
+            channel.close();
+            Files.move(file, file.resolveSibling(file.getFileName() + ".1"),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            forceDirectory();
+            written = 0;
+            synced = 0;
+            entries = 0;
+        } finally {
+            writeLock.unlock();
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * 刷新目录项，使文件的创建和重命名在断电后依然有效；部分平台不支持打开目录，忽略即可
+     */
+    private void forceDirectory() {
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir == null) {
+            return;
+        }
+        try (FileChannel dirChannel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            dirChannel.force(true);
+        } catch (IOException e) {
+            log.debug("无法刷新目录 {}: {}", dir, e.getMessage());
+        }
+    }
+
+    /**
+     * 当前文件的记录数
+     */
+    public int size() {
+        return entries;
+    }
+
+    public long getSyncs() {
+        return syncs;
+    }
+
+    @Override
+    public void close() throws IOException {
+        writeLock.lock();
+        try {
+            if (channel != null && channel.isOpen()) {
+                channel.force(false);
+                channel.close();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
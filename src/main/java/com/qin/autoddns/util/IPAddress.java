@@ -0,0 +1,364 @@
+package com.qin.autoddns.util;
+
+import com.qin.autoddns.enums.IPFamily;
+
+/**
+ * 紧凑的IP地址值类型：IPv4 存放在 low 的低32位，IPv6 的高64位和低64位分别存放在 high 和 low。
+ * <p>
+ * 解析器逐字符扫描，不使用正则、不截取子串、不经过 {@link java.net.InetAddress}，
+ * 非法输入不产生任何对象，合法输入只创建结果本身。
+ * 同一地址的不同写法（IPv6 零压缩、大小写、前导零）解析后相等，可直接用于比较和作为缓存键，
+ * {@link #toString()} 输出规范写法（IPv6 按 RFC 5952）。
+ *
+ * @param family 地址族
+ * @param high   IPv6 高64位，IPv4 为0
+ * @param low    IPv6 低64位，IPv4 为32位地址（无符号）
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+public record IPAddress(IPFamily family, long high, long low) implements Comparable<IPAddress> {
+
+    private static final long INVALID = -1L;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * 解析IPv4或IPv6地址
+     *
+     * @param text 地址文本，IPv6 可带 %网卡 后缀
+     * @return 地址，格式不正确时返回null
+     */
+    public static IPAddress parse(CharSequence text) {
+        if (text == null) {
+            return null;
+        }
+        return indexOf(text, ':', 0, text.length()) >= 0 ? parseIPv6(text) : parseIPv4(text);
+    }
+
+    /**
+     * 按地址族解析地址
+     *
+     * @return 地址，格式不正确或地址族不符时返回null
+     */
+    public static IPAddress parse(CharSequence text, IPFamily family) {
+        if (text == null) {
+            return null;
+        }
+        return family == IPFamily.IPV6 ? parseIPv6(text) : parseIPv4(text);
+    }
+
+    public static IPAddress parseIPv4(CharSequence text) {
+        long bits = text != null ? ipv4Bits(text, 0, text.length()) : INVALID;
+        return bits == INVALID ? null : new IPAddress(IPFamily.IPV4, 0, bits);
+    }
+
+    public static IPAddress parseIPv6(CharSequence text) {
+        if (text == null) {
+            return null;
+        }
+        int end = indexOf(text, '%', 0, text.length());
+        // 网卡后缀不能为空
+        if (end == 0 || end == text.length() - 1) {
+            return null;
+        }
+        return ipv6(text, 0, end < 0 ? text.length() : end);
+    }
+
+    public static boolean isValidIPv4(CharSequence text) {
+        return text != null && ipv4Bits(text, 0, text.length()) != INVALID;
+    }
+
+    public static boolean isValidIPv6(CharSequence text) {
+        return parseIPv6(text) != null;
+    }
+
+    /**
+     * 从网卡地址的原始字节构造
+     *
+     * @param bytes 4字节或16字节地址
+     */
+    public static IPAddress fromBytes(byte[] bytes) {
+        if (bytes.length == 4) {
+            return new IPAddress(IPFamily.IPV4, 0, readLong(bytes, 0, 4));
+        }
+        if (bytes.length == 16) {
+            return new IPAddress(IPFamily.IPV6, readLong(bytes, 0, 8), readLong(bytes, 8, 8));
+        }
+        throw new IllegalArgumentException("Invalid address length: " + bytes.length);
+    }
+
+    private static long readLong(byte[] bytes, int offset, int length) {
+        long value = 0;
+        for (int i = offset; i < offset + length; i++) {
+            value = (value << 8) | (bytes[i] & 0xFF);
+        }
+        return value;
+    }
+
+    public boolean isIPv4() {
+        return family == IPFamily.IPV4;
+    }
+
+    /**
+     * 是否为IPv6全球单播地址（2000::/3）
+     */
+    public boolean isGlobalUnicast() {
+        return family == IPFamily.IPV6 && (high >>> 61) == 1;
+    }
+
+    @Override
+    public int compareTo(IPAddress other) {
+        int result = family.compareTo(other.family);
+        if (result == 0) {
+            result = Long.compareUnsigned(high, other.high);
+        }
+        return result != 0 ? result : Long.compareUnsigned(low, other.low);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder(family == IPFamily.IPV4 ? 15 : 39);
+        if (family == IPFamily.IPV4) {
+            appendIPv4(out, low);
+        } else {
+            appendIPv6(out);
+        }
+        return out.toString();
+    }
+
+    /**
+     * 解析 [from, to) 范围内的点分十进制IPv4地址
+     *
+     * @return 32位地址，格式不正确时返回 {@link #INVALID}
+     */
+    private static long ipv4Bits(CharSequence text, int from, int to) {
+        long bits = 0;
+        int octets = 0;
+        int value = 0;
+        int digits = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                // 不接受多位数的前导零，避免与八进制写法混淆
+                if (digits == 1 && value == 0) {
+                    return INVALID;
+                }
+                value = value * 10 + (c - '0');
+                if (value > 255) {
+                    return INVALID;
+                }
+                digits++;
+            } else if (c == '.' && digits > 0 && octets < 3) {
+                bits = (bits << 8) | value;
+                octets++;
+                value = 0;
+                digits = 0;
+            } else {
+                return INVALID;
+            }
+        }
+        if (digits == 0 || octets != 3) {
+            return INVALID;
+        }
+        return (bits << 8) | value;
+    }
+
+    /**
+     * 解析 [from, to) 范围内的IPv6地址，支持 :: 压缩和末尾内嵌IPv4写法。
+     * :: 之前和之后的分组分别累加到两个128位寄存器中，结束时把前半部分左移到高位后合并
+     */
+    private static IPAddress ipv6(CharSequence text, int from, int to) {
+        if (to - from < 2) {
+            return null;
+        }
+        long headHigh = 0;
+        long headLow = 0;
+        long tailHigh = 0;
+        long tailLow = 0;
+        int headGroups = 0;
+        int tailGroups = 0;
+        boolean compressed = false;
+
+        int i = from;
+        if (text.charAt(i) == ':') {
+            // 只允许以 :: 开头
+            if (text.charAt(i + 1) != ':') {
+                return null;
+            }
+            compressed = true;
+            i += 2;
+        }
+        while (i < to) {
+            int groupStart = i;
+            int value = 0;
+            while (i < to && i - groupStart < 5) {
+                int digit = hexDigit(text.charAt(i));
+                if (digit < 0) {
+                    break;
+                }
+                value = (value << 4) | digit;
+                i++;
+            }
+            int groups = headGroups + tailGroups;
+            if (i < to && text.charAt(i) == '.') {
+                // 末尾内嵌的IPv4地址占两个分组
+                long v4 = ipv4Bits(text, groupStart, to);
+                if (v4 == INVALID || groups > 6) {
+                    return null;
+                }
+                if (compressed) {
+                    tailHigh = (tailHigh << 32) | (tailLow >>> 32);
+                    tailLow = (tailLow << 32) | v4;
+                    tailGroups += 2;
+                } else {
+                    headHigh = (headHigh << 32) | (headLow >>> 32);
+                    headLow = (headLow << 32) | v4;
+                    headGroups += 2;
+                }
+                i = to;
+                break;
+            }
+            int length = i - groupStart;
+            if (length == 0 || length > 4 || groups >= 8) {
+                return null;
+            }
+            if (compressed) {
+                tailHigh = (tailHigh << 16) | (tailLow >>> 48);
+                tailLow = (tailLow << 16) | value;
+                tailGroups++;
+            } else {
+                headHigh = (headHigh << 16) | (headLow >>> 48);
+                headLow = (headLow << 16) | value;
+                headGroups++;
+            }
+            if (i == to) {
+                break;
+            }
+            if (text.charAt(i) != ':') {
+                return null;
+            }
+            i++;
+            if (i < to && text.charAt(i) == ':') {
+                if (compressed) {
+                    return null;
+                }
+                compressed = true;
+                i++;
+            } else if (i == to) {
+                // 不允许以单个 : 结尾
+                return null;
+            }
+        }
+
+        int groups = headGroups + tailGroups;
+        if (!compressed) {
+            return groups == 8 ? new IPAddress(IPFamily.IPV6, headHigh, headLow) : null;
+        }
+        if (groups > 7) {
+            return null;
+        }
+        // 前半部分左移到高位，:: 处补零
+        int shift = 16 * (8 - headGroups);
+        long high;
+        long low;
+        if (shift >= 128) {
+            high = 0;
+            low = 0;
+        } else if (shift >= 64) {
+            high = headLow << (shift - 64);
+            low = 0;
+        } else {
+            high = (headHigh << shift) | (headLow >>> (64 - shift));
+            low = headLow << shift;
+        }
+        return new IPAddress(IPFamily.IPV6, high | tailHigh, low | tailLow);
+    }
+
+    /**
+     * 只接受ASCII十六进制数字，{@link Character#digit(char, int)} 会把全角、阿拉伯-印度数字等也当作数字
+     *
+     * @return 数值，不是十六进制数字时返回-1
+     */
+    private static int hexDigit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+
+    private static int indexOf(CharSequence text, char c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (text.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void appendIPv4(StringBuilder out, long bits) {
+        out.append((bits >>> 24) & 0xFF).append('.')
+                .append((bits >>> 16) & 0xFF).append('.')
+                .append((bits >>> 8) & 0xFF).append('.')
+                .append(bits & 0xFF);
+    }
+
+    /**
+     * 按 RFC 5952 输出：小写、省略前导零、压缩最长的连续零分组（至少两组，长度相同取第一个），
+     * IPv4 映射地址输出为 ::ffff:a.b.c.d
+     */
+    private void appendIPv6(StringBuilder out) {
+        if (high == 0 && (low >>> 32) == 0xFFFFL) {
+            out.append("::ffff:");
+            appendIPv4(out, low & 0xFFFFFFFFL);
+            return;
+        }
+        int bestStart = -1;
+        int bestLength = 1;
+        int runStart = -1;
+        for (int i = 0; i < 8; i++) {
+            if (group(i) == 0) {
+                if (runStart < 0) {
+                    runStart = i;
+                }
+                if (i - runStart + 1 > bestLength) {
+                    bestStart = runStart;
+                    bestLength = i - runStart + 1;
+                }
+            } else {
+                runStart = -1;
+            }
+        }
+        for (int i = 0; i < 8; i++) {
+            if (i == bestStart) {
+                out.append("::");
+                i += bestLength - 1;
+                continue;
+            }
+            if (i > 0 && i != bestStart + bestLength) {
+                out.append(':');
+            }
+            appendHex(out, group(i));
+        }
+    }
+
+    private int group(int index) {
+        long half = index < 4 ? high : low;
+        return (int) (half >>> (16 * (3 - (index & 3)))) & 0xFFFF;
+    }
+
+    private static void appendHex(StringBuilder out, int value) {
+        boolean started = false;
+        for (int shift = 12; shift >= 0; shift -= 4) {
+            int digit = (value >>> shift) & 0xF;
+            if (digit != 0 || started || shift == 0) {
+                out.append(HEX[digit]);
+                started = true;
+            }
+        }
+    }
+}
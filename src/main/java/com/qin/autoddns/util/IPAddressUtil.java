@@ -1,16 +1,35 @@
 package com.qin.autoddns.util;
 
+import com.qin.autoddns.enums.IPFamily;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.util.StringUtils;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.net.SocketException;
 import java.net.URI;
-import java.net.URISyntaxException;
-import java.util.regex.Pattern;
+import java.net.UnknownHostException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * IP地址工具类
@@ -21,14 +40,14 @@ import java.util.regex.Pattern;
 public class IPAddressUtil {
     private static final Logger logger = LoggerFactory.getLogger(IPAddressUtil.class);
 
-    // IP地址验证正则表达式
-    private static final Pattern IP_PATTERN = Pattern.compile(
-            "^((25[0-5]|2[0-4][0-9]|[01]?[0-9][0-9]?)\\.){3}(25[0-5]|2[0-4][0-9]|[01]?[0-9][0-9]?)$");
-
     // 连接超时时间（毫秒）
     private static final int CONNECT_TIMEOUT = 5000;
     // 读取超时时间（毫秒）
     private static final int READ_TIMEOUT = 5000;
+    // 每次连续失败计入的评分惩罚（毫秒）
+    private static final double FAILURE_PENALTY = 2000;
+    // 延迟滑动平均的权重
+    private static final double LATENCY_EWMA_ALPHA = 0.3;
 
     // 定义多个提供公网IP查询的服务
     private static final String[] IP_SERVICES = {
@@ -38,8 +57,49 @@ public class IPAddressUtil {
             "http://ipinfo.io/ip"
     };
 
-    // 缓存上一次获取的公网IP地址
-    private static String cachedIP = null;
+    // 仅通过IPv6访问的公网IP查询服务（域名只有AAAA记录，返回的即是本机IPv6出口地址）
+    private static final String[] IPV6_SERVICES = {
+            "https://api6.ipify.org",
+            "https://ipv6.icanhazip.com",
+            "https://v6.ident.me"
+    };
+
+    // 默认HTTP客户端，应用启动后替换为共享的HttpClient
+    private static volatile HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofMillis(CONNECT_TIMEOUT))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+
+    // 对冲请求的定时器
+    private static final ScheduledExecutorService HEDGE_SCHEDULER = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("ip-hedge").daemon().factory());
+
+    // IP查询结果监听器
+    private static volatile LookupListener lookupListener;
+
+    // 各查询服务的延迟/错误评分
+    private static final Map<String, SourceScore> SOURCE_SCORES = new ConcurrentHashMap<>();
+
+    // 缓存上一次获取的各地址族公网IP地址
+    private static final Map<IPFamily, String> CACHED_IPS = new ConcurrentHashMap<>();
+
+    /**
+     * 设置IP查询结果的监听器，用于统计各查询服务的耗时
+     *
+     * @param listener 监听器
+     */
+    public static void setLookupListener(LookupListener listener) {
+        lookupListener = listener;
+    }
+
+    /**
+     * 设置查询公网IP使用的HTTP客户端，与服务商API共用连接池
+     *
+     * @param client HTTP客户端
+     */
+    public static void setHttpClient(HttpClient client) {
+        httpClient = client;
+    }
 
     /**
      * 验证IP地址格式是否正确
@@ -48,80 +108,449 @@ public class IPAddressUtil {
      * @return 是否是有效的IP地址
      */
     public static boolean isValidIP(String ip) {
-        return ip != null && IP_PATTERN.matcher(ip).matches();
+        return IPAddress.isValidIPv4(ip);
+    }
+
+    /**
+     * 验证IPv6地址格式是否正确，支持压缩写法和内嵌IPv4的写法
+     *
+     * @param ip IP地址
+     * @return 是否是有效的IPv6地址
+     */
+    public static boolean isValidIPv6(String ip) {
+        return IPAddress.isValidIPv6(ip);
+    }
+
+    /**
+     * 按地址族验证IP地址格式
+     *
+     * @param ip     IP地址
+     * @param family 地址族
+     * @return 是否是该地址族的有效地址
+     */
+    public static boolean isValidIP(String ip, IPFamily family) {
+        return family == IPFamily.IPV6 ? isValidIPv6(ip) : isValidIP(ip);
+    }
+
+    /**
+     * 判断两个IP地址是否相同，按数值比较，忽略IPv6压缩写法和大小写差异
+     *
+     * @param a IP地址
+     * @param b IP地址
+     * @return 是否为同一地址
+     */
+    public static boolean isSameAddress(String a, String b) {
+        if (a == null || b == null) {
+            return false;
+        }
+        if (a.equals(b)) {
+            return true;
+        }
+        IPAddress left = IPAddress.parse(a);
+        return left != null && left.equals(IPAddress.parse(b));
+    }
+
+    /**
+     * 转换为规范写法，无法解析时原样返回
+     *
+     * @param ip IP地址
+     * @return 规范写法的IP地址
+     */
+    public static String normalize(String ip) {
+        IPAddress address = IPAddress.parse(ip);
+        return address != null ? address.toString() : ip;
+    }
+
+    /**
+     * 获取地址族的默认查询服务列表
+     *
+     * @param family 地址族
+     * @return 查询服务URL列表
+     */
+    public static List<String> defaultServices(IPFamily family) {
+        return Arrays.asList(family == IPFamily.IPV6 ? IPV6_SERVICES : IP_SERVICES);
     }
 
     /**
-     * 尝试从多个服务获取公网IP地址，并更新缓存
+     * 按评分顺序依次尝试各服务获取公网IPv4地址，并更新缓存
      *
      * @return 公网IP地址，如果所有服务都不可用则返回 null
      */
     public static String getPublicIP() {
-        for (String service : IP_SERVICES) {
-            String ip = getIPFromService(service);
+        return getPublicIP(IPFamily.IPV4, defaultServices(IPFamily.IPV4));
+    }
+
+    /**
+     * 按评分顺序依次尝试各服务获取指定地址族的公网IP地址，并更新缓存
+     *
+     * @param family   地址族
+     * @param services 查询服务URL列表
+     * @return 公网IP地址，如果所有服务都不可用则返回 null
+     */
+    public static String getPublicIP(IPFamily family, List<String> services) {
+        for (String service : rankedServices(services)) {
+            String ip = getIPFromService(service, family);
             if (ip != null) {
-                updateIPCache(ip);
+                updateIPCache(family, ip);
                 return ip;
             }
         }
-        logger.error("无法从任何服务获取公网IP地址");
+        logger.error("无法从任何服务获取公网{}地址", family.getDesc());
         return null;
     }
 
     /**
-     * 从指定服务获取IP地址
+     * 对冲模式获取公网IP地址
+     * 先请求评分最高的服务，每隔 hedgeDelay 毫秒（或前一个请求失败时立即）启动下一个服务，
+     * 取第一个有效结果并取消其余请求
      *
-     * @param service 服务URL
-     * @return IP地址，如果获取失败返回null
+     * @param hedgeDelay 启动下一个服务前的等待时间（毫秒）
+     * @return 公网IPv4地址，如果所有服务都不可用则返回 null
+     */
+    public static String getPublicIPHedged(long hedgeDelay) {
+        return getPublicIPHedged(IPFamily.IPV4, defaultServices(IPFamily.IPV4), hedgeDelay);
+    }
+
+    /**
+     * 对冲模式获取指定地址族的公网IP地址
+     *
+     * @param family     地址族
+     * @param services   查询服务URL列表
+     * @param hedgeDelay 启动下一个服务前的等待时间（毫秒）
+     * @return 公网IP地址，如果所有服务都不可用则返回 null
+     */
+    public static String getPublicIPHedged(IPFamily family, List<String> services, long hedgeDelay) {
+        HedgedLookup lookup = new HedgedLookup(family, rankedServices(services), hedgeDelay);
+        lookup.launchNext();
+        String ip;
+        try {
+            ip = lookup.result.get(CONNECT_TIMEOUT + READ_TIMEOUT, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            ip = null;
+        } catch (ExecutionException | TimeoutException e) {
+            ip = null;
+        } finally {
+            lookup.cancelAll();
+        }
+        if (ip != null) {
+            updateIPCache(family, ip);
+            return ip;
+        }
+        logger.error("无法从任何服务获取公网{}地址", family.getDesc());
+        return null;
+    }
+
+    /**
+     * 获取本机所有已启用网卡上可作为DDNS记录值的地址，用于检测网卡地址变化，开销很小，可高频调用。
+     * 私有地址、docker0/veth 等虚拟网卡上的内网地址不影响DNS记录，不计入；
+     * IPv6 只取全球单播地址的 /64 前缀，临时地址（RFC 8981）在同一前缀内定期轮换，不算作变化
+     *
+     * @param families 需要比较的地址族，即配置了记录的地址族
+     * @return 地址集合，IPv4 为地址，IPv6 为 前缀/64
      */
-    private static String getIPFromService(String service) {
-        HttpURLConnection connection = null;
+    public static Set<String> getLocalAddresses(Set<IPFamily> families) {
+        Set<String> addresses = new TreeSet<>();
         try {
-            connection = (HttpURLConnection) new URI(service).toURL().openConnection();
-            connection.setConnectTimeout(CONNECT_TIMEOUT);
-            connection.setReadTimeout(READ_TIMEOUT);
-
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()))) {
-                String ip = reader.readLine();
-                if (StringUtils.hasText(ip)) {
-                    ip = ip.trim();
-                    if (isValidIP(ip)) {
+            var interfaces = NetworkInterface.getNetworkInterfaces();
+            while (interfaces != null && interfaces.hasMoreElements()) {
+                NetworkInterface networkInterface = interfaces.nextElement();
+                if (!networkInterface.isUp() || networkInterface.isLoopback()) {
+                    continue;
+                }
+                var inetAddresses = networkInterface.getInetAddresses();
+                while (inetAddresses.hasMoreElements()) {
+                    IPAddress address = IPAddress.fromBytes(inetAddresses.nextElement().getAddress());
+                    if (!families.contains(address.family()) || !isPublicAddress(address)) {
+                        continue;
+                    }
+                    addresses.add(address.isIPv4() ? address.toString()
+                            : new IPAddress(IPFamily.IPV6, address.high(), 0) + "/64");
+                }
+            }
+        } catch (SocketException e) {
+            logger.warn("读取网卡地址失败: {}", e.getMessage());
+        }
+        return addresses;
+    }
+
+    /**
+     * 从本机网卡获取公网IPv4地址（如拨号上网的路由器或有公网地址的服务器）
+     *
+     * @return 公网IP地址，如果网卡上没有公网地址则返回 null
+     */
+    public static String getLocalPublicIP() {
+        return getLocalPublicIP(IPFamily.IPV4);
+    }
+
+    /**
+     * 从本机网卡获取指定地址族的公网地址。
+     * IPv6 只取全球单播地址（2000::/3），排除唯一本地地址和链路本地地址
+     *
+     * @param family 地址族
+     * @return 公网IP地址，如果网卡上没有公网地址则返回 null
+     */
+    public static String getLocalPublicIP(IPFamily family) {
+        try {
+            var interfaces = NetworkInterface.getNetworkInterfaces();
+            while (interfaces != null && interfaces.hasMoreElements()) {
+                NetworkInterface networkInterface = interfaces.nextElement();
+                if (!networkInterface.isUp() || networkInterface.isLoopback()) {
+                    continue;
+                }
+                var inetAddresses = networkInterface.getInetAddresses();
+                while (inetAddresses.hasMoreElements()) {
+                    InetAddress address = inetAddresses.nextElement();
+                    boolean matches = family == IPFamily.IPV6
+                            ? address instanceof Inet6Address && IPAddress.fromBytes(address.getAddress()).isGlobalUnicast()
+                            : address instanceof Inet4Address && isPublicAddress(address);
+                    if (matches) {
+                        // getHostAddress 输出未压缩的IPv6写法，统一转换为规范写法
+                        String ip = IPAddress.fromBytes(address.getAddress()).toString();
+                        updateIPCache(family, ip);
                         return ip;
-                    } else {
-                        logger.warn("从服务 {} 获取到无效的IP地址: {}", service, ip);
                     }
                 }
             }
-        } catch (IOException e) {
+        } catch (SocketException e) {
+            logger.warn("读取网卡地址失败: {}", e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * 判断地址能否作为DDNS记录值：IPv4须为公网地址，IPv6须为全球单播地址
+     */
+    public static boolean isPublicAddress(IPAddress address) {
+        if (address.family() == IPFamily.IPV6) {
+            return address.isGlobalUnicast();
+        }
+        try {
+            // 字面量地址不会触发DNS查询
+            return isPublicAddress(InetAddress.getByName(address.toString()));
+        } catch (UnknownHostException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 判断是否为公网地址（排除私有、回环、链路本地、组播及运营商级NAT 100.64.0.0/10 地址）
+     */
+    private static boolean isPublicAddress(InetAddress address) {
+        if (address.isSiteLocalAddress() || address.isLoopbackAddress() || address.isLinkLocalAddress()
+                || address.isAnyLocalAddress() || address.isMulticastAddress()) {
+            return false;
+        }
+        byte[] bytes = address.getAddress();
+        return !(bytes.length == 4 && (bytes[0] & 0xFF) == 100 && (bytes[1] & 0xC0) == 64);
+    }
+
+    /**
+     * 按评分排序的查询服务列表，评分越低越优先，未评分的服务保持配置顺序
+     */
+    private static List<String> rankedServices(List<String> configured) {
+        List<String> services = new ArrayList<>(configured);
+        services.sort(Comparator.comparingDouble(service -> {
+            SourceScore score = SOURCE_SCORES.get(service);
+            return score != null ? score.score() : 0;
+        }));
+        return services;
+    }
+
+    /**
+     * 从指定服务获取IP地址
+     *
+     * @param service 服务URL
+     * @param family  地址族
+     * @return IP地址，如果获取失败返回null
+     */
+    private static String getIPFromService(String service, IPFamily family) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = httpClient.send(buildRequest(service), HttpResponse.BodyHandlers.ofString());
+            return recordResult(service, family, start, parseResponse(service, family, response));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
             logger.warn("服务 {} 不可用: {}", service, e.getMessage());
-        } catch (URISyntaxException e) {
-            logger.error("服务URL格式错误: {}", service, e);
-        } finally {
-            if (connection != null) {
-                connection.disconnect();
-            }
+            return recordResult(service, family, start, null);
+        }
+    }
+
+    private static HttpRequest buildRequest(String service) {
+        // 查询服务多为明文HTTP，固定使用HTTP/1.1，避免h2c升级协商
+        return HttpRequest.newBuilder(URI.create(service))
+                .version(HttpClient.Version.HTTP_1_1)
+                .timeout(Duration.ofMillis(READ_TIMEOUT))
+                .GET()
+                .build();
+    }
+
+    private static String parseResponse(String service, IPFamily family, HttpResponse<String> response) {
+        if (response.statusCode() != 200) {
+            logger.warn("服务 {} 返回异常状态码: {}", service, response.statusCode());
+            return null;
+        }
+        String body = response.body();
+        if (!StringUtils.hasText(body)) {
+            return null;
+        }
+        String ip = body.lines().findFirst().orElse("").trim();
+        IPAddress address = IPAddress.parse(ip, family);
+        if (address != null) {
+            // 不同服务返回的写法可能不同，统一为规范写法后再比较和缓存
+            return address.toString();
         }
+        logger.warn("从服务 {} 获取到无效的IP地址: {}", service, ip);
         return null;
     }
 
+    private static String recordResult(String service, IPFamily family, long startNanos, String ip) {
+        long elapsed = System.nanoTime() - startNanos;
+        SourceScore score = SOURCE_SCORES.computeIfAbsent(service, key -> new SourceScore());
+        if (ip != null) {
+            score.recordSuccess(elapsed / 1_000_000.0);
+        } else {
+            score.recordFailure();
+        }
+        LookupListener listener = lookupListener;
+        if (listener != null) {
+            listener.onLookup(service, family, ip != null, elapsed);
+        }
+        return ip;
+    }
+
     /**
      * 更新IP地址缓存
      *
-     * @param newIP 新的IP地址
+     * @param family 地址族
+     * @param newIP  新的IP地址
      */
-    private static void updateIPCache(String newIP) {
-        if (!newIP.equals(cachedIP)) {
-            logger.info("IP地址发生变化: {} -> {}", cachedIP, newIP);
-            cachedIP = newIP;
+    private static void updateIPCache(IPFamily family, String newIP) {
+        String previous = CACHED_IPS.put(family, newIP);
+        if (!newIP.equals(previous)) {
+            logger.info("{}地址发生变化: {} -> {}", family.getDesc(), previous, newIP);
         }
     }
 
     /**
-     * 获取当前缓存的IP地址
+     * 获取当前缓存的IPv4地址
      *
      * @return 缓存的IP地址，如果没有则返回null
      */
     public static String getCachedIP() {
-        return cachedIP;
+        return getCachedIP(IPFamily.IPV4);
+    }
+
+    /**
+     * 获取当前缓存的指定地址族IP地址
+     *
+     * @param family 地址族
+     * @return 缓存的IP地址，如果没有则返回null
+     */
+    public static String getCachedIP(IPFamily family) {
+        return CACHED_IPS.get(family);
+    }
+
+    /**
+     * IP查询结果监听器
+     */
+    @FunctionalInterface
+    public interface LookupListener {
+        /**
+         * @param service 查询服务URL
+         * @param family  地址族
+         * @param success 是否获取到有效地址
+         * @param nanos   耗时（纳秒）
+         */
+        void onLookup(String service, IPFamily family, boolean success, long nanos);
+    }
+
+    /**
+     * 查询服务评分：延迟的滑动平均加上连续失败惩罚
+     */
+    private static final class SourceScore {
+        private double latencyMillis;
+        private int consecutiveFailures;
+
+        synchronized void recordSuccess(double millis) {
+            latencyMillis = latencyMillis == 0 ? millis
+                    : LATENCY_EWMA_ALPHA * millis + (1 - LATENCY_EWMA_ALPHA) * latencyMillis;
+            consecutiveFailures = 0;
+        }
+
+        synchronized void recordFailure() {
+            consecutiveFailures++;
+        }
+
+        synchronized double score() {
+            return latencyMillis + consecutiveFailures * FAILURE_PENALTY;
+        }
+    }
+
+    /**
+     * 一次对冲查询的状态
+     */
+    private static final class HedgedLookup {
+        private final IPFamily family;
+        private final List<String> services;
+        private final long hedgeDelay;
+        private final CompletableFuture<String> result = new CompletableFuture<>();
+        private final List<CompletableFuture<HttpResponse<String>>> inFlight = new ArrayList<>();
+        private int next;
+        private int pending;
+
+        HedgedLookup(IPFamily family, List<String> services, long hedgeDelay) {
+            this.family = family;
+            this.services = services;
+            this.hedgeDelay = hedgeDelay;
+        }
+
+        synchronized void launchNext() {
+            if (result.isDone() || next >= services.size()) {
+                return;
+            }
+            String service = services.get(next++);
+            pending++;
+            long start = System.nanoTime();
+            CompletableFuture<HttpResponse<String>> request =
+                    httpClient.sendAsync(buildRequest(service), HttpResponse.BodyHandlers.ofString());
+            inFlight.add(request);
+            request.whenComplete((response, error) -> {
+                if (result.isDone()) {
+                    // 已有结果，被取消的请求不计入评分
+                    return;
+                }
+                String ip = null;
+                if (error == null) {
+                    ip = parseResponse(service, family, response);
+                } else {
+                    logger.warn("服务 {} 不可用: {}", service, error.getMessage());
+                }
+                onProbeDone(recordResult(service, family, start, ip));
+            });
+            if (next < services.size()) {
+                HEDGE_SCHEDULER.schedule(this::launchNext, hedgeDelay, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        private synchronized void onProbeDone(String ip) {
+            pending--;
+            if (ip != null) {
+                result.complete(ip);
+            } else if (next < services.size()) {
+                launchNext();
+            } else if (pending == 0) {
+                result.complete(null);
+            }
+        }
+
+        synchronized void cancelAll() {
+            result.complete(null);
+            for (CompletableFuture<HttpResponse<String>> request : inFlight) {
+                request.cancel(true);
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,247 @@
+package com.qin.autoddns.dns;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * DNS报文编解码测试，应答报文按线上格式逐字节构造
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+class DnsMessageTest {
+    // 应答中问题段的名称从头部之后开始，压缩指针指向这里
+    private static final int QUESTION_NAME_OFFSET = 12;
+
+    @Test
+    void encodeQueryWritesHeaderQuestionAndOpt() {
+        byte[] message = DnsMessage.encodeQuery(0xBEEF, "Home.Example.com.", DnsMessage.TYPE_AAAA, false);
+        ByteBuffer buffer = ByteBuffer.wrap(message);
+
+        assertEquals(0xBEEF, buffer.getShort() & 0xFFFF);
+        assertEquals(0, buffer.getShort(), "不请求递归时标志位全为0");
+        assertEquals(1, buffer.getShort()); // QDCOUNT
+        assertEquals(0, buffer.getShort()); // ANCOUNT
+        assertEquals(0, buffer.getShort()); // NSCOUNT
+        assertEquals(1, buffer.getShort()); // ARCOUNT
+        byte[] name = new byte[18];
+        buffer.get(name);
+        assertArrayEquals(wireName("home.example.com"), name);
+        assertEquals(DnsMessage.TYPE_AAAA, buffer.getShort());
+        assertEquals(1, buffer.getShort()); // IN
+        // OPT 伪记录
+        assertEquals(0, buffer.get());
+        assertEquals(41, buffer.getShort());
+        assertEquals(DnsMessage.EDNS_UDP_SIZE, buffer.getShort());
+        assertEquals(0, buffer.getInt());
+        assertEquals(0, buffer.getShort());
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    void encodeQuerySetsRecursionDesired() {
+        byte[] message = DnsMessage.encodeQuery(1, "example.com", DnsMessage.TYPE_A, true);
+        assertEquals(0x0100, ByteBuffer.wrap(message).getShort(2));
+        assertEquals(1, DnsMessage.readId(ByteBuffer.wrap(message)));
+    }
+
+    @Test
+    void encodeQueryRejectsInvalidLabels() {
+        assertThrows(IllegalArgumentException.class,
+                () -> DnsMessage.encodeQuery(1, "a..example.com", DnsMessage.TYPE_A, false));
+        assertThrows(IllegalArgumentException.class,
+                () -> DnsMessage.encodeQuery(1, "a".repeat(64) + ".com", DnsMessage.TYPE_A, false));
+    }
+
+    @Test
+    void decodeFollowsCompressionPointers() throws DnsException {
+        Response response = new Response(0x1234, 0x8400, "www.example.com", DnsMessage.TYPE_A);
+        // www.example.com CNAME edge.example.com：目标名称为一个标签加指向 "example.com" 的指针
+        response.record(pointer(QUESTION_NAME_OFFSET), DnsMessage.TYPE_CNAME, 300,
+                concat(new byte[]{4, 'e', 'd', 'g', 'e'}, pointer(QUESTION_NAME_OFFSET + 4)));
+        // edge.example.com A 203.0.113.7：名称是指向上一条记录数据的指针
+        int edgeOffset = response.lastDataOffset();
+        response.record(pointer(edgeOffset), DnsMessage.TYPE_A, 60, new byte[]{(byte) 203, 0, 113, 7});
+
+        DnsResponse decoded = DnsMessage.decode(response.buffer(), "www.example.com", DnsMessage.TYPE_A);
+
+        assertEquals(0x1234, decoded.id());
+        assertTrue(decoded.authoritative());
+        assertFalse(decoded.truncated());
+        assertEquals(DnsResponse.RCODE_NOERROR, decoded.rcode());
+        assertEquals(List.of(
+                new DnsRecord("www.example.com", DnsMessage.TYPE_CNAME, 300, "edge.example.com"),
+                new DnsRecord("edge.example.com", DnsMessage.TYPE_A, 60, "203.0.113.7")), decoded.answers());
+        assertEquals(List.of("203.0.113.7"), decoded.values("Edge.Example.com.", DnsMessage.TYPE_A));
+    }
+
+    @Test
+    void decodeAaaaRecord() throws DnsException {
+        Response response = new Response(7, 0x8400, "v6.example.com", DnsMessage.TYPE_AAAA);
+        byte[] address = new byte[16];
+        address[0] = 0x20;
+        address[1] = 0x01;
+        address[2] = 0x0d;
+        address[3] = (byte) 0xb8;
+        address[15] = 1;
+        response.record(pointer(QUESTION_NAME_OFFSET), DnsMessage.TYPE_AAAA, 120, address);
+
+        DnsResponse decoded = DnsMessage.decode(response.buffer(), "v6.example.com", DnsMessage.TYPE_AAAA);
+
+        assertEquals(List.of("2001:db8::1"), decoded.values("v6.example.com", DnsMessage.TYPE_AAAA));
+    }
+
+    @Test
+    void decodeTruncatedResponseSkipsAnswers() throws DnsException {
+        // TC 置位：应答数为1但报文中没有应答段
+        Response response = new Response(9, 0x8600, "example.com", DnsMessage.TYPE_A);
+        ByteBuffer buffer = response.buffer();
+        buffer.putShort(6, (short) 1);
+
+        DnsResponse decoded = DnsMessage.decode(buffer, "example.com", DnsMessage.TYPE_A);
+
+        assertTrue(decoded.truncated());
+        assertTrue(decoded.answers().isEmpty());
+    }
+
+    @Test
+    void decodeReportsRcodeAndNonAuthoritativeAnswers() throws DnsException {
+        DnsResponse nxdomain = DnsMessage.decode(new Response(1, 0x8403, "missing.example.com", DnsMessage.TYPE_A)
+                .buffer(), "missing.example.com", DnsMessage.TYPE_A);
+        assertEquals(DnsResponse.RCODE_NXDOMAIN, nxdomain.rcode());
+        assertTrue(nxdomain.authoritative());
+
+        DnsResponse servfail = DnsMessage.decode(new Response(1, 0x8002, "example.com", DnsMessage.TYPE_A)
+                .buffer(), "example.com", DnsMessage.TYPE_A);
+        assertEquals(2, servfail.rcode());
+        assertFalse(servfail.authoritative());
+    }
+
+    @Test
+    void decodeRejectsMismatchedOrMalformedMessages() {
+        Response response = new Response(1, 0x8400, "example.com", DnsMessage.TYPE_A);
+        assertThrows(DnsException.class,
+                () -> DnsMessage.decode(response.buffer(), "other.example.com", DnsMessage.TYPE_A));
+        assertThrows(DnsException.class,
+                () -> DnsMessage.decode(response.buffer(), "example.com", DnsMessage.TYPE_AAAA));
+
+        Response query = new Response(1, 0x0000, "example.com", DnsMessage.TYPE_A);
+        assertThrows(DnsException.class, () -> DnsMessage.decode(query.buffer(), "example.com", DnsMessage.TYPE_A));
+
+        // 应答数为1但报文在应答段之前结束
+        ByteBuffer missingAnswer = response.buffer();
+        missingAnswer.putShort(6, (short) 1);
+        assertThrows(DnsException.class, () -> DnsMessage.decode(missingAnswer, "example.com", DnsMessage.TYPE_A));
+
+        // A 记录数据长度不是4
+        Response badLength = new Response(1, 0x8400, "example.com", DnsMessage.TYPE_A);
+        badLength.record(pointer(QUESTION_NAME_OFFSET), DnsMessage.TYPE_A, 60, new byte[]{1, 2, 3});
+        assertThrows(DnsException.class, () -> DnsMessage.decode(badLength.buffer(), "example.com", DnsMessage.TYPE_A));
+    }
+
+    @Test
+    void decodeRejectsPointerLoops() {
+        Response response = new Response(1, 0x8400, "example.com", DnsMessage.TYPE_A);
+        // 记录名指向自身
+        int owner = response.size();
+        response.record(pointer(owner), DnsMessage.TYPE_A, 60, new byte[]{1, 2, 3, 4});
+        assertThrows(DnsException.class, () -> DnsMessage.decode(response.buffer(), "example.com", DnsMessage.TYPE_A));
+    }
+
+    @Test
+    void decodeDoesNotMoveInputPosition() throws DnsException {
+        ByteBuffer buffer = new Response(42, 0x8400, "example.com", DnsMessage.TYPE_A).buffer();
+        DnsMessage.decode(buffer, "example.com", DnsMessage.TYPE_A);
+        assertEquals(0, buffer.position());
+        assertEquals(42, DnsMessage.readId(buffer));
+        assertEquals(-1, DnsMessage.readId(ByteBuffer.allocate(1)));
+    }
+
+    private static byte[] wireName(String name) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (String label : name.split("\\.")) {
+            out.write(label.length());
+            out.writeBytes(label.getBytes());
+        }
+        out.write(0);
+        return out.toByteArray();
+    }
+
+    private static byte[] pointer(int offset) {
+        return new byte[]{(byte) (0xC0 | offset >> 8), (byte) offset};
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] result = new byte[first.length + second.length];
+        System.arraycopy(first, 0, result, 0, first.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    /**
+     * 逐段构造应答报文：头部、一个问题，之后追加应答记录
+     */
+    private static final class Response {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private int answers;
+        private int lastDataOffset;
+
+        Response(int id, int flags, String name, int type) {
+            writeShort(id);
+            writeShort(flags);
+            writeShort(1); // QDCOUNT
+            writeShort(0); // ANCOUNT，构造完成时回填
+            writeShort(0);
+            writeShort(0);
+            out.writeBytes(wireName(name));
+            writeShort(type);
+            writeShort(1);
+        }
+
+        /**
+         * 追加一条记录
+         *
+         * @param owner 记录名的线上格式，可以是压缩指针
+         */
+        void record(byte[] owner, int type, long ttl, byte[] data) {
+            out.writeBytes(owner);
+            writeShort(type);
+            writeShort(1);
+            writeShort((int) (ttl >>> 16));
+            writeShort((int) ttl);
+            writeShort(data.length);
+            lastDataOffset = out.size();
+            out.writeBytes(data);
+            answers++;
+        }
+
+        int lastDataOffset() {
+            return lastDataOffset;
+        }
+
+        int size() {
+            return out.size();
+        }
+
+        ByteBuffer buffer() {
+            byte[] bytes = out.toByteArray();
+            bytes[6] = (byte) (answers >> 8);
+            bytes[7] = (byte) answers;
+            return ByteBuffer.wrap(bytes);
+        }
+
+        private void writeShort(int value) {
+            out.write(value >> 8);
+            out.write(value);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.qin.autoddns.state;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.qin.autoddns.config.DDNSConfig;
+import com.qin.autoddns.config.DDNSConfig.RecordConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 记录同步状态的崩溃恢复测试：不调用 close() 直接用同一组文件新建存储，模拟进程退出后重启
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+class RecordStateStoreTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void restartReplaysJournalAndDropsTornTail() throws IOException {
+        DDNSConfig config = config(1000);
+        RecordConfig home = record("home");
+        RecordConfig nas = record("nas");
+        RecordStateStore store = new RecordStateStore(config, objectMapper);
+        store.markApplied(home, "192.0.2.1", "r1");
+        store.markVerified(nas, "192.0.2.1", "r2");
+        store.sync();
+        // 写下一条日志时进程退出，只留下半行
+        Files.write(journal(), "{\"type\":\"APPLIED\",\"key\":\"cloud".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        RecordStateStore restarted = new RecordStateStore(config, objectMapper);
+
+        assertEquals("r1", restarted.get(home).recordId());
+        assertEquals("192.0.2.1", restarted.get(nas).ip());
+        assertTrue(restarted.isUpToDate(home, "192.0.2.1"));
+        // 回放后压缩：状态写入状态文件，日志另起新文件，旧日志保留为 .1
+        assertEquals(0, Files.size(journal()));
+        assertTrue(Files.readString(dir.resolve("state.journal.1")).endsWith("\n"), "残缺的一行应在回放时截掉");
+        assertTrue(Files.readString(dir.resolve("state.json")).contains("r1"));
+        restarted.close();
+    }
+
+    @Test
+    void intentWithoutAppliedLeavesRecordUnknown() {
+        DDNSConfig config = config(1000);
+        RecordConfig home = record("home");
+        RecordConfig nas = record("nas");
+        RecordStateStore store = new RecordStateStore(config, objectMapper);
+        store.markApplied(home, "192.0.2.1", "r1");
+        store.markApplied(nas, "192.0.2.1", "r2");
+        store.sync();
+        // 写入服务商途中退出：只有写入意图，没有写入结果
+        store.markIntent(home, "198.51.100.1", "192.0.2.1");
+        store.sync();
+
+        RecordStateStore restarted = new RecordStateStore(config, objectMapper);
+
+        assertNull(restarted.get(home), "写入结果未知的记录必须重新查询服务商");
+        assertFalse(restarted.isUpToDate(home, "192.0.2.1"));
+        assertFalse(restarted.isUpToDate(home, "198.51.100.1"));
+        assertEquals("r2", restarted.get(nas).recordId());
+        restarted.close();
+
+        // 压缩后状态文件里同样没有这条记录
+        RecordStateStore again = new RecordStateStore(config, objectMapper);
+        assertNull(again.get(home));
+        assertNotNull(again.get(nas));
+        again.close();
+    }
+
+    @Test
+    void compactionKeepsLatestStateAcrossRestart() throws IOException {
+        DDNSConfig config = config(5);
+        RecordConfig home = record("home");
+        RecordStateStore store = new RecordStateStore(config, objectMapper);
+        for (int i = 1; i <= 12; i++) {
+            store.markApplied(home, "192.0.2." + i, "r" + i);
+        }
+        store.sync();
+        // 超过阈值时已压缩，当前日志只有压缩之后的记录
+        assertTrue(Files.readAllLines(journal()).size() < 5);
+        assertTrue(Files.exists(dir.resolve("state.journal.1")));
+
+        RecordStateStore restarted = new RecordStateStore(config, objectMapper);
+        assertEquals("192.0.2.12", restarted.get(home).ip());
+        assertEquals("r12", restarted.get(home).recordId());
+        restarted.close();
+        store.close();
+    }
+
+    @Test
+    void compactionRacingWithSyncLosesNothing() throws Exception {
+        DDNSConfig config = config(4);
+        Logger logger = (Logger) LoggerFactory.getLogger(RecordStateStore.class);
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.start();
+        logger.addAppender(appender);
+        int threads = 16;
+        int rounds = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            RecordStateStore store = new RecordStateStore(config, objectMapper);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                RecordConfig record = record("host" + t);
+                futures.add(executor.submit(() -> {
+                    for (int i = 1; i <= rounds; i++) {
+                        // 与 DDNSUpdateService 的写入顺序一致：意图落盘后写入，写入结果随后刷盘
+                        store.markIntent(record, "192.0.2." + (i % 250), null);
+                        store.sync();
+                        store.markApplied(record, "192.0.2." + (i % 250), "r" + i);
+                        store.sync();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+            RecordStateStore restarted = new RecordStateStore(config, objectMapper);
+            for (int t = 0; t < threads; t++) {
+                RecordState state = restarted.get(record("host" + t));
+                assertNotNull(state, "host" + t + " 的状态丢失");
+                assertEquals("r" + rounds, state.recordId());
+            }
+            restarted.close();
+            store.close();
+        } finally {
+            executor.shutdownNow();
+            logger.detachAppender(appender);
+        }
+        // 刷盘落到已切换的旧文件等问题只会记录警告，不会抛出
+        List<String> warnings = appender.list.stream()
+                .filter(event -> event.getLevel().isGreaterOrEqual(Level.WARN))
+                .map(ILoggingEvent::getFormattedMessage).toList();
+        assertEquals(List.of(), warnings);
+    }
+
+    private DDNSConfig config(int compactThreshold) {
+        DDNSConfig config = new DDNSConfig();
+        config.getState().setFile(dir.resolve("state.json").toString());
+        config.getState().setJournal(journal().toString());
+        config.getState().setCompactThreshold(compactThreshold);
+        return config;
+    }
+
+    private Path journal() {
+        return dir.resolve("state.journal");
+    }
+
+    private static RecordConfig record(String name) {
+        RecordConfig record = new RecordConfig();
+        record.setZone("example.com");
+        record.setName(name);
+        record.setProvider("cloudflare");
+        return record;
+    }
+}
@@ -0,0 +1,189 @@
+package com.qin.autoddns.state;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 同步日志回放、截断和切换测试，崩溃通过直接截断或改写日志文件模拟
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+class StateJournalTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replayStopsAtIncompleteLastLineAndTruncatesIt() throws IOException {
+        Path file = dir.resolve("state.journal");
+        List<JournalEntry> entries = List.of(
+                JournalEntry.intent("cloudflare|home.example.com|A", "192.0.2.1", null, 1000),
+                JournalEntry.applied("cloudflare|home.example.com|A", new RecordState("192.0.2.1", "r1", 2000, 2000)),
+                JournalEntry.invalidated("cloudflare|nas.example.com|A", 3000));
+        try (StateJournal journal = new StateJournal(file, objectMapper)) {
+            assertEquals(0, journal.open(entry -> {
+            }));
+            for (JournalEntry entry : entries) {
+                journal.append(entry);
+            }
+            journal.flush();
+        }
+        // 进程在写最后一行途中退出：保留前两行和第三行的一部分
+        long intact = lineEnd(file, 2);
+        truncate(file, intact + 5);
+
+        List<JournalEntry> replayed = new ArrayList<>();
+        try (StateJournal journal = new StateJournal(file, objectMapper)) {
+            assertEquals(2, journal.open(replayed::add));
+            assertEquals(entries.subList(0, 2), replayed);
+            assertEquals(intact, Files.size(file), "不完整的一行应被截掉");
+            assertEquals(2, journal.size());
+            // 截断后追加的记录从新的一行开始，不会接在残缺内容后面
+            journal.append(entries.get(2));
+            journal.flush();
+        }
+
+        replayed.clear();
+        try (StateJournal journal = new StateJournal(file, objectMapper)) {
+            assertEquals(3, journal.open(replayed::add));
+        }
+        assertEquals(entries, replayed);
+    }
+
+    @Test
+    void replayStopsAtFirstCorruptLine() throws IOException {
+        Path file = dir.resolve("state.journal");
+        JournalEntry first = JournalEntry.invalidated("a", 1);
+        JournalEntry last = JournalEntry.invalidated("b", 2);
+        Files.write(file, (objectMapper.writeValueAsString(first) + "\n{\"type\":\"APPLIED\",\"key\":\n"
+                + objectMapper.writeValueAsString(last) + "\n").getBytes(StandardCharsets.UTF_8));
+
+        List<JournalEntry> replayed = new ArrayList<>();
+        try (StateJournal journal = new StateJournal(file, objectMapper)) {
+            assertEquals(1, journal.open(replayed::add));
+        }
+        // 损坏行之后的内容无法确定先后关系，一并丢弃
+        assertEquals(List.of(first), replayed);
+        assertEquals(objectMapper.writeValueAsString(first) + "\n", Files.readString(file));
+    }
+
+    @Test
+    void rotateKeepsPreviousFileAsBackup() throws IOException {
+        Path file = dir.resolve("state.journal");
+        Path backup = dir.resolve("state.journal.1");
+        try (StateJournal journal = new StateJournal(file, objectMapper)) {
+            journal.open(entry -> {
+            });
+            journal.append(JournalEntry.invalidated("a", 1));
+            journal.append(JournalEntry.invalidated("b", 2));
+            journal.flush();
+            journal.rotate();
+            assertEquals(0, journal.size());
+            assertEquals(0, Files.size(file));
+            assertEquals(2, Files.readAllLines(backup).size());
+
+            journal.append(JournalEntry.invalidated("c", 3));
+            journal.flush();
+            // 刷盘进度随文件切换归零，新文件上的内容同样落盘
+            assertFalse(Files.readString(file).isEmpty());
+        }
+        List<JournalEntry> replayed = new ArrayList<>();
+        try (StateJournal journal = new StateJournal(file, objectMapper)) {
+            assertEquals(1, journal.open(replayed::add));
+        }
+        assertEquals(List.of(JournalEntry.invalidated("c", 3)), replayed);
+        assertTrue(Files.exists(backup));
+    }
+
+    @Test
+    void flushRacingWithRotateStaysOnCurrentFile() throws Exception {
+        Path file = dir.resolve("state.journal");
+        // 与 RecordStateStore 相同：追加持有读锁，切换持有写锁，刷盘不加锁
+        ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        AtomicBoolean running = new AtomicBoolean(true);
+        int threads = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (StateJournal journal = new StateJournal(file, objectMapper)) {
+            journal.open(entry -> {
+            });
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                String key = "host" + t;
+                futures.add(executor.submit(() -> {
+                    for (long i = 0; running.get(); i++) {
+                        lock.readLock().lock();
+                        try {
+                            journal.append(JournalEntry.invalidated(key, i));
+                        } finally {
+                            lock.readLock().unlock();
+                        }
+                        journal.flush();
+                    }
+                    return null;
+                }));
+            }
+            for (int i = 0; i < 500; i++) {
+                lock.writeLock().lock();
+                try {
+                    journal.rotate();
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+            running.set(false);
+            // 刷盘落到已关闭的旧文件会抛出 ClosedChannelException
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+            // 旧文件的刷盘进度不能记到新文件上，否则之后的记录被当作已落盘而跳过 force
+            long syncs = journal.getSyncs();
+            journal.append(JournalEntry.invalidated("last", 1));
+            journal.flush();
+            assertEquals(syncs + 1, journal.getSyncs());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 第 lines 行末尾（含换行符）的偏移
+     */
+    private static long lineEnd(Path file, int lines) throws IOException {
+        byte[] content = Files.readAllBytes(file);
+        int seen = 0;
+        for (int i = 0; i < content.length; i++) {
+            if (content[i] == '\n' && ++seen == lines) {
+                return i + 1;
+            }
+        }
+        throw new IllegalStateException("日志不足 " + lines + " 行");
+    }
+
+    private static void truncate(Path file, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.qin.autoddns.util;
+
+import com.qin.autoddns.enums.IPFamily;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * IP地址解析与规范输出测试
+ *
+ * @author qinshijiao
+ * @since 2026/10/18
+ */
+class IPAddressTest {
+
+    @Test
+    void parseIPv4() {
+        assertEquals(new IPAddress(IPFamily.IPV4, 0, 0xC0000201L), IPAddress.parse("192.0.2.1"));
+        assertEquals("255.255.255.255", IPAddress.parse("255.255.255.255").toString());
+        assertNull(IPAddress.parse("256.0.0.1"));
+        assertNull(IPAddress.parse("1.2.3"));
+        assertNull(IPAddress.parse("1.2.3.4.5"));
+        assertNull(IPAddress.parse("1..2.3"));
+        assertNull(IPAddress.parse(""));
+        assertNull(IPAddress.parse(null));
+    }
+
+    @Test
+    void rejectLeadingZeros() {
+        // 多位数的前导零可能被当作八进制
+        assertNull(IPAddress.parse("01.2.3.4"));
+        assertNull(IPAddress.parse("192.168.01.1"));
+        assertNull(IPAddress.parse("192.168.1.00"));
+        assertEquals("192.168.0.1", IPAddress.parse("192.168.0.1").toString());
+        assertNull(IPAddress.parse("::ffff:192.168.01.1"));
+        // IPv6 分组最多四位，四位以内的前导零合法
+        assertEquals(IPAddress.parse("1::"), IPAddress.parse("0001::"));
+        assertNull(IPAddress.parse("00001::"));
+    }
+
+    @Test
+    void parseCompressedIPv6() {
+        assertEquals(IPAddress.parse("2001:db8:0:0:0:0:0:1"), IPAddress.parse("2001:db8::1"));
+        assertEquals(new IPAddress(IPFamily.IPV6, 0, 0), IPAddress.parse("::"));
+        assertEquals(new IPAddress(IPFamily.IPV6, 0, 1), IPAddress.parse("::1"));
+        assertEquals(new IPAddress(IPFamily.IPV6, 0x0001000000000000L, 0), IPAddress.parse("1::"));
+        assertEquals(IPAddress.parse("1:2:3:4:5:6:7:0"), IPAddress.parse("1:2:3:4:5:6:7::"));
+        assertEquals(IPAddress.parse("0:2:3:4:5:6:7:8"), IPAddress.parse("::2:3:4:5:6:7:8"));
+        assertEquals(IPAddress.parse("2001:db8::ab"), IPAddress.parse("2001:DB8::AB"));
+
+        assertNull(IPAddress.parse(":::"));
+        assertNull(IPAddress.parse("1::2::3"));
+        assertNull(IPAddress.parse(":1::"));
+        assertNull(IPAddress.parse("1::2:"));
+        assertNull(IPAddress.parse("1:2:3:4:5:6:7"));
+        assertNull(IPAddress.parse("1:2:3:4:5:6:7:8:9"));
+        assertNull(IPAddress.parse("1:2:3:4:5:6:7:8::"));
+        assertNull(IPAddress.parse("2001:db8::g"));
+    }
+
+    @Test
+    void parseEmbeddedIPv4() {
+        assertEquals(new IPAddress(IPFamily.IPV6, 0, 0xFFFFC0000201L), IPAddress.parse("::ffff:192.0.2.1"));
+        assertEquals(IPAddress.parse("64:ff9b::c000:221"), IPAddress.parse("64:ff9b::192.0.2.33"));
+        assertEquals(IPAddress.parse("1:2:3:4:5:6:102:304"), IPAddress.parse("1:2:3:4:5:6:1.2.3.4"));
+
+        assertNull(IPAddress.parse("1:2:3:4:5:6:7:1.2.3.4"));
+        assertNull(IPAddress.parse("::1.2.3"));
+        assertNull(IPAddress.parse("::1.2.3.4:5"));
+        assertNull(IPAddress.parse("1.2.3.4::"));
+    }
+
+    @Test
+    void parseZoneId() {
+        assertEquals(IPAddress.parse("fe80::1"), IPAddress.parse("fe80::1%eth0"));
+        assertEquals(IPAddress.parse("fe80::1"), IPAddress.parseIPv6("fe80::1%2"));
+        assertNull(IPAddress.parse("fe80::1%"));
+        assertNull(IPAddress.parseIPv6("%eth0"));
+        // IPv4 不支持网卡后缀
+        assertNull(IPAddress.parse("192.0.2.1%eth0"));
+    }
+
+    @Test
+    void rejectNonAsciiDigits() {
+        assertNull(IPAddress.parse("::١")); // 阿拉伯-印度数字 1
+        assertNull(IPAddress.parse("１::")); // 全角 1
+        assertNull(IPAddress.parse("2001:db8::ａ")); // 全角 a
+        assertNull(IPAddress.parse("١.2.3.4"));
+        assertFalse(IPAddress.isValidIPv6("::١"));
+    }
+
+    @Test
+    void formatRfc5952() {
+        assertEquals("2001:db8::1", IPAddress.parse("2001:0DB8:0000:0000:0000:0000:0000:0001").toString());
+        assertEquals("::", IPAddress.parse("0:0:0:0:0:0:0:0").toString());
+        assertEquals("::1", IPAddress.parse("0:0:0:0:0:0:0:1").toString());
+        assertEquals("1::", IPAddress.parse("1:0:0:0:0:0:0:0").toString());
+        // 单个零分组不压缩
+        assertEquals("2001:db8:0:1:1:1:1:1", IPAddress.parse("2001:db8::1:1:1:1:1").toString());
+        // 压缩最长的连续零分组，长度相同时压缩第一个
+        assertEquals("2001:0:0:1::1", IPAddress.parse("2001:0:0:1:0:0:0:1").toString());
+        assertEquals("2001:db8::1:0:0:1", IPAddress.parse("2001:db8:0:0:1:0:0:1").toString());
+        assertEquals("::ffff:192.0.2.1", IPAddress.parse("::ffff:c000:201").toString());
+    }
+
+    @Test
+    void fromBytesAndGlobalUnicast() {
+        byte[] bytes = new byte[16];
+        bytes[0] = 0x20;
+        bytes[1] = 0x01;
+        bytes[2] = 0x0d;
+        bytes[3] = (byte) 0xb8;
+        bytes[15] = 1;
+        IPAddress address = IPAddress.fromBytes(bytes);
+        assertEquals(IPAddress.parse("2001:db8::1"), address);
+        assertTrue(address.isGlobalUnicast());
+        assertFalse(IPAddress.parse("fd00::1").isGlobalUnicast());
+        assertFalse(IPAddress.parse("fe80::1").isGlobalUnicast());
+        assertEquals("192.0.2.1", IPAddress.fromBytes(new byte[]{(byte) 192, 0, 2, 1}).toString());
+    }
+}